@@ -1,51 +1,65 @@
 package com.trading.protrading.backtesting;
 
-import com.trading.protrading.data.strategy.Quote;
-import com.trading.protrading.exceptions.InvalidPeriodException;
 import com.trading.protrading.marketdata.MarketHistory;
-import com.trading.protrading.strategytesting.StrategyTestTask;
+import org.apache.logging.log4j.Logger;
 
-import java.util.LinkedList;
+import java.util.List;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
 
 public class BackTester extends Thread {
+    private static final Logger LOGGER = getLogger(BackTester.class);
     private final PastDataStrategyTestingTasksStorage pastDataStrategyTestingTasksStorage;
     private final MarketHistory marketHistory;
-    private LinkedList<Quote> quotes;
+    private final BacktestCheckpointStore checkpoints;
+    private final BackTesterStatistics statistics;
 
-    public BackTester(PastDataStrategyTestingTasksStorage pastDataStrategyTestingTasksStorage, MarketHistory marketHistory) {
+    public BackTester(PastDataStrategyTestingTasksStorage pastDataStrategyTestingTasksStorage, MarketHistory marketHistory,
+                      BacktestCheckpointStore checkpoints, BackTesterStatistics statistics) {
+        super(statistics.getWorker());
         this.pastDataStrategyTestingTasksStorage = pastDataStrategyTestingTasksStorage;
         this.marketHistory = marketHistory;
-        this.quotes = null;
+        this.checkpoints = checkpoints;
+        this.statistics = statistics;
+    }
+
+    public BackTesterStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
     public void run() {
-        StrategyTestTask currentTask = pastDataStrategyTestingTasksStorage.getNextStrategyTest();
-        while (currentTask != null) {
-            executeTaskOverQuotes(currentTask);
-
-            finalizeTask(currentTask, quotes);
-            currentTask = pastDataStrategyTestingTasksStorage.getNextStrategyTest();
+        List<BacktestJob> currentTasks = pastDataStrategyTestingTasksStorage.getNextStrategyTestGroup();
+        while (currentTasks != null) {
+            try {
+                executeTasksOverQuotes(currentTasks);
+            } catch (RuntimeException e) {
+                failGroup(currentTasks, e);
+            }
+            currentTasks = pastDataStrategyTestingTasksStorage.getNextStrategyTestGroup();
         }
     }
 
-
-    private void executeTaskOverQuotes(StrategyTestTask task) {
-        try {
-            quotes = new LinkedList<>(marketHistory.getQuotes(task.getStart(), task.getEnd(), task.getAsset()));
-        } catch (InvalidPeriodException e) {
-            e.printStackTrace();
-        }
-
-        for (Quote quote : quotes) {
-            task.execute(quote);
-        }
+    private void executeTasksOverQuotes(List<BacktestJob> tasks) {
+        long started = System.nanoTime();
+        SharedScan scan = new SharedScan(marketHistory, checkpoints, tasks);
+        scan.run();
+        statistics.recordScan(scan.getTaskCount(), scan.getFailedCount(), scan.getVisitedCount(),
+                scan.getSkippedCount(), System.nanoTime() - started);
+        LOGGER.debug("Backtest scan of " + scan.getTaskCount() + " tasks visited " + scan.getVisitedCount()
+                + " quotes, skipped " + scan.getSkippedCount());
     }
 
-    private void finalizeTask(StrategyTestTask task, LinkedList<Quote> quotes) {
-        Quote quote = quotes.getLast();
-        Quote closingQuote = new Quote(quote.getAsset(), 0, null, quote.getDate().plusMinutes(1));
-        task.execute(closingQuote);
+    // A scan that broke off, on a corrupt segment say, fails the jobs it left open and the worker carries on
+    private void failGroup(List<BacktestJob> tasks, RuntimeException e) {
+        LOGGER.error("Backtest scan of " + tasks.size() + " tasks failed", e);
+        int failed = 0;
+        for (BacktestJob job : tasks) {
+            if (!job.getState().isTerminal()) {
+                job.fail(e.getMessage());
+                failed++;
+            }
+        }
+        statistics.recordScan(failed, failed, 0, 0, 0);
     }
 }
-
@@ -0,0 +1,70 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.marketdata.MarketHistory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Workers pulling from one task storage. A task runs on a single worker from start to end,
+// so a long backtest only holds up its own worker.
+public class BackTesterPool {
+
+    private final PastDataStrategyTestingTasksStorage storage;
+    private final List<BackTester> workers;
+
+    public BackTesterPool(int size, PastDataStrategyTestingTasksStorage storage, MarketHistory marketHistory,
+                          BacktestCheckpointStore checkpoints) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Parameter size must be positive");
+        }
+        this.storage = storage;
+        List<BackTester> created = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            created.add(new BackTester(storage, marketHistory, checkpoints, new BackTesterStatistics("backtester-" + i)));
+        }
+        this.workers = Collections.unmodifiableList(created);
+    }
+
+    public void start() {
+        for (BackTester worker : workers) {
+            worker.start();
+        }
+    }
+
+    public int getSize() {
+        return workers.size();
+    }
+
+    public List<BackTesterStatistics> getStatistics() {
+        List<BackTesterStatistics> statistics = new ArrayList<>();
+        for (BackTester worker : workers) {
+            statistics.add(worker.getStatistics());
+        }
+        return statistics;
+    }
+
+    /*  Workers waiting for a task stop at once, busy ones after their current task. The storage is
+        closed rather than the workers interrupted: an interrupt would not stop a worker that finds
+        another job queued, and could close the archive files of the scan it is in the middle of. */
+    public void shutdown() {
+        storage.close();
+    }
+
+    // True once every worker has stopped, false if the timeout ran out first
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (BackTester worker : workers) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left > 0) {
+                worker.join(left);
+            }
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.trading.protrading.backtesting;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput counters of one backtest worker. Written by the worker only.
+public class BackTesterStatistics {
+
+    private final String worker;
+    private volatile long completedTasks;
+    private volatile long failedTasks;
+    private volatile long visitedQuotes;
+    private volatile long skippedQuotes;
+    private volatile long busyNanos;
+
+    public BackTesterStatistics(String worker) {
+        this.worker = worker;
+    }
+
+    void recordScan(int tasks, int failed, long visited, long skipped, long nanos) {
+        completedTasks += tasks - failed;
+        failedTasks += failed;
+        visitedQuotes += visited;
+        skippedQuotes += skipped;
+        busyNanos += nanos;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public long getFailedTasks() {
+        return failedTasks;
+    }
+
+    public long getVisitedQuotes() {
+        return visitedQuotes;
+    }
+
+    public long getSkippedQuotes() {
+        return skippedQuotes;
+    }
+
+    public long getBusyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(busyNanos);
+    }
+
+    // Archived quotes covered per second of work, skipped zones included. A quote shared by
+    // the tasks of a scan counts once.
+    public double getQuotesPerSecond() {
+        long nanos = busyNanos;
+        return nanos == 0 ? 0 : (visitedQuotes + skippedQuotes) * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TaskCheckpoint;
+import com.trading.protrading.strategytesting.TestConfiguration;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A saved task with what it needs to be queued again: the report id, the configuration and the key of
+// the rules it ran with, so a strategy edited since is not resumed with the old state
+public class BacktestCheckpoint {
+
+    private static final int FORMAT = 1;
+    private final UUID reportId;
+    private final TestConfiguration configuration;
+    private final String strategyKey;
+    private final TaskCheckpoint state;
+
+    BacktestCheckpoint(StrategyTestTask task, LocalDateTime position) {
+        this(task.getReportId(), task.getConfiguration(),
+                BacktestResultCache.key(task.getStrategy(), task.getConfiguration()), task.checkpoint(position));
+    }
+
+    private BacktestCheckpoint(UUID reportId, TestConfiguration configuration, String strategyKey, TaskCheckpoint state) {
+        this.reportId = reportId;
+        this.configuration = configuration;
+        this.strategyKey = strategyKey;
+        this.state = state;
+    }
+
+    public UUID getReportId() {
+        return reportId;
+    }
+
+    public TestConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public String getStrategyKey() {
+        return strategyKey;
+    }
+
+    public TaskCheckpoint getState() {
+        return state;
+    }
+
+    void write(DataOutputStream output) throws IOException {
+        output.writeInt(FORMAT);
+        output.writeUTF(reportId.toString());
+        output.writeUTF(configuration.getUsername());
+        output.writeUTF(configuration.getStrategyName());
+        output.writeUTF(configuration.getAsset().name());
+        output.writeUTF(configuration.getStart().toString());
+        output.writeUTF(configuration.getEnd().toString());
+        output.writeDouble(configuration.getFunds());
+        output.writeDouble(configuration.getTransactionBuyFunds());
+        output.writeUTF(strategyKey);
+        state.write(output);
+    }
+
+    static BacktestCheckpoint read(DataInputStream input) throws IOException {
+        int format = input.readInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported checkpoint format " + format);
+        }
+        UUID reportId = UUID.fromString(input.readUTF());
+        String username = input.readUTF();
+        String strategyName = input.readUTF();
+        Asset asset = Asset.valueOf(input.readUTF());
+        LocalDateTime start = LocalDateTime.parse(input.readUTF());
+        LocalDateTime end = LocalDateTime.parse(input.readUTF());
+        double funds = input.readDouble();
+        double transactionBuyFunds = input.readDouble();
+        TestConfiguration configuration = new TestConfiguration(username, strategyName, asset, start, end, funds,
+                transactionBuyFunds);
+        String strategyKey = input.readUTF();
+        return new BacktestCheckpoint(reportId, configuration, strategyKey, TaskCheckpoint.read(input));
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.trading.protrading.backtesting;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  One file per running backtest holding its latest checkpoint. A file is replaced atomically, so a
+    crash while writing leaves the previous checkpoint, and it is deleted once the job has ended.
+    Scans checkpoint at most once per interval, which keeps the cost to a few writes a minute. */
+public class BacktestCheckpointStore {
+
+    private static final Logger LOGGER = getLogger(BacktestCheckpointStore.class);
+    private static final String FILE_EXTENSION = ".checkpoint";
+    private final Path directory;
+    private final long intervalNanos;
+
+    public BacktestCheckpointStore(Path directory, Duration interval) {
+        this.directory = directory;
+        this.intervalNanos = interval.toNanos();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    void save(BacktestCheckpoint checkpoint) {
+        Path path = getPath(checkpoint.getReportId());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                checkpoint.write(output);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ioException) {
+            LOGGER.error("Checkpoint of backtest " + checkpoint.getReportId() + " was not saved", ioException);
+        }
+    }
+
+    // Unreadable files are dropped, their backtests cannot be resumed
+    public List<BacktestCheckpoint> loadAll() {
+        List<BacktestCheckpoint> checkpoints = new ArrayList<>();
+        for (Path file : listFiles()) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                checkpoints.add(BacktestCheckpoint.read(input));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Checkpoint " + file + " could not be read", e);
+                deleteFile(file);
+            }
+        }
+        return checkpoints;
+    }
+
+    public void delete(UUID reportId) {
+        deleteFile(getPath(reportId));
+    }
+
+    private List<Path> listFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .collect(Collectors.toList());
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+            return new ArrayList<>();
+        }
+    }
+
+    private void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    private Path getPath(UUID reportId) {
+        return directory.resolve(reportId + FILE_EXTENSION);
+    }
+
+}
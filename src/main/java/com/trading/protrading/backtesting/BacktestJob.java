@@ -0,0 +1,173 @@
+package com.trading.protrading.backtesting;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.model.report.Report;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/*  A submitted backtest as its owner sees it. The worker scanning the task moves it through the states
+    and reports how far into the period it got; progress is the share of [start, end] already streamed.
+    Cancelling only raises a flag, the queue or the scan drops the task at its next step. */
+public class BacktestJob {
+
+    private final StrategyTestTask task;
+    private final String username;
+    private final LocalDateTime submitted;
+    private volatile JobState state;
+    private volatile double progress;
+    private volatile LocalDateTime started;
+    private volatile LocalDateTime finished;
+    private volatile long startedNanos;
+    private volatile boolean cancelRequested;
+    private volatile String failure;
+    private final CompletableFuture<Report> result;
+
+    public BacktestJob(StrategyTestTask task) {
+        this.task = task;
+        this.username = task.getIdentifier().getUsername();
+        this.submitted = LocalDateTime.now();
+        this.state = JobState.QUEUED;
+        this.progress = 0;
+        this.cancelRequested = false;
+        this.result = new CompletableFuture<>();
+    }
+
+    // A job answered without running, with a report that was already saved
+    public static BacktestJob completed(StrategyTestTask task, Report report) {
+        BacktestJob job = new BacktestJob(task);
+        job.start();
+        job.progress = 1;
+        job.end(JobState.DONE);
+        job.result.complete(report);
+        return job;
+    }
+
+    @JsonIgnore
+    public StrategyTestTask getTask() {
+        return task;
+    }
+
+    public UUID getReportId() {
+        return task.getReportId();
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getStrategyName() {
+        return task.getIdentifier().getStrategyName();
+    }
+
+    public Asset getAsset() {
+        return task.getAsset();
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    public LocalDateTime getSubmitted() {
+        return submitted;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    public LocalDateTime getStarted() {
+        return started;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    public LocalDateTime getFinished() {
+        return finished;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    // Remaining time at the rate the job has progressed so far, null until that rate is known
+    public Long getEtaMillis() {
+        double done = progress;
+        if (state != JobState.RUNNING || done <= 0) {
+            return null;
+        }
+        long elapsed = System.nanoTime() - startedNanos;
+        return Duration.ofNanos((long) (elapsed * (1 - done) / done)).toMillis();
+    }
+
+    // Completes with the saved report when the job is done, exceptionally when it fails or is cancelled
+    @JsonIgnore
+    public CompletableFuture<Report> getResult() {
+        return result;
+    }
+
+    @JsonIgnore
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    // Returns false when the job had already ended
+    public synchronized boolean cancel() {
+        if (state.isTerminal()) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    synchronized void start() {
+        if (state == JobState.QUEUED) {
+            startedNanos = System.nanoTime();
+            started = LocalDateTime.now();
+            state = JobState.RUNNING;
+        }
+    }
+
+    void updateProgress(LocalDateTime date) {
+        long period = Duration.between(task.getStart(), task.getEnd()).toMillis();
+        long streamed = Duration.between(task.getStart(), date).toMillis();
+        progress = period <= 0 ? 1 : Math.max(0, Math.min(1, (double) streamed / period));
+    }
+
+    synchronized void done() {
+        progress = 1;
+        if (end(JobState.DONE)) {
+            result.complete(task.getFinalReport());
+        }
+    }
+
+    synchronized void fail(String message) {
+        failure = message;
+        if (end(JobState.FAILED)) {
+            result.completeExceptionally(new IllegalStateException(message));
+        }
+    }
+
+    synchronized void cancelled() {
+        if (end(JobState.CANCELLED)) {
+            result.completeExceptionally(new CancellationException("Backtest " + getReportId() + " was cancelled"));
+        }
+    }
+
+    private boolean end(JobState terminal) {
+        if (state.isTerminal()) {
+            return false;
+        }
+        finished = LocalDateTime.now();
+        state = terminal;
+        return true;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.trading.protrading.backtesting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Every submitted backtest by report id. Ended jobs are kept for RETENTION_HOURS so their outcome can be looked up.
+public class BacktestJobRegistry {
+
+    public static final int RETENTION_HOURS = 24;
+    private final ConcurrentMap<UUID, BacktestJob> jobs;
+
+    public BacktestJobRegistry() {
+        this.jobs = new ConcurrentHashMap<>();
+    }
+
+    public void register(BacktestJob job) {
+        purge();
+        jobs.put(job.getReportId(), job);
+    }
+
+    public BacktestJob get(UUID reportId) {
+        return jobs.get(reportId);
+    }
+
+    // The user's jobs, the latest first
+    public List<BacktestJob> getAll(String username) {
+        List<BacktestJob> owned = new ArrayList<>();
+        for (BacktestJob job : jobs.values()) {
+            if (job.getUsername().equals(username)) {
+                owned.add(job);
+            }
+        }
+        owned.sort(Comparator.comparing(BacktestJob::getSubmitted).reversed());
+        return owned;
+    }
+
+    private void purge() {
+        LocalDateTime oldest = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.getState().isTerminal() && job.getFinished().isBefore(oldest));
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Results of finished backtests by a hash of everything that decides them: the rules in the order the
+    strategy runs them, the asset, the period and the funds. The user and strategy names are left out,
+    so the same rules resubmitted by anyone hit. An entry is valid only while the archive fingerprint
+    of its period is unchanged. Recently used results stay on the heap, all of them on disk, and each
+    tier drops its least recently used entries beyond its byte budget. */
+public class BacktestResultCache {
+
+    private static final Logger LOGGER = getLogger(BacktestResultCache.class);
+    private static final String FILE_EXTENSION = ".result";
+    private final Path directory;
+    private final long memoryBytes;
+    private final long diskBytes;
+    private final LinkedHashMap<String, CachedResult> memory;
+    private long memoryUsed;
+    private long diskUsed;
+
+    public BacktestResultCache(Path directory, long memoryBytes, long diskBytes) {
+        this.directory = directory;
+        this.memoryBytes = memoryBytes;
+        this.diskBytes = diskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true);
+        this.memoryUsed = 0;
+        this.diskUsed = 0;
+        try {
+            Files.createDirectories(directory);
+            for (Path file : listFiles()) {
+                diskUsed += Files.size(file);
+            }
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    public static String key(Strategy strategy, TestConfiguration configuration) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(configuration.getAsset()).append('|')
+                .append(configuration.getStart()).append('|')
+                .append(configuration.getEnd()).append('|')
+                .append(configuration.getFunds()).append('|')
+                .append(configuration.getTransactionBuyFunds());
+        // doubles print exactly; the first rule to act wins, so the order is part of the result
+        for (Rule rule : strategy.getRules()) {
+            canonical.append('|').append(rule.getCondition().getPredicate())
+                    .append(':').append(rule.getCondition().getAssetPrice())
+                    .append(':').append(rule.getStopLoss())
+                    .append(':').append(rule.getTakeProfit());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte value : digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", value));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Returns null on a miss, a result of an archive that has changed since is dropped
+    public synchronized CachedResult get(String key, String fingerprint) {
+        CachedResult result = memory.get(key);
+        if (result == null) {
+            result = readFile(key);
+            if (result != null) {
+                putInMemory(key, result);
+            }
+        } else {
+            // a result used from the heap is still recently used on disk
+            touchFile(getPath(key));
+        }
+        if (result != null && !result.getFingerprint().equals(fingerprint)) {
+            remove(key);
+            result = null;
+        }
+        return result;
+    }
+
+    public synchronized void put(String key, CachedResult result) {
+        putInMemory(key, result);
+        writeFile(key, result);
+    }
+
+    private void putInMemory(String key, CachedResult result) {
+        CachedResult previous = memory.put(key, result);
+        if (previous != null) {
+            memoryUsed -= previous.getSize();
+        }
+        memoryUsed += result.getSize();
+        Iterator<CachedResult> eldest = memory.values().iterator();
+        while (memoryUsed > memoryBytes && eldest.hasNext()) {
+            memoryUsed -= eldest.next().getSize();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        CachedResult removed = memory.remove(key);
+        if (removed != null) {
+            memoryUsed -= removed.getSize();
+        }
+        deleteFile(getPath(key));
+    }
+
+    private CachedResult readFile(String key) {
+        Path path = getPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            CachedResult result = CachedResult.read(input);
+            touchFile(path);
+            return result;
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+            deleteFile(path);
+            return null;
+        }
+    }
+
+    private void writeFile(String key, CachedResult result) {
+        Path path = getPath(key);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                result.write(output);
+            }
+            deleteFile(path);
+            diskUsed += Files.size(temporary);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            evictFiles();
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    private void evictFiles() throws IOException {
+        if (diskUsed <= diskBytes) {
+            return;
+        }
+        List<Path> files = listFiles();
+        files.sort(Comparator.comparing(file -> file.toFile().lastModified()));
+        for (Path file : files) {
+            if (diskUsed <= diskBytes) {
+                break;
+            }
+            deleteFile(file);
+        }
+    }
+
+    // The modification time orders the disk tier by use
+    private void touchFile(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void deleteFile(Path path) {
+        try {
+            if (Files.exists(path)) {
+                long size = Files.size(path);
+                Files.delete(path);
+                diskUsed -= size;
+            }
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    private Path getPath(String key) {
+        return directory.resolve(key + FILE_EXTENSION);
+    }
+
+}
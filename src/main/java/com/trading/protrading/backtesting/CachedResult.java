@@ -0,0 +1,94 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.model.report.Report;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+// The values of a finished backtest's report and the archive fingerprint of the period it was run on
+public class CachedResult {
+
+    private static final int FORMAT = 1;
+    private final String fingerprint;
+    private final double totalReturn;
+    private final double winLossRatio;
+    private final double profitFactor;
+    private final double maxDrawdown;
+    private final double returnToDrawdown;
+    private final int maxConsecutiveLosses;
+    private final byte[] trades;
+
+    public CachedResult(Report report, String fingerprint) {
+        this(fingerprint, report.getTotalReturn(), report.getWinLossRatio(), report.getProfitFactor(),
+                report.getMaxDrawdown(), report.getReturnToDrawdown(), report.getMaxConsecutiveLosses(),
+                report.getTrades() == null ? new byte[0] : report.getTrades());
+    }
+
+    private CachedResult(String fingerprint, double totalReturn, double winLossRatio, double profitFactor,
+                         double maxDrawdown, double returnToDrawdown, int maxConsecutiveLosses, byte[] trades) {
+        this.fingerprint = fingerprint;
+        this.totalReturn = totalReturn;
+        this.winLossRatio = winLossRatio;
+        this.profitFactor = profitFactor;
+        this.maxDrawdown = maxDrawdown;
+        this.returnToDrawdown = returnToDrawdown;
+        this.maxConsecutiveLosses = maxConsecutiveLosses;
+        this.trades = trades;
+    }
+
+    public Report toReport(UUID reportId) {
+        Report report = new Report();
+        report.setPublicId(reportId);
+        report.setTotalReturn(totalReturn);
+        report.setWinLossRatio(winLossRatio);
+        report.setProfitFactor(profitFactor);
+        report.setMaxDrawdown(maxDrawdown);
+        report.setReturnToDrawdown(returnToDrawdown);
+        report.setMaxConsecutiveLosses(maxConsecutiveLosses);
+        report.setTrades(trades.clone());
+        return report;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    // Roughly what the result holds on the heap or on disk
+    public long getSize() {
+        return trades.length + fingerprint.length() + Double.BYTES * 5 + Integer.BYTES * 2;
+    }
+
+    void write(DataOutputStream output) throws IOException {
+        output.writeInt(FORMAT);
+        output.writeUTF(fingerprint);
+        output.writeDouble(totalReturn);
+        output.writeDouble(winLossRatio);
+        output.writeDouble(profitFactor);
+        output.writeDouble(maxDrawdown);
+        output.writeDouble(returnToDrawdown);
+        output.writeInt(maxConsecutiveLosses);
+        output.writeInt(trades.length);
+        output.write(trades);
+    }
+
+    static CachedResult read(DataInputStream input) throws IOException {
+        int format = input.readInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported cached result format " + format);
+        }
+        String fingerprint = input.readUTF();
+        double totalReturn = input.readDouble();
+        double winLossRatio = input.readDouble();
+        double profitFactor = input.readDouble();
+        double maxDrawdown = input.readDouble();
+        double returnToDrawdown = input.readDouble();
+        int maxConsecutiveLosses = input.readInt();
+        byte[] trades = new byte[input.readInt()];
+        input.readFully(trades);
+        return new CachedResult(fingerprint, totalReturn, winLossRatio, profitFactor, maxDrawdown, returnToDrawdown,
+                maxConsecutiveLosses, trades);
+    }
+
+}
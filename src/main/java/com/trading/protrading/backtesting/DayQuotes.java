@@ -0,0 +1,43 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.QuoteType;
+
+import java.util.Arrays;
+
+// The decoded prices and types of one archived day, in feed order
+class DayQuotes {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private double[] prices;
+    private QuoteType[] types;
+    private int size;
+
+    DayQuotes() {
+        this.prices = new double[INITIAL_CAPACITY];
+        this.types = new QuoteType[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    void add(double price, QuoteType type) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+        }
+        prices[size] = price;
+        types[size] = type;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double getPrice(int index) {
+        return prices[index];
+    }
+
+    QuoteType getType(int index) {
+        return types[index];
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteColumns;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.marketdata.QuoteZone;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.strategytesting.ParameterRange;
+import com.trading.protrading.strategytesting.StrategyVariant;
+import com.trading.protrading.strategytesting.SweepResult;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Runs every combination of stop loss, take profit and condition price of one rule over a single
+    scan of the period. Each variant is a StrategyVariant instead of a StrategyTestTask, so a grid
+    costs a few arrays per combination and nothing is saved. Results are ranked by total return. */
+public class ParameterSweep {
+
+    public static final int MAXIMUM_VARIANTS = 100_000;
+    private static final Logger LOGGER = getLogger(ParameterSweep.class);
+    private final MarketHistory marketHistory;
+    private final TestConfiguration configuration;
+    private final List<StrategyVariant> variants;
+
+    public ParameterSweep(MarketHistory marketHistory, Strategy strategy, Rule rule, TestConfiguration configuration,
+                          ParameterRange stopLosses, ParameterRange takeProfits, ParameterRange assetPrices) {
+        long size = (long) stopLosses.size() * takeProfits.size() * assetPrices.size();
+        if (size > MAXIMUM_VARIANTS) {
+            throw new IllegalArgumentException("A sweep cannot have more than " + MAXIMUM_VARIANTS + " variants");
+        }
+        this.marketHistory = marketHistory;
+        this.configuration = configuration;
+        this.variants = new ArrayList<>((int) size);
+        for (int i = 0; i < stopLosses.size(); i++) {
+            for (int j = 0; j < takeProfits.size(); j++) {
+                for (int k = 0; k < assetPrices.size(); k++) {
+                    variants.add(new StrategyVariant(strategy, rule, stopLosses.get(i), takeProfits.get(j),
+                            assetPrices.get(k), configuration));
+                }
+            }
+        }
+    }
+
+    // A limit of 0 returns every variant
+    public List<SweepResult> run(int limit) throws InvalidPeriodException {
+        QuoteCursor quotes = marketHistory.openCursor(configuration.getStart(), configuration.getEnd(),
+                configuration.getAsset());
+        quotes.setZoneFilter(this::mayMatch);
+        QuoteColumns batch = new QuoteColumns(QuoteZone.ZONE_SIZE);
+        long visited = 0;
+        int count = quotes.fill(batch);
+        while (count > 0) {
+            // each variant runs the whole batch, it finishes on its first quote not before the end
+            for (StrategyVariant variant : variants) {
+                variant.execute(batch.getTimestamps(), batch.getPrices(), batch.getTypes(), count);
+            }
+            visited += count;
+            count = quotes.fill(batch);
+        }
+        LOGGER.debug("Swept " + variants.size() + " variants over " + visited + " quotes, skipped "
+                + quotes.getSkippedCount());
+        return rank(limit);
+    }
+
+    void execute(QuoteType type, double price) {
+        for (StrategyVariant variant : variants) {
+            variant.execute(type, price);
+        }
+    }
+
+    List<SweepResult> rank(int limit) {
+        List<SweepResult> results = new ArrayList<>(variants.size());
+        for (StrategyVariant variant : variants) {
+            variant.finish();
+            results.add(new SweepResult(variant));
+        }
+        results.sort(Comparator.comparingDouble(SweepResult::getTotalReturn).reversed());
+        return limit > 0 && limit < results.size() ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    private boolean mayMatch(QuoteZone zone) {
+        for (StrategyVariant variant : variants) {
+            if (variant.mayAct(zone.getBuyCount(), zone.getMinimumBuyPrice(), zone.getMaximumBuyPrice(),
+                    zone.getSellCount(), zone.getMinimumSellPrice(), zone.getMaximumSellPrice())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getVariantCount() {
+        return variants.size();
+    }
+
+}
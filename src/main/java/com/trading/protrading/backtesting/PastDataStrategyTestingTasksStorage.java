@@ -1,40 +1,248 @@
 package com.trading.protrading.backtesting;
 
+import com.trading.protrading.exceptions.BacktestQueueFullException;
 import com.trading.protrading.model.Strategy;
 import com.trading.protrading.repository.ReportRepository;
 import com.trading.protrading.strategytesting.StrategyTestTask;
 import com.trading.protrading.strategytesting.TestConfiguration;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
 
+/*  Queued backtests, one queue per user. The next group starts with the user who has been served
+    the least work, counted in days of quotes, so a user with many long jobs cannot starve the others.
+    Within a user shorter jobs go first, and every dispatch a job waits for counts as a day less,
+    so long jobs still get their turn. A job that does not fit is rejected, never dropped. */
 public class PastDataStrategyTestingTasksStorage {
     public static final int CAPACITY = 1000;
+    public static final int USER_CAPACITY = 100;
+    public static final int MAXIMUM_GROUP_SIZE = 128;
+    static final double AGING_DAYS_PER_DISPATCH = 1;
+    private static final double MINIMUM_COST_DAYS = 1.0 / 24;
     private static final Logger LOGGER = getLogger(PastDataStrategyTestingTasksStorage.class);
-    private final ArrayBlockingQueue<StrategyTestTask> pastDataTestingStrategies;
+    private final Map<String, UserQueue> queues;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private int size;
+    private long dispatchCount;
+    private double virtualTime;
+    private boolean closed;
 
     public PastDataStrategyTestingTasksStorage() {
-        pastDataTestingStrategies = new ArrayBlockingQueue<>(CAPACITY);
+        queues = new HashMap<>();
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        size = 0;
+        dispatchCount = 0;
+        virtualTime = 0;
+        closed = false;
     }
 
-    public synchronized void enableStrategy(Strategy strategy,
-                                            TestConfiguration configuration,
-                                            UUID reportId,
-                                            ReportRepository repository) {
+    public BacktestJob enableStrategy(Strategy strategy,
+                                      TestConfiguration configuration,
+                                      UUID reportId,
+                                      ReportRepository repository) throws BacktestQueueFullException {
         StrategyTestTask test = new StrategyTestTask(configuration, strategy, reportId, repository);
-        pastDataTestingStrategies.offer(test);
+        BacktestJob job = new BacktestJob(test);
+        submit(job);
+        return job;
     }
 
-    public synchronized StrategyTestTask getNextStrategyTest() {
-        StrategyTestTask testObject = null;
+    // Queues a job built elsewhere, such as one resumed from a checkpoint
+    public void submit(BacktestJob job) throws BacktestQueueFullException {
+        lock.lock();
         try {
-           testObject = pastDataTestingStrategies.take();
+            if (size >= CAPACITY) {
+                throw new BacktestQueueFullException("The backtesting queue is full");
+            }
+            UserQueue queue = queues.get(job.getUsername());
+            if (queue == null) {
+                // a user coming back does not bring credit from the time they were idle
+                queue = new UserQueue(virtualTime);
+                queues.put(job.getUsername(), queue);
+            }
+            if (queue.jobs.size() >= USER_CAPACITY) {
+                throw new BacktestQueueFullException("User " + job.getUsername() + " has "
+                        + USER_CAPACITY + " backtests queued already");
+            }
+            queue.jobs.add(new QueuedJob(job, dispatchCount));
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A queued job is dropped here, a running one by its scan
+    public boolean cancel(BacktestJob job) {
+        if (!job.cancel()) {
+            return false;
+        }
+        lock.lock();
+        try {
+            UserQueue queue = queues.get(job.getUsername());
+            if (queue != null && queue.remove(job)) {
+                size--;
+                removeIfEmpty(job.getUsername(), queue);
+                job.cancelled();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /*  Waits for a job, takes the next one of the least served user, then takes along every queued
+        task on the same asset whose period overlaps the group's, so one archive scan serves all of
+        them. Every user is charged for their own jobs in the group. The group is capped, so a burst
+        of similar tasks is still spread over the workers. Returns null once closed or when interrupted. */
+    public List<BacktestJob> getNextStrategyTestGroup() {
+        lock.lock();
+        try {
+            while (size == 0 && !closed) {
+                notEmpty.await();
+            }
+            if (closed) {
+                return null;
+            }
+            String user = leastServedUser();
+            UserQueue firstQueue = queues.get(user);
+            QueuedJob first = firstQueue.next(dispatchCount);
+            List<BacktestJob> group = new ArrayList<>();
+            take(user, firstQueue, first, group);
+            StrategyTestTask firstTask = first.job.getTask();
+            LocalDateTime start = firstTask.getResumePoint();
+            LocalDateTime end = firstTask.getEnd();
+            boolean grown = start != null && end != null;
+            while (grown && group.size() < MAXIMUM_GROUP_SIZE) {
+                grown = false;
+                for (Map.Entry<String, UserQueue> entry : new ArrayList<>(queues.entrySet())) {
+                    Iterator<QueuedJob> queued = new ArrayList<>(entry.getValue().jobs).iterator();
+                    while (queued.hasNext() && group.size() < MAXIMUM_GROUP_SIZE) {
+                        QueuedJob candidate = queued.next();
+                        StrategyTestTask task = candidate.job.getTask();
+                        if (task.getAsset() == firstTask.getAsset() && task.getResumePoint() != null && task.getEnd() != null
+                                && !task.getResumePoint().isAfter(end) && !task.getEnd().isBefore(start)) {
+                            take(entry.getKey(), entry.getValue(), candidate, group);
+                            start = task.getResumePoint().isBefore(start) ? task.getResumePoint() : start;
+                            end = task.getEnd().isAfter(end) ? task.getEnd() : end;
+                            grown = true;
+                        }
+                    }
+                }
+            }
+            dispatchCount++;
+            return group;
         } catch (InterruptedException e) {
             LOGGER.debug(e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Jobs still queued stay where they are, no worker takes them any more
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String leastServedUser() {
+        String least = null;
+        double leastServed = Double.MAX_VALUE;
+        for (Map.Entry<String, UserQueue> entry : queues.entrySet()) {
+            if (entry.getValue().served < leastServed) {
+                least = entry.getKey();
+                leastServed = entry.getValue().served;
+            }
+        }
+        virtualTime = Math.max(virtualTime, leastServed);
+        return least;
+    }
+
+    private void take(String user, UserQueue queue, QueuedJob queued, List<BacktestJob> group) {
+        queue.remove(queued.job);
+        queue.served += queued.cost;
+        size--;
+        removeIfEmpty(user, queue);
+        group.add(queued.job);
+    }
+
+    private void removeIfEmpty(String user, UserQueue queue) {
+        if (queue.jobs.isEmpty()) {
+            queues.remove(user);
+        }
+    }
+
+    private static double estimateCost(StrategyTestTask task) {
+        if (task.getResumePoint() == null || task.getEnd() == null) {
+            return MINIMUM_COST_DAYS;
+        }
+        double days = Duration.between(task.getResumePoint(), task.getEnd()).toMinutes() / (double) Duration.ofDays(1).toMinutes();
+        return Math.max(days, MINIMUM_COST_DAYS);
+    }
+
+    private static class QueuedJob {
+        private final BacktestJob job;
+        private final double cost;
+        private final long enqueuedAt;
+
+        QueuedJob(BacktestJob job, long enqueuedAt) {
+            this.job = job;
+            this.cost = estimateCost(job.getTask());
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        double priority(long dispatchCount) {
+            return cost - AGING_DAYS_PER_DISPATCH * (dispatchCount - enqueuedAt);
+        }
+    }
+
+    private static class UserQueue {
+        private final List<QueuedJob> jobs;
+        private double served;
+
+        UserQueue(double served) {
+            this.jobs = new ArrayList<>();
+            this.served = served;
+        }
+
+        // The job with the lowest aged cost, the oldest of equals
+        QueuedJob next(long dispatchCount) {
+            QueuedJob next = jobs.get(0);
+            for (QueuedJob queued : jobs) {
+                if (queued.priority(dispatchCount) < next.priority(dispatchCount)) {
+                    next = queued;
+                }
+            }
+            return next;
+        }
+
+        boolean remove(BacktestJob job) {
+            Iterator<QueuedJob> queued = jobs.iterator();
+            while (queued.hasNext()) {
+                if (queued.next().job == job) {
+                    queued.remove();
+                    return true;
+                }
+            }
+            return false;
         }
-        return testObject;
     }
 }
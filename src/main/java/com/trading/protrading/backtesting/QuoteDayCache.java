@@ -0,0 +1,77 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*  Decoded days of one asset shared by the windows of a walk-forward run. A day is read from the
+    archive once, however many train and test windows cover it, and dropped when the last window
+    that registered it releases it. */
+class QuoteDayCache {
+
+    private final MarketHistory marketHistory;
+    private final Asset asset;
+    private final ConcurrentMap<LocalDate, DayQuotes> days;
+    private final ConcurrentMap<LocalDate, AtomicInteger> users;
+    private final AtomicLong loadCount;
+
+    QuoteDayCache(MarketHistory marketHistory, Asset asset) {
+        this.marketHistory = marketHistory;
+        this.asset = asset;
+        this.days = new ConcurrentHashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.loadCount = new AtomicLong();
+    }
+
+    // Registers one more window that will read the day
+    void retain(LocalDate day) {
+        users.computeIfAbsent(day, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void release(LocalDate day) {
+        AtomicInteger count = users.get(day);
+        if (count != null && count.decrementAndGet() == 0) {
+            users.remove(day);
+            days.remove(day);
+        }
+    }
+
+    DayQuotes get(LocalDate day) {
+        return days.computeIfAbsent(day, this::load);
+    }
+
+    private DayQuotes load(LocalDate day) {
+        DayQuotes quotes = new DayQuotes();
+        QuoteCursor cursor;
+        try {
+            cursor = marketHistory.openCursor(day.atStartOfDay(), day.atTime(LocalTime.MAX), asset);
+        } catch (InvalidPeriodException e) {
+            throw new IllegalStateException("Day " + day + " cannot be read", e);
+        }
+        // a failure leaves no entry, the next window to read the day loads it again
+        try {
+            while (cursor.hasNext()) {
+                Quote quote = cursor.next();
+                quotes.add(quote.getPrice(), quote.getType());
+            }
+        } finally {
+            cursor.close();
+        }
+        loadCount.incrementAndGet();
+        return quotes;
+    }
+
+    long getLoadCount() {
+        return loadCount.get();
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.marketdata.QuoteZone;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Streams the union of the periods of tasks on one asset once, handing every quote to each
+    task whose [start, end] contains it. Every task sees exactly the quotes its own cursor
+    would return, in the same order. A zone is skipped only when no unfinished task can act on it.
+    Cancelled jobs are dropped at the next quote, and the scan stops once no job is left.
+    Running tasks are checkpointed between two timestamps, so no quote is half handed out. */
+class SharedScan {
+
+    static final int PROGRESS_INTERVAL = 4096;
+    private static final Logger LOGGER = getLogger(SharedScan.class);
+    private final MarketHistory marketHistory;
+    private final BacktestCheckpointStore checkpoints;
+    private final List<BacktestJob> jobs;
+    private final List<StrategyZoneFilter> filters;
+    private final List<BacktestJob> active;
+    private QuoteCursor quotes;
+    private int nextToStart;
+    private int failedCount;
+    private long visitedCount;
+    private long skippedCount;
+    private long lastCheckpointNanos;
+    private boolean checkpointDue;
+
+    SharedScan(MarketHistory marketHistory, BacktestCheckpointStore checkpoints, List<BacktestJob> jobs) {
+        this.marketHistory = marketHistory;
+        this.checkpoints = checkpoints;
+        this.jobs = new ArrayList<>(jobs);
+        this.jobs.sort(Comparator.comparing(job -> job.getTask().getResumePoint()));
+        this.filters = new ArrayList<>();
+        for (BacktestJob job : this.jobs) {
+            filters.add(new StrategyZoneFilter(job.getTask()));
+        }
+        this.active = new ArrayList<>();
+        this.nextToStart = 0;
+        this.lastCheckpointNanos = System.nanoTime();
+        this.checkpointDue = false;
+    }
+
+    void run() {
+        for (BacktestJob job : jobs) {
+            job.start();
+        }
+        if (!scan()) {
+            return;
+        }
+        for (BacktestJob job : jobs) {
+            if (job.getState().isTerminal()) {
+                continue;
+            }
+            // a task that saved its report is done even if cancelled since
+            if (job.getTask().isFinished()) {
+                job.done();
+            } else if (job.isCancelRequested()) {
+                job.cancelled();
+            } else {
+                try {
+                    finalizeTask(job.getTask());
+                    job.done();
+                } catch (RuntimeException e) {
+                    fail(job, e);
+                }
+            }
+        }
+    }
+
+    // False when the period cannot be read, its jobs are failed rather than ended with an empty report
+    private boolean scan() {
+        StrategyTestTask first = jobs.get(0).getTask();
+        Asset asset = first.getAsset();
+        LocalDateTime start = first.getResumePoint();
+        LocalDateTime end = first.getEnd();
+        for (BacktestJob job : jobs) {
+            end = job.getTask().getEnd().isAfter(end) ? job.getTask().getEnd() : end;
+        }
+        try {
+            quotes = marketHistory.openCursor(start, end, asset);
+        } catch (InvalidPeriodException e) {
+            for (BacktestJob job : jobs) {
+                if (!job.getState().isTerminal()) {
+                    fail(job, e);
+                }
+            }
+            return false;
+        }
+
+        quotes.setZoneFilter(this::mayMatch);
+        LocalDateTime previous = null;
+        try {
+            while (hasWork() && quotes.hasNext()) {
+                Quote quote = quotes.next();
+                if (checkpointDue && quote.getDate().isAfter(previous)) {
+                    checkpoint(previous);
+                }
+                dispatch(quote);
+                previous = quote.getDate();
+                visitedCount++;
+                if (visitedCount % PROGRESS_INTERVAL == 0) {
+                    reportProgress(quote.getDate());
+                    checkpointDue = System.nanoTime() - lastCheckpointNanos >= checkpoints.getIntervalNanos();
+                }
+            }
+        } finally {
+            // every job ended or was cancelled, or reading broke off, the rest of the range is not needed
+            quotes.close();
+        }
+        skippedCount = quotes.getSkippedCount();
+        return true;
+    }
+
+    private void dispatch(Quote quote) {
+        LocalDateTime date = quote.getDate();
+        while (nextToStart < jobs.size() && !date.isBefore(jobs.get(nextToStart).getTask().getResumePoint())) {
+            BacktestJob job = jobs.get(nextToStart++);
+            if (!job.isCancelRequested()) {
+                active.add(job);
+            }
+        }
+        Iterator<BacktestJob> receivers = active.iterator();
+        while (receivers.hasNext()) {
+            BacktestJob job = receivers.next();
+            StrategyTestTask task = job.getTask();
+            if (job.isCancelRequested() || date.isAfter(task.getEnd())) {
+                receivers.remove();
+                continue;
+            }
+            try {
+                task.execute(quote);
+            } catch (RuntimeException e) {
+                fail(job, e);
+            }
+            if (task.isFinished()) {
+                job.done();
+                receivers.remove();
+            } else if (job.getState() == JobState.FAILED) {
+                receivers.remove();
+            }
+        }
+    }
+
+    // Cancelled jobs do not keep the scan going
+    private boolean hasWork() {
+        for (BacktestJob job : active) {
+            if (!job.isCancelRequested()) {
+                return true;
+            }
+        }
+        for (int i = nextToStart; i < jobs.size(); i++) {
+            if (!jobs.get(i).isCancelRequested()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reportProgress(LocalDateTime date) {
+        for (BacktestJob job : active) {
+            job.updateProgress(date);
+        }
+    }
+
+    // Every quote up to and including position was handed to the active tasks, none after it
+    private void checkpoint(LocalDateTime position) {
+        for (BacktestJob job : active) {
+            StrategyTestTask task = job.getTask();
+            if (!job.isCancelRequested() && !task.isFinished() && job.getState() == JobState.RUNNING) {
+                checkpoints.save(new BacktestCheckpoint(task, position));
+            }
+        }
+        lastCheckpointNanos = System.nanoTime();
+        checkpointDue = false;
+    }
+
+    private boolean mayMatch(QuoteZone zone) {
+        if (!hasWork()) {
+            // every remaining job was cancelled, the rest of the range is not needed
+            quotes.close();
+            return false;
+        }
+        for (int i = 0; i < jobs.size(); i++) {
+            BacktestJob job = jobs.get(i);
+            if (!job.isCancelRequested() && !job.getTask().isFinished() && job.getState() != JobState.FAILED
+                    && filters.get(i).mayMatch(zone)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finalizeTask(StrategyTestTask task) {
+        if (task.isFinished()) {
+            return;
+        }
+        // a quote at the end of the period closes the open trade and saves the report
+        Quote closingQuote = new Quote(task.getAsset(), 0, null, task.getEnd());
+        task.execute(closingQuote);
+    }
+
+    // A failing task is logged and dropped, the others carry on
+    private void fail(BacktestJob job, Exception e) {
+        LOGGER.error("Backtest " + job.getReportId() + " failed", e);
+        job.fail(e.getMessage());
+        failedCount++;
+    }
+
+    int getTaskCount() {
+        return jobs.size();
+    }
+
+    int getFailedCount() {
+        return failedCount;
+    }
+
+    long getVisitedCount() {
+        return visitedCount;
+    }
+
+    long getSkippedCount() {
+        return skippedCount;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.marketdata.QuoteZone;
+import com.trading.protrading.marketdata.ZoneFilter;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+
+/*  Mirrors Rule.execute over the price ranges of a zone. Without an open trade only BUY quotes
+    meeting a rule condition change anything, with one only SELL quotes reaching a take profit
+    or stop loss do. A zone with neither leaves the task exactly as it was, so it is skipped. */
+public class StrategyZoneFilter implements ZoneFilter {
+
+    private final StrategyTestTask task;
+
+    public StrategyZoneFilter(StrategyTestTask task) {
+        this.task = task;
+    }
+
+    @Override
+    public boolean mayMatch(QuoteZone zone) {
+        if (task.tradeIsOpen()) {
+            return zone.getSellCount() > 0 && mayClose(zone);
+        }
+        return zone.getBuyCount() > 0 && mayOpen(zone);
+    }
+
+    private boolean mayOpen(QuoteZone zone) {
+        for (Rule rule : task.getStrategy().getRules()) {
+            if (rule.getCondition().mayHoldWithin(zone.getMinimumBuyPrice(), zone.getMaximumBuyPrice())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mayClose(QuoteZone zone) {
+        double openingPrice = task.getTradeOpeningPrice();
+        double highestProfit = zone.getMaximumSellPrice() - openingPrice;
+        double lowestProfit = zone.getMinimumSellPrice() - openingPrice;
+        for (Rule rule : task.getStrategy().getRules()) {
+            if (highestProfit > rule.getTakeProfit() || lowestProfit < -rule.getStopLoss()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
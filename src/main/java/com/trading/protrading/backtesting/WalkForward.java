@@ -0,0 +1,134 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.strategytesting.ParameterRange;
+import com.trading.protrading.strategytesting.RawReport;
+import com.trading.protrading.strategytesting.StrategyVariant;
+import com.trading.protrading.strategytesting.SweepResult;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import com.trading.protrading.strategytesting.TradeLog;
+import com.trading.protrading.strategytesting.WalkForwardWindow;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Rolls a train period of whole days and the test period right after it over the configured range,
+    moving by the test length. The best sweep variant of every train period is run on its test period.
+    Windows are independent and run in parallel, reading their days from one QuoteDayCache since a
+    test period is part of the next train periods. */
+public class WalkForward {
+
+    private static final Logger LOGGER = getLogger(WalkForward.class);
+    private final MarketHistory marketHistory;
+    private final Strategy strategy;
+    private final Rule rule;
+    private final TestConfiguration configuration;
+    private final ParameterRange stopLosses;
+    private final ParameterRange takeProfits;
+    private final ParameterRange assetPrices;
+    private final int trainDays;
+    private final int testDays;
+
+    public WalkForward(MarketHistory marketHistory, Strategy strategy, Rule rule, TestConfiguration configuration,
+                       ParameterRange stopLosses, ParameterRange takeProfits, ParameterRange assetPrices,
+                       int trainDays, int testDays) {
+        if (trainDays <= 0 || testDays <= 0) {
+            throw new IllegalArgumentException("Parameters trainDays and testDays must be positive");
+        }
+        if ((long) stopLosses.size() * takeProfits.size() * assetPrices.size() > ParameterSweep.MAXIMUM_VARIANTS) {
+            throw new IllegalArgumentException("A sweep cannot have more than " + ParameterSweep.MAXIMUM_VARIANTS + " variants");
+        }
+        this.marketHistory = marketHistory;
+        this.strategy = strategy;
+        this.rule = rule;
+        this.configuration = configuration;
+        this.stopLosses = stopLosses;
+        this.takeProfits = takeProfits;
+        this.assetPrices = assetPrices;
+        this.trainDays = trainDays;
+        this.testDays = testDays;
+    }
+
+    public List<WalkForwardWindow> run() throws InvalidPeriodException {
+        LocalDate end = configuration.getEnd().toLocalDate();
+        if (end.isAfter(LocalDate.now())) {
+            throw new InvalidPeriodException("Walk-forward windows must end before today");
+        }
+        List<LocalDate> trainStarts = new ArrayList<>();
+        for (LocalDate start = configuration.getStart().toLocalDate();
+             !start.plusDays(trainDays + testDays).isAfter(end); start = start.plusDays(testDays)) {
+            trainStarts.add(start);
+        }
+        if (trainStarts.isEmpty()) {
+            throw new InvalidPeriodException("The period is shorter than one train and test window");
+        }
+
+        QuoteDayCache cache = new QuoteDayCache(marketHistory, configuration.getAsset());
+        for (LocalDate start : trainStarts) {
+            for (LocalDate day = start; day.isBefore(start.plusDays(trainDays + testDays)); day = day.plusDays(1)) {
+                cache.retain(day);
+            }
+        }
+        List<WalkForwardWindow> windows = trainStarts.parallelStream()
+                .map(start -> runWindow(cache, start))
+                .collect(Collectors.toList());
+        LOGGER.debug("Walked " + windows.size() + " windows forward reading " + cache.getLoadCount() + " days");
+        return windows;
+    }
+
+    private WalkForwardWindow runWindow(QuoteDayCache cache, LocalDate trainStart) {
+        LocalDate testStart = trainStart.plusDays(trainDays);
+        LocalDate testEnd = testStart.plusDays(testDays);
+        try {
+            ParameterSweep sweep = new ParameterSweep(marketHistory, strategy, rule, period(trainStart, testStart),
+                    stopLosses, takeProfits, assetPrices);
+            for (LocalDate day = trainStart; day.isBefore(testStart); day = day.plusDays(1)) {
+                DayQuotes quotes = cache.get(day);
+                for (int i = 0; i < quotes.size(); i++) {
+                    sweep.execute(quotes.getType(i), quotes.getPrice(i));
+                }
+            }
+            SweepResult best = sweep.rank(1).get(0);
+
+            StrategyVariant test = new StrategyVariant(strategy, rule, best.getStopLoss(), best.getTakeProfit(),
+                    best.getAssetPrice(), period(testStart, testEnd), new TradeLog());
+            for (LocalDate day = testStart; day.isBefore(testEnd); day = day.plusDays(1)) {
+                DayQuotes quotes = cache.get(day);
+                for (int i = 0; i < quotes.size(); i++) {
+                    test.execute(quotes.getType(i), quotes.getPrice(i));
+                }
+            }
+            test.finish();
+            return new WalkForwardWindow(trainStart.atStartOfDay(), testStart.atStartOfDay(), testEnd.atStartOfDay(),
+                    best, test);
+        } finally {
+            for (LocalDate day = trainStart; day.isBefore(testEnd); day = day.plusDays(1)) {
+                cache.release(day);
+            }
+        }
+    }
+
+    private TestConfiguration period(LocalDate start, LocalDate end) {
+        return new TestConfiguration(configuration.getUsername(), configuration.getStrategyName(),
+                configuration.getAsset(), start.atStartOfDay(), end.atStartOfDay(),
+                configuration.getFunds(), configuration.getTransactionBuyFunds());
+    }
+
+    // Every test period starts from the configured funds, their positions are replayed back to back
+    public static RawReport stitch(List<WalkForwardWindow> windows, double funds) {
+        TradeLog trades = new TradeLog();
+        for (WalkForwardWindow window : windows) {
+            trades.addAll(window.getTrades());
+        }
+        return trades.replay(funds);
+    }
+
+}
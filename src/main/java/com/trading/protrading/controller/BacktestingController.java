@@ -1,16 +1,39 @@
 package com.trading.protrading.controller;
 
+import com.trading.protrading.backtesting.BackTesterStatistics;
+import com.trading.protrading.backtesting.BacktestJob;
+import com.trading.protrading.data.strategy.ComparisonReport;
+import com.trading.protrading.dto.SweepDTO;
 import com.trading.protrading.dto.TestConfigurationDTO;
+import com.trading.protrading.dto.WalkForwardDTO;
+import com.trading.protrading.exceptions.BacktestQueueFullException;
+import com.trading.protrading.exceptions.IncompatibleReportTypesException;
 import com.trading.protrading.exceptions.InvalidAssetException;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.exceptions.InvalidSweepException;
+import com.trading.protrading.exceptions.JobNotFoundException;
+import com.trading.protrading.exceptions.ReportNotFoundException;
 import com.trading.protrading.exceptions.StrategyNotFoundException;
+import com.trading.protrading.model.report.Report;
 import com.trading.protrading.service.BacktestingService;
+import com.trading.protrading.strategytesting.MonteCarloReport;
+import com.trading.protrading.strategytesting.ResamplingMode;
+import com.trading.protrading.strategytesting.SweepResult;
 import com.trading.protrading.strategytesting.TestConfiguration;
+import com.trading.protrading.strategytesting.WalkForwardResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -38,12 +61,173 @@ public class BacktestingController {
                     configuration.getFunds(), configuration.getTransactionBuyFunds());
             return this.backtestingService.enableStrategy(testConfiguration);
 
-        } catch (InvalidAssetException | StrategyNotFoundException e) {
+        } catch (InvalidAssetException | StrategyNotFoundException | InvalidPeriodException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             return null;
+        } catch (BacktestQueueFullException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return null;
         }
 
     }
 
+    @GetMapping("/backtesting/jobs")
+    public List<BacktestJob> getJobs(HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        return backtestingService.getJobs(username);
+    }
+
+    @GetMapping("/backtesting/jobs/{reportId}")
+    public BacktestJob getJob(@PathVariable UUID reportId, HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            return backtestingService.getJob(username, reportId);
+        } catch (JobNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+    }
+
+    @DeleteMapping("/backtesting/jobs/{reportId}")
+    public void cancelJob(@PathVariable UUID reportId, HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        try {
+            if (!backtestingService.cancelJob(username, reportId)) {
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+            }
+        } catch (JobNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    @GetMapping("/backtesting/reports/{reportId}")
+    public Report getReport(@PathVariable UUID reportId, HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            return backtestingService.getReport(username, reportId);
+        } catch (ReportNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+    }
+
+    @GetMapping("/backtesting/reports/strategy/{strategyName}")
+    public Collection<Report> getReports(@PathVariable String strategyName,
+                                         @RequestParam(defaultValue = "10") int count,
+                                         HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            return backtestingService.getReports(username, strategyName, count);
+        } catch (StrategyNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+    }
+
+    @GetMapping("/backtesting/reports/compare/{firstReportId}/{secondReportId}")
+    public ComparisonReport compareReports(@PathVariable UUID firstReportId, @PathVariable UUID secondReportId,
+                                           HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            return backtestingService.compareReports(username, firstReportId, secondReportId);
+        } catch (ReportNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        } catch (IncompatibleReportTypesException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+    }
+
+    @PostMapping("/backtesting/sweep/{strategyName}")
+    public List<SweepResult> sweep(@PathVariable String strategyName, @RequestBody SweepDTO sweep, HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        TestConfigurationDTO configuration = sweep.getConfiguration();
+        if (username == null || configuration == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            TestConfiguration testConfiguration = new TestConfiguration(username, strategyName, configuration.getAssetEnum(), configuration.getStart(),
+                    configuration.getEnd(),
+                    configuration.getFunds(), configuration.getTransactionBuyFunds());
+            return this.backtestingService.sweep(testConfiguration, sweep.getRuleId(), sweep.getStopLoss(),
+                    sweep.getTakeProfit(), sweep.getAssetPrice(), sweep.getLimit());
+        } catch (InvalidAssetException | StrategyNotFoundException | InvalidSweepException | InvalidPeriodException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+    }
+
+    @PostMapping("/backtesting/walkforward/{strategyName}")
+    public WalkForwardResult walkForward(@PathVariable String strategyName, @RequestBody WalkForwardDTO walkForward, HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        TestConfigurationDTO configuration = walkForward.getConfiguration();
+        if (username == null || configuration == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            TestConfiguration testConfiguration = new TestConfiguration(username, strategyName, configuration.getAssetEnum(), configuration.getStart(),
+                    configuration.getEnd(),
+                    configuration.getFunds(), configuration.getTransactionBuyFunds());
+            return this.backtestingService.walkForward(testConfiguration, walkForward.getRuleId(), walkForward.getStopLoss(),
+                    walkForward.getTakeProfit(), walkForward.getAssetPrice(), walkForward.getTrainDays(), walkForward.getTestDays());
+        } catch (InvalidAssetException | StrategyNotFoundException | InvalidSweepException | InvalidPeriodException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+    }
+
+    @GetMapping("/backtesting/montecarlo/{reportId}")
+    public MonteCarloReport monteCarlo(@PathVariable UUID reportId,
+                                       @RequestParam(defaultValue = "PERMUTE") ResamplingMode mode,
+                                       @RequestParam(defaultValue = "10000") int simulations,
+                                       @RequestParam(defaultValue = "0") long seed,
+                                       HttpServletRequest request, HttpServletResponse response) {
+        String username = StrategyController.getUsernameFromHeader(request);
+        if (username == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+        try {
+            return this.backtestingService.monteCarlo(username, reportId, mode, simulations, seed);
+        } catch (ReportNotFoundException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return null;
+        }
+    }
+
+    @GetMapping("/backtesting/workers")
+    public List<BackTesterStatistics> getWorkerStatistics() {
+        return backtestingService.getWorkerStatistics();
+    }
 
 }
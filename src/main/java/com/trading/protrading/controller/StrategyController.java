@@ -133,6 +133,9 @@ public class StrategyController {
         } catch (InvalidAssetException | StrategyNotFoundException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             return null;
+        } catch (StrategyAlreadyRunningException e) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            return null;
         }
 
 
@@ -1,9 +1,11 @@
 package com.trading.protrading.data.strategy;
 
 import com.trading.protrading.model.report.Report;
+import lombok.Data;
 
 import java.util.UUID;
 
+@Data
 public class ComparisonReport {
     private UUID publicIdFirst;
     private Double totalReturnFirst;
@@ -5,4 +5,35 @@ public enum Predicate {
     GREATER_OR_EQUAL,
     LESS_THAN,
     LESS_OR_EQUAL;
+
+    public boolean test(double price, double assetPrice) {
+        switch (this) {
+            case LESS_THAN:
+                return price < assetPrice;
+            case LESS_OR_EQUAL:
+                return price <= assetPrice;
+            case GREATER_THAN:
+                return price > assetPrice;
+            case GREATER_OR_EQUAL:
+                return price >= assetPrice;
+            default:
+                throw new IllegalStateException("Unexpected value: " + this);
+        }
+    }
+
+    // Whether the predicate holds for at least one price in [minimum, maximum]
+    public boolean mayHoldWithin(double minimum, double maximum, double assetPrice) {
+        switch (this) {
+            case LESS_THAN:
+                return minimum < assetPrice;
+            case LESS_OR_EQUAL:
+                return minimum <= assetPrice;
+            case GREATER_THAN:
+                return maximum > assetPrice;
+            case GREATER_OR_EQUAL:
+                return maximum >= assetPrice;
+            default:
+                throw new IllegalStateException("Unexpected value: " + this);
+        }
+    }
 }
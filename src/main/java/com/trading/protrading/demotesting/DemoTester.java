@@ -3,45 +3,208 @@ package com.trading.protrading.demotesting;
 import com.trading.protrading.data.strategy.Asset;
 import com.trading.protrading.data.strategy.Quote;
 import com.trading.protrading.marketdata.Market;
-import com.trading.protrading.strategytesting.StrategyTestTask;
-import com.trading.protrading.strategytesting.TestIdentifier;
+import com.trading.protrading.marketdata.TickRingConsumer;
+import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  One shard of the live tasks. Every shard gets every quote and runs its own tasks on its own thread,
+    so the task state is never shared. Tasks arrive and leave through the storage between two quotes.
+    Shards read the feed at their own pace, so a task moved here may have missed quotes this shard already
+    ran; they are replayed from the recent history. The feed waits for the slowest reader of the tick ring,
+    so no shard gets more than a ring ahead of another and twice the ring is history enough. */
 public class DemoTester extends Thread {
-    private Market market;
-    private RealTimeStrategyTestingTasksStorage taskStorage;
-    private StrategyTestTask delimiter;
-    private Quote currentQuote;
-    private StrategyTestTask currentTask;
-
-    public DemoTester(Market market, RealTimeStrategyTestingTasksStorage taskStorage) {
-        super();
-        this.market = market;
+    private static final Logger LOGGER = getLogger(DemoTester.class);
+    private final int shard;
+    private final TickRingConsumer quotes;
+    private final RealTimeStrategyTestingTasksStorage taskStorage;
+    private final Map<Asset, List<LiveTask>> tasks;
+    private final long[] lastSequences;
+    private final long[] historySequences;
+    private final Quote[] historyQuotes;
+    private final long[] evictedSequences;
+    private final AtomicReference<Move> move;
+    private int historyNext;
+    private volatile int taskCount;
+    private volatile long busyNanos;
+
+    public DemoTester(int shard, Market market, RealTimeStrategyTestingTasksStorage taskStorage) {
+        super("demo-tester-" + shard);
+        this.shard = shard;
+        // every tick has to reach the live tests, so a slow tester holds the feed back instead of losing quotes
+        this.quotes = market.readTicks();
         this.taskStorage = taskStorage;
-        this.delimiter = new StrategyTestTask(new TestIdentifier("delimiter", "delimiter"));
+        this.tasks = new EnumMap<>(Asset.class);
+        for (Asset asset : Asset.values()) {
+            tasks.put(asset, new ArrayList<>());
+        }
+        this.lastSequences = new long[Asset.values().length];
+        this.historySequences = new long[2 * quotes.getCapacity()];
+        this.historyQuotes = new Quote[historySequences.length];
+        this.evictedSequences = new long[Asset.values().length];
+        this.move = new AtomicReference<>();
     }
 
     @Override
     public void run() {
-        currentQuote = market.getQuote();
-        while (currentQuote != null) {
-            executeAllAvailableTasks();
-            currentQuote = market.getQuote();
+        try {
+            Quote quote = quotes.take();
+            while (quote != null) {
+                long sequence = quotes.getLastSequence();
+                long started = System.nanoTime();
+                adoptArrivals();
+                remember(quote, sequence);
+                executeAllAvailableTasks(quote, sequence);
+                handOff();
+                busyNanos += System.nanoTime() - started;
+                quote = quotes.take();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug(e.getMessage());
+        } finally {
+            // a reader that stopped would hold the feed back for good
+            quotes.cancel();
+        }
+    }
+
+    private void adoptArrivals() {
+        Queue<LiveTask> arrivals = taskStorage.getArrivals(shard);
+        LiveTask arrived = arrivals.poll();
+        while (arrived != null) {
+            Asset asset = arrived.getTask().getAsset();
+            if (!arrived.isStarted()) {
+                arrived.passed(lastSequences[asset.ordinal()]);
+            } else {
+                replay(arrived, asset);
+            }
+            if (arrived.isDone()) {
+                taskStorage.remove(arrived);
+            } else {
+                tasks.get(asset).add(arrived);
+                taskCount++;
+            }
+            arrived = arrivals.poll();
+        }
+    }
+
+    private void replay(LiveTask task, Asset asset) {
+        if (evictedSequences[asset.ordinal()] > task.getLastSequence()) {
+            LOGGER.warn("Strategy " + task.getTask().getIdentifier().getStrategyName()
+                    + " moved to " + getName() + " missed quotes older than its history");
+        }
+        for (int i = 0; i < historyQuotes.length && !task.isDone(); i++) {
+            int slot = (historyNext + i) % historyQuotes.length;
+            Quote quote = historyQuotes[slot];
+            if (quote != null && quote.getAsset() == asset && historySequences[slot] > task.getLastSequence()) {
+                execute(task, quote, historySequences[slot]);
+            }
+        }
+    }
+
+    private void remember(Quote quote, long sequence) {
+        Quote evicted = historyQuotes[historyNext];
+        if (evicted != null) {
+            int asset = evicted.getAsset().ordinal();
+            evictedSequences[asset] = Math.max(evictedSequences[asset], historySequences[historyNext]);
+        }
+        historyQuotes[historyNext] = quote;
+        historySequences[historyNext] = sequence;
+        historyNext = (historyNext + 1) % historyQuotes.length;
+    }
+
+    // Only the tasks on the quote's asset; finished and disabled ones are dropped on the spot
+    private void executeAllAvailableTasks(Quote quote, long sequence) {
+        lastSequences[quote.getAsset().ordinal()] = sequence;
+        List<LiveTask> assetTasks = tasks.get(quote.getAsset());
+        int i = 0;
+        while (i < assetTasks.size()) {
+            LiveTask currentTask = assetTasks.get(i);
+            if (!currentTask.isDone() && sequence > currentTask.getLastSequence()) {
+                execute(currentTask, quote, sequence);
+            }
+            if (currentTask.isDone()) {
+                removeAt(assetTasks, i);
+                taskStorage.remove(currentTask);
+            } else {
+                i++;
+            }
         }
     }
 
-    private void executeAllAvailableTasks() {
-        taskStorage.putDelimiter();
-        currentTask = taskStorage.getNextTask();
+    // A task that throws is stopped, the other tasks and the feed go on
+    private void execute(LiveTask task, Quote quote, long sequence) {
+        try {
+            task.execute(quote, sequence);
+        } catch (RuntimeException e) {
+            LOGGER.error("Live strategy " + task.getTask().getIdentifier().getStrategyName()
+                    + " failed and was stopped", e);
+            task.disable();
+        }
+    }
 
-        while (!currentTask.equals(delimiter)) {
-            Asset currentTestObjectAsset = currentTask.getAsset();
-            Asset quoteAsset = currentQuote.getAsset();
+    // Order within an asset does not matter, so the last task fills the gap
+    private void removeAt(List<LiveTask> assetTasks, int i) {
+        int last = assetTasks.size() - 1;
+        assetTasks.set(i, assetTasks.get(last));
+        assetTasks.remove(last);
+        taskCount--;
+    }
 
-            if (currentTestObjectAsset.equals(quoteAsset)) {
-                currentTask.execute(currentQuote);
+    private void handOff() {
+        Move request = move.getAndSet(null);
+        if (request == null) {
+            return;
+        }
+        int moved = 0;
+        for (Map.Entry<Asset, List<LiveTask>> entry : tasks.entrySet()) {
+            List<LiveTask> assetTasks = entry.getValue();
+            while (moved < request.count && !assetTasks.isEmpty()) {
+                LiveTask task = assetTasks.remove(assetTasks.size() - 1);
+                task.passed(lastSequences[entry.getKey().ordinal()]);
+                taskStorage.moveTo(request.target, task);
+                taskCount--;
+                moved++;
             }
+        }
+        LOGGER.debug("Moved " + moved + " live tasks from " + getName() + " to demo-tester-" + request.target);
+    }
+
+    // Taken up by the shard after its current quote, a request still pending is replaced
+    void requestMove(int target, int count) {
+        move.set(new Move(target, count));
+    }
+
+    int getShard() {
+        return shard;
+    }
+
+    int getTaskCount() {
+        return taskCount;
+    }
+
+    long getBusyNanos() {
+        return busyNanos;
+    }
+
+    void shutdown() {
+        quotes.cancel();
+        interrupt();
+    }
+
+    private static class Move {
+        private final int target;
+        private final int count;
 
-            currentTask = taskStorage.getNextTask();
+        private Move(int target, int count) {
+            this.target = target;
+            this.count = count;
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.marketdata.Market;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+// The live task shards, one per storage shard. A shard that keeps much busier than the idlest one
+// hands part of its tasks over, so one crowded shard does not set the latency of everybody.
+public class DemoTesterPool {
+
+    private static final Logger LOGGER = getLogger(DemoTesterPool.class);
+    private static final long REBALANCE_INTERVAL_MILLIS = 1000;
+    private static final double HOT_BUSY_SHARE = 0.1;
+    private static final double HOT_RATIO = 2;
+    private final List<DemoTester> shards;
+    private final Thread rebalancer;
+
+    public DemoTesterPool(Market market, RealTimeStrategyTestingTasksStorage storage) {
+        List<DemoTester> created = new ArrayList<>();
+        for (int i = 0; i < storage.getShardCount(); i++) {
+            created.add(new DemoTester(i, market, storage));
+        }
+        this.shards = Collections.unmodifiableList(created);
+        this.rebalancer = new Thread(this::rebalance, "demo-rebalancer");
+        rebalancer.setDaemon(true);
+    }
+
+    public void start() {
+        for (DemoTester shard : shards) {
+            shard.start();
+        }
+        if (shards.size() > 1) {
+            rebalancer.start();
+        }
+    }
+
+    public int getSize() {
+        return shards.size();
+    }
+
+    private void rebalance() {
+        long[] previous = new long[shards.size()];
+        try {
+            while (true) {
+                TimeUnit.MILLISECONDS.sleep(REBALANCE_INTERVAL_MILLIS);
+                DemoTester hot = null;
+                DemoTester cold = null;
+                long hotNanos = 0;
+                long coldNanos = Long.MAX_VALUE;
+                for (DemoTester shard : shards) {
+                    long busy = shard.getBusyNanos();
+                    long delta = busy - previous[shard.getShard()];
+                    previous[shard.getShard()] = busy;
+                    if (delta >= hotNanos) {
+                        hot = shard;
+                        hotNanos = delta;
+                    }
+                    if (delta < coldNanos) {
+                        cold = shard;
+                        coldNanos = delta;
+                    }
+                }
+                if (hot != cold && hotNanos > HOT_BUSY_SHARE * TimeUnit.MILLISECONDS.toNanos(REBALANCE_INTERVAL_MILLIS)
+                        && hotNanos > HOT_RATIO * coldNanos) {
+                    // tasks are taken as equally costly, enough of them move to even the two shards out
+                    int count = (int) (hot.getTaskCount() * (hotNanos - coldNanos) / (2.0 * hotNanos));
+                    if (count > 0) {
+                        LOGGER.debug("Rebalancing " + count + " live tasks from " + hot.getName() + " to " + cold.getName());
+                        hot.requestMove(cold.getShard(), count);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug(e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        rebalancer.interrupt();
+        for (DemoTester shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.trading.protrading.demotesting;
+
+public enum LiveExecutionMode {
+    // tasks split over a few threads that each run every quote for their tasks
+    SHARDED,
+    // every task is an actor with its own mailbox, a slow one only falls behind itself
+    ACTORS
+}
@@ -0,0 +1,55 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+
+// A live task and the feed sequence it has got to. Run by one shard at a time, only the
+// disabled flag is touched from other threads.
+class LiveTask {
+
+    private static final long NOT_STARTED = -1;
+    private final StrategyTestTask task;
+    private volatile boolean disabled;
+    private long lastSequence;
+
+    LiveTask(StrategyTestTask task) {
+        this.task = task;
+        this.disabled = false;
+        this.lastSequence = NOT_STARTED;
+    }
+
+    StrategyTestTask getTask() {
+        return task;
+    }
+
+    boolean isStarted() {
+        return lastSequence != NOT_STARTED;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Quotes up to the sequence are behind the task, whether it ran on them or joined later
+    void passed(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    void execute(Quote quote, long sequence) {
+        task.execute(quote);
+        lastSequence = sequence;
+    }
+
+    boolean isDisabled() {
+        return disabled;
+    }
+
+    void disable() {
+        disabled = true;
+    }
+
+    boolean isDone() {
+        return disabled || task.isFinished();
+    }
+
+}
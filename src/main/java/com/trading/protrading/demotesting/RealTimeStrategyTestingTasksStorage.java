@@ -1,5 +1,6 @@
 package com.trading.protrading.demotesting;
 
+import com.trading.protrading.exceptions.StrategyAlreadyRunningException;
 import com.trading.protrading.exceptions.StrategyNotFoundException;
 import com.trading.protrading.model.Strategy;
 import com.trading.protrading.repository.ReportRepository;
@@ -7,75 +8,113 @@ import com.trading.protrading.strategytesting.StrategyTestTask;
 import com.trading.protrading.strategytesting.TestConfiguration;
 import com.trading.protrading.strategytesting.TestIdentifier;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.Logger;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
 
+/*  The running live tasks and the shards they are handed to. A task goes to the shard picked by the
+    hash of its identifier and only that shard runs it, until the shards rebalance and move it.
+    In actor mode there are no shards, each task is launched as an actor instead. The running tasks are
+    indexed by identifier, so enabling, disabling and looking one up do not depend on how many run. */
 public class RealTimeStrategyTestingTasksStorage {
     private final static Logger LOGGER = getLogger(RealTimeStrategyTestingTasksStorage.class);
-    private static final int CAPACITY = 1000;
-    private ArrayBlockingQueue<StrategyTestTask> testingStrategies;
-    private StrategyTestTask delimiter;
+    private static final int CAPACITY = 100_000;
+    private final ConcurrentMap<TestIdentifier, LiveTask> running;
+    private final List<Queue<LiveTask>> arrivals;
+    private final AtomicInteger size;
+    private volatile Consumer<LiveTask> launcher;
 
-    public RealTimeStrategyTestingTasksStorage() {
-        testingStrategies = new ArrayBlockingQueue<StrategyTestTask>(CAPACITY);
-        TestIdentifier identifier = new TestIdentifier("delimiter", "delimiter");
-        delimiter = new StrategyTestTask(identifier);
+    public RealTimeStrategyTestingTasksStorage(int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Parameter shards must be positive");
+        }
+        running = new ConcurrentHashMap<>();
+        List<Queue<LiveTask>> created = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            created.add(new ConcurrentLinkedQueue<>());
+        }
+        arrivals = Collections.unmodifiableList(created);
+        size = new AtomicInteger();
     }
 
-    public synchronized void enableStrategy(Strategy strategy, TestConfiguration configuration, UUID reportId, ReportRepository repository) {
-        StrategyTestTask test = new StrategyTestTask(configuration, strategy, reportId, repository);
-        testingStrategies.offer(test);
+    public int getShardCount() {
+        return arrivals.size();
     }
 
-    public synchronized StrategyTestTask getNextTask() {
-        StrategyTestTask currentTest = null;
-        try {
-            currentTest = testingStrategies.take();
-        } catch (InterruptedException e) {
-            LOGGER.debug(e.getMessage());
+    public void enableStrategy(Strategy strategy, TestConfiguration configuration, UUID reportId, ReportRepository repository)
+            throws StrategyAlreadyRunningException {
+        if (size.incrementAndGet() > CAPACITY) {
+            size.decrementAndGet();
+            LOGGER.error("Strategy " + configuration.getStrategyName() + " was not enabled, "
+                    + CAPACITY + " strategies are running already");
+            return;
         }
-
-        //skip working on and remove already finished tasks
-        while (currentTest.isFinished()) {
-            try {
-                currentTest = testingStrategies.take();
-            } catch (InterruptedException e) {
-                LOGGER.debug(e.getMessage());
+        LiveTask test = new LiveTask(new StrategyTestTask(configuration, strategy, reportId, repository, false));
+        TestIdentifier identifier = test.getTask().getIdentifier();
+        LiveTask previous = running.putIfAbsent(identifier, test);
+        while (previous != null) {
+            if (!previous.isDone()) {
+                size.decrementAndGet();
+                throw new StrategyAlreadyRunningException(configuration.getStrategyName());
+            }
+            // a finished task its runner has not dropped yet does not count
+            if (running.replace(identifier, previous, test)) {
+                size.decrementAndGet();
+                break;
             }
+            previous = running.putIfAbsent(identifier, test);
         }
-
-        if (!currentTest.equals(delimiter)) {
-            testingStrategies.offer(currentTest);
+        Consumer<LiveTask> launch = launcher;
+        if (launch != null) {
+            launch.accept(test);
+        } else {
+            arrivals.get(Math.floorMod(identifier.hashCode(), arrivals.size())).add(test);
         }
+    }
 
-        return currentTest;
+    void launchWith(Consumer<LiveTask> launcher) {
+        this.launcher = launcher;
     }
 
-    public synchronized void putDelimiter() {
-        testingStrategies.offer(delimiter);
+    // Tasks a shard takes over at its next quote, new ones and ones moved from other shards
+    Queue<LiveTask> getArrivals(int shard) {
+        return arrivals.get(shard);
     }
 
-    public synchronized void disableStrategy(String username, String strategy) throws StrategyNotFoundException {
-        StrategyTestTask test = new StrategyTestTask(new TestIdentifier(username, strategy));
-        boolean result = testingStrategies.remove(test);
-        if (result == false) {
+    void moveTo(int shard, LiveTask task) {
+        arrivals.get(shard).add(task);
+    }
+
+    void remove(LiveTask task) {
+        if (running.remove(task.getTask().getIdentifier(), task)) {
+            size.decrementAndGet();
+        }
+    }
+
+    // The shard running the task drops it at its next quote
+    public void disableStrategy(String username, String strategy) throws StrategyNotFoundException {
+        LiveTask test = running.get(new TestIdentifier(username, strategy));
+        if (test == null || test.isDone()) {
             throw new StrategyNotFoundException(
                     "There isn't enabled strategy with the specified name. Please check for typos.");
         }
+        test.disable();
+        remove(test);
     }
 
-    public synchronized boolean isRunning(String username, String strategy) {
-        TestIdentifier testIdentifier = new TestIdentifier(username, strategy);
-        StrategyTestTask task = new StrategyTestTask(testIdentifier);
-        for (StrategyTestTask runningTask : testingStrategies) {
-            if (task.equals(runningTask)) {
-                return true;
-            }
-        }
-        return false;
+    public boolean isRunning(String username, String strategy) {
+        LiveTask test = running.get(new TestIdentifier(username, strategy));
+        return test != null && !test.isDone();
     }
-}
\ No newline at end of file
+}
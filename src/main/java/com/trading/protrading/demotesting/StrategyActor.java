@@ -0,0 +1,57 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.marketdata.QuoteHandler;
+import com.trading.protrading.marketdata.QuoteSubscription;
+import org.apache.logging.log4j.Logger;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+// One live task with a mailbox of its own. The mailbox hands it one quote at a time, so the task
+// state needs no lock even though the actor may run on a different thread for every batch.
+class StrategyActor implements QuoteHandler {
+
+    private static final Logger LOGGER = getLogger(StrategyActor.class);
+    private final LiveTask task;
+    private final RealTimeStrategyTestingTasksStorage taskStorage;
+    private volatile QuoteSubscription mailbox;
+
+    StrategyActor(LiveTask task, RealTimeStrategyTestingTasksStorage taskStorage) {
+        this.task = task;
+        this.taskStorage = taskStorage;
+    }
+
+    void receiveFrom(QuoteSubscription mailbox) {
+        this.mailbox = mailbox;
+    }
+
+    LiveTask getTask() {
+        return task;
+    }
+
+    @Override
+    public void handle(Quote quote) {
+        if (!task.isDone()) {
+            try {
+                task.getTask().execute(quote);
+            } catch (RuntimeException e) {
+                // stopped as in sharded mode, rather than failing again on every later quote
+                LOGGER.error("Live strategy " + task.getTask().getIdentifier().getStrategyName()
+                        + " failed and was stopped", e);
+                task.disable();
+            }
+        }
+        if (task.isDone()) {
+            stop();
+        }
+    }
+
+    void stop() {
+        QuoteSubscription subscription = mailbox;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        taskStorage.remove(task);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.marketdata.Market;
+import com.trading.protrading.marketdata.OverflowPolicy;
+import com.trading.protrading.marketdata.QuoteSubscription;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Runs every live task as an actor. Actors have no thread of their own, a batch of pending quotes runs
+    as one short job on a virtual thread, or on a few carrier threads where the JDK has no virtual ones.
+    The mailbox bound and overflow policy decide what a slow actor costs: with BLOCK it holds back the
+    quotes of everybody, with DROP_OLDEST or CONFLATE only its own. */
+public class StrategyActorPool {
+
+    private static final Logger LOGGER = getLogger(StrategyActorPool.class);
+    private final Market market;
+    private final RealTimeStrategyTestingTasksStorage storage;
+    private final int mailboxCapacity;
+    private final OverflowPolicy mailboxPolicy;
+    private final ExecutorService executor;
+
+    public StrategyActorPool(Market market, RealTimeStrategyTestingTasksStorage storage, int mailboxCapacity,
+                             OverflowPolicy mailboxPolicy, int carriers) {
+        if (carriers <= 0) {
+            throw new IllegalArgumentException("Parameter carriers must be positive");
+        }
+        this.market = market;
+        this.storage = storage;
+        this.mailboxCapacity = mailboxCapacity;
+        this.mailboxPolicy = mailboxPolicy;
+        this.executor = createExecutor(carriers);
+    }
+
+    // Looked up by reflection, the code still builds and runs on JDKs without virtual threads
+    private static ExecutorService createExecutor(int carriers) {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            LOGGER.info("Live strategy actors run on virtual threads");
+            return virtual;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            LOGGER.info("Live strategy actors run on " + carriers + " carrier threads");
+            AtomicInteger created = new AtomicInteger();
+            return Executors.newFixedThreadPool(carriers, runnable -> {
+                Thread carrier = new Thread(runnable, "strategy-actor-" + created.getAndIncrement());
+                carrier.setDaemon(true);
+                return carrier;
+            });
+        }
+    }
+
+    public void start() {
+        storage.launchWith(this::launch);
+    }
+
+    private void launch(LiveTask task) {
+        StrategyActor actor = new StrategyActor(task, storage);
+        QuoteSubscription mailbox = market.subscribe(EnumSet.of(task.getTask().getAsset()), mailboxCapacity,
+                mailboxPolicy, actor, executor);
+        actor.receiveFrom(mailbox);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
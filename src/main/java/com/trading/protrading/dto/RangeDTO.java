@@ -0,0 +1,10 @@
+package com.trading.protrading.dto;
+
+import lombok.Data;
+
+@Data
+public class RangeDTO {
+    private double from;
+    private double to;
+    private double step;
+}
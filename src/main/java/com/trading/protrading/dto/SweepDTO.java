@@ -0,0 +1,13 @@
+package com.trading.protrading.dto;
+
+import lombok.Data;
+
+@Data
+public class SweepDTO {
+    private TestConfigurationDTO configuration;
+    private Long ruleId;
+    private RangeDTO stopLoss;
+    private RangeDTO takeProfit;
+    private RangeDTO assetPrice;
+    private int limit;
+}
@@ -0,0 +1,14 @@
+package com.trading.protrading.dto;
+
+import lombok.Data;
+
+@Data
+public class WalkForwardDTO {
+    private TestConfigurationDTO configuration;
+    private Long ruleId;
+    private RangeDTO stopLoss;
+    private RangeDTO takeProfit;
+    private RangeDTO assetPrice;
+    private int trainDays;
+    private int testDays;
+}
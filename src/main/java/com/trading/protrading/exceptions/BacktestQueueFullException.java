@@ -0,0 +1,9 @@
+package com.trading.protrading.exceptions;
+
+public class BacktestQueueFullException extends Exception {
+
+    public BacktestQueueFullException(String message) {
+        super(message);
+    }
+
+}
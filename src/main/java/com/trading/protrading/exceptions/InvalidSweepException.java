@@ -0,0 +1,9 @@
+package com.trading.protrading.exceptions;
+
+public class InvalidSweepException extends Exception {
+
+    public InvalidSweepException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.trading.protrading.exceptions;
+
+public class JobNotFoundException extends Exception {
+
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+
+}
@@ -1,17 +1,28 @@
 package com.trading.protrading.generators;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
+// Not thread safe, every feed thread owns its own instance
 public class NumberGenerator {
 
+    private final SplittableRandom random;
+
+    public NumberGenerator() {
+        this.random = new SplittableRandom();
+    }
+
+    public NumberGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
     public int generateInt(int minimum, int maximum) {
         int range = maximum - minimum + 1;
-        return (int) (Math.random() * range) + minimum;
+        return (int) (random.nextDouble() * range) + minimum;
     }
 
     public double generateDouble(double minimum, double maximum) {
         double range = maximum-minimum;
-        return Math.random()*range +minimum;
+        return random.nextDouble()*range +minimum;
     }
 
 }
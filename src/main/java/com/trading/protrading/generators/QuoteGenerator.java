@@ -7,6 +7,8 @@ import com.trading.protrading.data.strategy.QuoteType;
 import java.time.LocalDateTime;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class QuoteGenerator {
 
@@ -15,24 +17,51 @@ public class QuoteGenerator {
     private final static double AVERAGE_PETROL_PRICE = 42.66;
     private final Map<Asset, Double> latestPrices;
     private final NumberGenerator numberGenerator;
+    private final Asset[] assets;
 
     public QuoteGenerator() {
+        this(Set.of(Asset.values()), new NumberGenerator());
+    }
+
+    // Generates quotes for the given assets only, reproducible for a fixed seed
+    public QuoteGenerator(Set<Asset> assets, long seed) {
+        this(assets, new NumberGenerator(seed));
+    }
+
+    private QuoteGenerator(Set<Asset> assets, NumberGenerator numberGenerator) {
+        if (assets.isEmpty()) {
+            throw new IllegalArgumentException("Parameter assets cannot be empty");
+        }
         latestPrices = new EnumMap<>(Asset.class);
         latestPrices.put(Asset.PETROL, AVERAGE_PETROL_PRICE);
         latestPrices.put(Asset.GOLD, AVERAGE_GOLD_PRICE);
         latestPrices.put(Asset.SILVER, AVERAGE_SILVER_PRICE);
-        numberGenerator = new NumberGenerator();
+        this.numberGenerator = numberGenerator;
+        this.assets = assets.stream().sorted().toArray(Asset[]::new);
     }
 
     QuoteGenerator(Map<Asset, Double> latestPrices, NumberGenerator numberGenerator) {
         this.latestPrices = latestPrices;
         this.numberGenerator = numberGenerator;
+        this.assets = Asset.values();
     }
 
     public Quote generateQuote() {
+        return generateQuote(LocalDateTime.now());
+    }
+
+    // A batch shares one timestamp, reading the clock per quote dominates at high rates
+    public void generateQuotes(int count, Consumer<Quote> consumer) {
+        LocalDateTime date = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(generateQuote(date));
+        }
+    }
+
+    private Quote generateQuote(LocalDateTime date) {
 
-        int assetIndex = numberGenerator.generateInt(0, Asset.values().length - 1);
-        Asset asset = Asset.values()[assetIndex];
+        int assetIndex = numberGenerator.generateInt(0, assets.length - 1);
+        Asset asset = assets[assetIndex];
 
         int typeIndex = numberGenerator.generateInt(0, QuoteType.values().length - 1);
         QuoteType type = QuoteType.values()[typeIndex];
@@ -40,7 +69,7 @@ public class QuoteGenerator {
         double price = generatePrice(asset, type);
         latestPrices.put(asset, price);
 
-        return new Quote(asset, price, type, LocalDateTime.now());
+        return new Quote(asset, price, type, date);
     }
 
     private double generatePrice(Asset asset, QuoteType type) {
@@ -1,40 +1,41 @@
 package com.trading.protrading.marketdata;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import com.trading.protrading.adapters.LocalDateAdapter;
-import com.trading.protrading.adapters.LocalDateTimeAdapter;
 import com.trading.protrading.data.strategy.Asset;
 import com.trading.protrading.data.strategy.Quote;
 import org.apache.logging.log4j.Logger;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import static java.nio.file.StandardOpenOption.APPEND;
 import static org.apache.logging.log4j.LogManager.getLogger;
 
 public class Archive {
 
     private static final Logger LOGGER = getLogger(Archive.class);
+    private final Asset asset;
     private final Path location;
     private final String namePattern;
     private final DailyArchive dailyArchive;
-    private final Gson gson;
+    private final QuoteSegmentWriter segmentWriter;
+    private final QuoteSegmentReader segmentReader;
+    private final LegacyQuoteReader legacyReader;
+    private ScheduledExecutorService updateSheduler;
 
     public Archive(Asset asset, Path location) {
 
@@ -44,20 +45,16 @@ public class Archive {
         if (location == null) {
             throw new IllegalArgumentException("Parameter path cannot be null");
         }
+        this.asset = asset;
         this.location = location;
         this.namePattern = asset.name().toLowerCase();
-        this.dailyArchive = new DailyArchive();
-        this.gson = getGson();
+        this.dailyArchive = new DailyArchive(asset);
+        this.segmentWriter = new QuoteSegmentWriter();
+        this.segmentReader = new QuoteSegmentReader(asset);
+        this.legacyReader = new LegacyQuoteReader();
         configure();
     }
 
-    private Gson getGson() {
-        GsonBuilder builder = new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter());
-        return builder.create();
-    }
-
     private void configure() {
         createDirectory(location);
         configureArchiveUpdate();
@@ -75,11 +72,11 @@ public class Archive {
 
     private void configureArchiveUpdate() {
         int poolSize = 1;
-        ScheduledExecutorService sheduler = Executors.newScheduledThreadPool(poolSize);
+        updateSheduler = Executors.newScheduledThreadPool(poolSize);
 
         int period = 1;
         long delayUntillMidnight = getDelayUntillMidnight();
-        sheduler.scheduleAtFixedRate(this::update, delayUntillMidnight, TimeUnit.DAYS.toMinutes(period),
+        updateSheduler.scheduleAtFixedRate(this::update, delayUntillMidnight, TimeUnit.DAYS.toMinutes(period),
                 TimeUnit.MINUTES);
     }
 
@@ -94,32 +91,19 @@ public class Archive {
         int days = 1;
         LocalDate yesterday = LocalDate.now().minusDays(days);
         List<Quote> yesterdayQuotes = dailyArchive.getQuotes(yesterday);
-        addQuotes(yesterdayQuotes);
-        dailyArchive.deleteQuotes(yesterday);
-    }
-
-    private void createFile(Path path) {
-        if (!Files.exists(path)) {
-            try {
-                Files.createFile(path);
-            } catch (IOException ioException) {
-                LOGGER.debug(ioException);
-            }
+        // an exception here would cancel every following midnight update
+        if (!yesterdayQuotes.isEmpty()) {
+            addQuotes(yesterday, yesterdayQuotes);
         }
+        dailyArchive.deleteQuotes(yesterday);
     }
 
-    private void addQuotes(List<Quote> quotes) {
-        if (quotes.isEmpty()) {
-            throw new IllegalArgumentException("Parameter quotes cannot be empty");
-        }
-        Quote first = quotes.get(0);
-        LocalDate firstDate = first.getDate().toLocalDate();
-        Path monthQuotes = getPath(firstDate);
-        if (!Files.exists(monthQuotes)) {
-            createFile(monthQuotes);
+    private void addQuotes(LocalDate date, List<Quote> quotes) {
+        try {
+            segmentWriter.write(getSegmentPath(date), date, quotes);
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
         }
-        writeTo(monthQuotes, gson.toJson(firstDate));
-        writeTo(monthQuotes, gson.toJson(quotes));
     }
 
     private Path getPath(LocalDate date) {
@@ -128,15 +112,13 @@ public class Archive {
         return location.resolve(name);
     }
 
-    private synchronized void writeTo(Path path, String json) {
-        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(path, APPEND))) {
-            byte[] toBeWritten = json.getBytes();
-            dos.writeInt(toBeWritten.length);
-            dos.write(toBeWritten);
+    private Path getSegmentPath(LocalDate date) {
+        Path legacyPath = getPath(date);
+        return legacyPath.resolveSibling(legacyPath.getFileName() + QuoteSegmentFormat.FILE_EXTENSION);
+    }
 
-        } catch (IOException ioException) {
-            LOGGER.debug(ioException);
-        }
+    public void stopUpdate() {
+        updateSheduler.shutdown();
     }
 
     public void addLatestQuote(Quote quote) {
@@ -151,38 +133,102 @@ public class Archive {
         if (end.equals(today) || start.equals(today)) {
             throw new IllegalArgumentException("End or start date cannot be today");
         }
-        List<Quote> allQuotes = new ArrayList<>();
-        LocalDate current = start;
-        do {
-            Path path = getPath(start);
-            List<Quote> quotes = readFrom(path, start, end);
-            allQuotes.addAll(quotes);
-            current = current.plusDays(1);
-        } while (!current.equals(end));
-        return allQuotes;
-    }
-
-    private synchronized List<Quote> readFrom(Path path, LocalDate start, LocalDate end) {
-        List<Quote> quotes = new ArrayList<>();
-        try (DataInputStream dis = new DataInputStream(Files.newInputStream(path))) {
-            int size = 0;
-            byte[] array;
-            while (dis.available() > 0) {
-                size = dis.readInt();
-                array = dis.readNBytes(size);
-                String jsonDate = new String(array);
-                LocalDate quotesDate = gson.fromJson(jsonDate, LocalDate.class);
-
-                size = dis.readInt();
-                array = dis.readNBytes(size);
-                String jsonQuotes = new String(array);
-                if (!quotesDate.isAfter(end) && !quotesDate.isBefore(start)) {
-                    Type type = new TypeToken<List<Quote>>() {
-                    }.getType();
-                    quotes.addAll(gson.fromJson(jsonQuotes, type));
+        // months are independent files, read them in parallel and keep them in order
+        return MonthPartition.plan(start, end).parallelStream()
+                .filter(this::hasFiles)
+                .map(partition -> readFrom(partition.getStart(), partition.getStart(), partition.getEnd()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /*  A digest of what the archive holds for [start, end]: the index entries of the segment blocks of
+        those days and the size and modification time of any legacy month file. Writing or backfilling
+        a day in the range changes it, other days do not. */
+    public String fingerprint(LocalDate start, LocalDate end) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer entry = ByteBuffer.allocate(Long.BYTES * 4 + Integer.BYTES + Byte.BYTES);
+        for (MonthPartition partition : MonthPartition.plan(start, end)) {
+            QuoteSegment segment = openSegment(partition.getStart());
+            if (segment != null) {
+                for (SegmentBlock block : segment.getBlocks(partition.getStart(), partition.getEnd())) {
+                    entry.clear();
+                    entry.putLong(block.getEpochDay()).putLong(block.getOffset()).putLong(block.getDataOffset())
+                            .putLong(block.getLength()).putInt(block.getCount()).put(block.getCodec());
+                    digest.update(entry.array());
+                }
+            }
+            Path legacyPath = getPath(partition.getStart());
+            if (Files.exists(legacyPath)) {
+                try {
+                    entry.clear();
+                    entry.putLong(Files.size(legacyPath)).putLong(Files.getLastModifiedTime(legacyPath).toMillis());
+                    digest.update(entry.array(), 0, Long.BYTES * 2);
+                } catch (IOException ioException) {
+                    LOGGER.debug(ioException);
                 }
             }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte value : digest.digest()) {
+            hex.append(String.format("%02x", value));
+        }
+        return hex.toString();
+    }
+
+    private boolean hasFiles(MonthPartition partition) {
+        LocalDate month = partition.getStart();
+        return Files.exists(getPath(month)) || Files.exists(getSegmentPath(month));
+    }
 
+    public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end) {
+        LocalDate today = LocalDate.now();
+        if (end.toLocalDate().equals(today) || start.toLocalDate().equals(today)) {
+            throw new IllegalArgumentException("End or start date cannot be today");
+        }
+        return new QuoteCursor(this, asset, start, end);
+    }
+
+    QuoteSegment openSegment(LocalDate month) {
+        Path segmentPath = getSegmentPath(month);
+        if (Files.exists(segmentPath)) {
+            try {
+                return QuoteSegment.open(segmentPath);
+            } catch (IOException ioException) {
+                LOGGER.debug(ioException);
+            }
+        }
+        return null;
+    }
+
+    Map<LocalDate, List<Quote>> readLegacyDays(LocalDate month) {
+        Path legacyPath = getPath(month);
+        if (Files.exists(legacyPath)) {
+            try {
+                return legacyReader.readDays(legacyPath);
+            } catch (IOException ioException) {
+                LOGGER.debug(ioException);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private List<Quote> readFrom(LocalDate month, LocalDate start, LocalDate end) {
+        List<Quote> quotes = new ArrayList<>();
+        // a month archived across the upgrade has its older days in the legacy file
+        Path legacyPath = getPath(month);
+        Path segmentPath = getSegmentPath(month);
+        try {
+            if (Files.exists(legacyPath)) {
+                quotes.addAll(legacyReader.read(legacyPath, start, end));
+            }
+            if (Files.exists(segmentPath)) {
+                quotes.addAll(segmentReader.read(segmentPath, start, end));
+            }
         } catch (IOException ioException) {
             LOGGER.debug(ioException);
         }
@@ -0,0 +1,124 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+// Rewrites legacy Gson month files, and segments of older versions, as current quote segments.
+// Run it while the archive is not being written to.
+public class ArchiveConverter {
+
+    private static final Logger LOGGER = getLogger(ArchiveConverter.class);
+    private static final String LEGACY_NAME_PATTERN = "[a-z]+\\d{4}-\\d{2}";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final int MONTH_SUFFIX_LENGTH = "yyyy-MM".length();
+    private final LegacyQuoteReader legacyReader;
+    private final QuoteSegmentWriter segmentWriter;
+
+    public ArchiveConverter() {
+        this.legacyReader = new LegacyQuoteReader();
+        this.segmentWriter = new QuoteSegmentWriter();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String directory = args.length > 0 ? args[0] : "quotes-archive";
+        int converted = new ArchiveConverter().convertDirectory(Path.of(directory));
+        LOGGER.info("Converted " + converted + " archive files in " + directory);
+    }
+
+    public int convertDirectory(Path directory) throws IOException {
+        int converted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, this::isLegacyFile)) {
+            for (Path legacy : files) {
+                convert(legacy);
+                converted++;
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, this::isOutdatedSegment)) {
+            for (Path segment : files) {
+                upgrade(segment);
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    private boolean isLegacyFile(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().matches(LEGACY_NAME_PATTERN);
+    }
+
+    private boolean isOutdatedSegment(Path path) {
+        String name = path.getFileName().toString();
+        if (!Files.isRegularFile(path) || !name.endsWith(QuoteSegmentFormat.FILE_EXTENSION)) {
+            return false;
+        }
+        try {
+            return QuoteSegmentFormat.readVersion(path) < QuoteSegmentFormat.VERSION;
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+            return false;
+        }
+    }
+
+    public void convert(Path legacy) throws IOException {
+        String name = legacy.getFileName().toString();
+        Path segment = legacy.resolveSibling(name + QuoteSegmentFormat.FILE_EXTENSION);
+
+        Map<LocalDate, List<Quote>> days = legacyReader.readDays(legacy);
+        // days archived after the upgrade are newer than everything in the legacy file
+        if (Files.exists(segment)) {
+            Map<LocalDate, List<Quote>> segmentDays = readSegmentDays(segment);
+            for (Map.Entry<LocalDate, List<Quote>> day : segmentDays.entrySet()) {
+                days.computeIfAbsent(day.getKey(), key -> new ArrayList<>()).addAll(day.getValue());
+            }
+        }
+        rewrite(segment, days);
+        Files.delete(legacy);
+        LOGGER.info("Converted " + legacy + " to " + segment);
+    }
+
+    public void upgrade(Path segment) throws IOException {
+        rewrite(segment, readSegmentDays(segment));
+        LOGGER.info("Upgraded " + segment + " to version " + QuoteSegmentFormat.VERSION);
+    }
+
+    private Map<LocalDate, List<Quote>> readSegmentDays(Path segment) throws IOException {
+        String name = segment.getFileName().toString();
+        String assetName = name.substring(0, name.length() - QuoteSegmentFormat.FILE_EXTENSION.length()
+                - MONTH_SUFFIX_LENGTH);
+        return new QuoteSegmentReader(Asset.valueOf(assetName.toUpperCase())).readDays(segment);
+    }
+
+    private void rewrite(Path segment, Map<LocalDate, List<Quote>> days) throws IOException {
+        Path temporary = segment.resolveSibling(segment.getFileName() + TEMPORARY_EXTENSION);
+        Files.deleteIfExists(temporary);
+        Files.deleteIfExists(QuoteSegmentIndex.getPath(temporary));
+        for (Map.Entry<LocalDate, List<Quote>> day : days.entrySet()) {
+            segmentWriter.write(temporary, day.getKey(), day.getValue());
+        }
+        if (!Files.exists(temporary)) {
+            Files.write(temporary, QuoteSegmentWriter.header().array());
+        }
+        // without an index readers rebuild it, so a crash between the moves loses nothing
+        Files.deleteIfExists(QuoteSegmentIndex.getPath(segment));
+        Files.move(temporary, segment, REPLACE_EXISTING, ATOMIC_MOVE);
+        if (Files.exists(QuoteSegmentIndex.getPath(temporary))) {
+            Files.move(QuoteSegmentIndex.getPath(temporary), QuoteSegmentIndex.getPath(segment), REPLACE_EXISTING,
+                    ATOMIC_MOVE);
+        }
+    }
+
+}
@@ -1,43 +1,58 @@
 package com.trading.protrading.marketdata;
 
+import com.trading.protrading.data.strategy.Asset;
 import com.trading.protrading.data.strategy.Quote;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+// Today's (and until the midnight update, yesterday's) ticks of one asset. Written only by the archive-writer
+// ring reader of DataSupplier, the single writer its TickBuffers rely on.
 public class DailyArchive {
 
-    private final Map<LocalDate, List<Quote>> dailyQuotes;
+    private final Asset asset;
+    private final ConcurrentMap<LocalDate, TickBuffer> dailyQuotes;
+    private LocalDate currentDay;
+    private TickBuffer currentTicks;
 
-    public DailyArchive() {
-        this(new HashMap<>());
+    public DailyArchive(Asset asset) {
+        this(asset, new ConcurrentHashMap<>());
     }
 
-    DailyArchive(Map<LocalDate, List<Quote>> dailyQuotes) {
+    DailyArchive(Asset asset, ConcurrentMap<LocalDate, TickBuffer> dailyQuotes) {
+        this.asset = asset;
         this.dailyQuotes = dailyQuotes;
     }
 
     public List<Quote> getQuotes(LocalDate date) {
-        if (dailyQuotes.containsKey(date)) {
-            return dailyQuotes.get(date);
+        TickBuffer ticks = dailyQuotes.get(date);
+        if (ticks == null) {
+            return new ArrayList<>();
         }
-        return new ArrayList<>();
+        int size = ticks.size();
+        List<Quote> quotes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            quotes.add(new Quote(asset, ticks.getPrice(i), QuoteSegmentFormat.toType(ticks.getType(i)),
+                    QuoteSegmentFormat.toDate(ticks.getTimestamp(i))));
+        }
+        return quotes;
+    }
+
+    public TickBuffer getTicks(LocalDate date) {
+        return dailyQuotes.get(date);
     }
 
     public void addLatestQuote(Quote quote) {
         LocalDate date = quote.getDate().toLocalDate();
-        List<Quote> quotes;
-        if (!dailyQuotes.containsKey(date)) {
-            quotes = new ArrayList<>();
-            quotes.add(quote);
-        } else {
-            quotes = dailyQuotes.get(date);
-            quotes.add(quote);
+        if (!date.equals(currentDay)) {
+            currentDay = date;
+            currentTicks = dailyQuotes.computeIfAbsent(date, day -> new TickBuffer());
         }
-        dailyQuotes.put(date, quotes);
+        currentTicks.append(QuoteSegmentFormat.toEpochMillis(quote.getDate()), quote.getPrice(),
+                QuoteSegmentFormat.toCode(quote.getType()));
     }
 
     public void deleteQuotes(LocalDate date) {
@@ -9,12 +9,16 @@ import org.apache.logging.log4j.Logger;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
@@ -22,25 +26,60 @@ import static org.apache.logging.log4j.LogManager.getLogger;
 public class DataSupplier {
 
     private final static Logger LOGGER = getLogger(DataSupplier.class);
+    private static final long RATE_REPORT_PERIOD = 60;
     private final Map<Asset, Archive> archives;
-    private final QuoteGenerator generator;
-    private Quote latestQuote;
+    private final FeedRateMeter rateMeter;
+    private final List<FeedWorker> feedWorkers;
+    private final TickRingBuffer ticks;
+    private final List<TickRingConsumer> readers;
+    private volatile Consumer<Quote> quoteListener;
     private ScheduledExecutorService updateSheduler;
 
     public DataSupplier() {
+        this(new FeedConfiguration());
+    }
+
+    public DataSupplier(FeedConfiguration feed) {
         this.archives = new EnumMap<>(Asset.class);
-        this.generator = new QuoteGenerator();
+        this.rateMeter = new FeedRateMeter(feed.getTicksPerSecond());
+        this.feedWorkers = createFeedWorkers(feed);
+        this.ticks = new TickRingBuffer(feed.getRingCapacity(), feed.getWaitStrategy());
+        this.readers = new ArrayList<>();
         configureArchives();
+        configureReaders();
         configureLatestQuoteUpdate();
     }
 
     DataSupplier(Map<Asset, Archive> archives, QuoteGenerator generator) {
         this.archives = archives;
-        this.generator = generator;
-        this.latestQuote = generator.generateQuote();
+        this.rateMeter = new FeedRateMeter(FeedConfiguration.DEFAULT_TICKS_PER_SECOND);
+        this.feedWorkers = List.of(new FeedWorker(generator, FeedConfiguration.DEFAULT_TICKS_PER_SECOND,
+                this::updateLatestQuote, rateMeter));
+        this.ticks = new TickRingBuffer(FeedConfiguration.DEFAULT_RING_CAPACITY, WaitStrategy.PARK);
+        this.readers = new ArrayList<>();
+        configureReaders();
         configureLatestQuoteUpdate();
     }
 
+    // Assets are split between the threads, so every archive keeps a single writer
+    private List<FeedWorker> createFeedWorkers(FeedConfiguration feed) {
+        int threads = feed.getThreads();
+        List<Set<Asset>> partitions = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            partitions.add(EnumSet.noneOf(Asset.class));
+        }
+        for (Asset asset : Asset.values()) {
+            partitions.get(asset.ordinal() % threads).add(asset);
+        }
+        double ticksPerSecond = feed.getTicksPerSecond() / threads;
+        List<FeedWorker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            QuoteGenerator generator = new QuoteGenerator(partitions.get(i), feed.getSeed() + i);
+            workers.add(new FeedWorker(generator, ticksPerSecond, this::updateLatestQuote, rateMeter));
+        }
+        return workers;
+    }
+
     private void configureArchives() {
         String workingDirectory = ".";
         String archiveDirectory = "quotes-archive";
@@ -50,32 +89,72 @@ public class DataSupplier {
         }
     }
 
+    // The archive writer and the bus each follow the ticks at their own pace
+    private void configureReaders() {
+        startReader("archive-writer", quote -> archives.get(quote.getAsset()).addLatestQuote(quote));
+        startReader("quote-dispatcher", quote -> {
+            Consumer<Quote> listener = quoteListener;
+            if (listener != null) {
+                listener.accept(quote);
+            }
+        });
+    }
+
+    private void startReader(String name, Consumer<Quote> handler) {
+        TickRingConsumer reader = ticks.newConsumer();
+        readers.add(reader);
+        Thread thread = new Thread(() -> {
+            try {
+                Quote quote = reader.take();
+                while (quote != null) {
+                    try {
+                        handler.accept(quote);
+                    } catch (RuntimeException e) {
+                        // a reader that stopped would hold the feed back for good
+                        LOGGER.error("Failed to handle quote in " + name, e);
+                    }
+                    quote = reader.take();
+                }
+            } catch (InterruptedException e) {
+                LOGGER.debug(e.getMessage());
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void configureLatestQuoteUpdate() {
-        int poolSize = 1;
+        int poolSize = feedWorkers.size() + 1;
         updateSheduler = Executors.newScheduledThreadPool(poolSize);
-        int period = 5;
         long delay = 0;
-        updateSheduler.scheduleAtFixedRate(this::updateLatestQuote, delay, period,
+        for (FeedWorker worker : feedWorkers) {
+            updateSheduler.scheduleAtFixedRate(worker::produceDueQuotes, delay, worker.getPeriodNanos(),
+                    TimeUnit.NANOSECONDS);
+        }
+        updateSheduler.scheduleAtFixedRate(this::reportRate, RATE_REPORT_PERIOD, RATE_REPORT_PERIOD,
                 TimeUnit.SECONDS);
     }
 
-    public synchronized Quote getLatestQuote() {
-        try {
-            wait();
-        } catch (InterruptedException e) {
-            LOGGER.debug(e.getMessage());
-        }
-        return latestQuote;
+    private void reportRate() {
+        LOGGER.info(String.format("Feed rate %.1f of %.1f ticks per second, %d produced, %d missed",
+                rateMeter.getAchievedRate(), rateMeter.getRequestedRate(), rateMeter.getProducedCount(),
+                rateMeter.getMissedCount()));
     }
 
-    private void updateLatestQuote() {
-        Quote quote = generator.generateQuote();
-        synchronized (this) {
-            latestQuote = quote;
-            notifyAll();
-        }
-        Archive archive = archives.get(quote.getAsset());
-        archive.addLatestQuote(quote);
+    public FeedRateMeter getRateMeter() {
+        return rateMeter;
+    }
+
+    void setQuoteListener(Consumer<Quote> quoteListener) {
+        this.quoteListener = quoteListener;
+    }
+
+    private void updateLatestQuote(Quote quote) {
+        ticks.publish(quote);
+    }
+
+    public TickRingBuffer getTicks() {
+        return ticks;
     }
 
     public List<Quote> getOldQuotes(LocalDateTime start, LocalDateTime end, Asset asset)
@@ -89,6 +168,19 @@ public class DataSupplier {
         return filterQuotes(allQuotes, start, end);
     }
 
+    public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
+            throws InvalidPeriodException {
+        LocalDate today = LocalDate.now();
+        if (today.equals(start.toLocalDate()) || today.equals(end.toLocalDate())) {
+            throw new InvalidPeriodException("Parameters start and end cannot be todays date");
+        }
+        return archives.get(asset).openCursor(start, end);
+    }
+
+    public String getArchiveFingerprint(LocalDateTime start, LocalDateTime end, Asset asset) {
+        return archives.get(asset).fingerprint(start.toLocalDate(), end.toLocalDate());
+    }
+
     private List<Quote> filterQuotes(List<Quote> quotes, LocalDateTime start, LocalDateTime end) {
         return quotes.stream()
                 .filter((element) -> !element.getDate().isBefore(start) && !element.getDate()
@@ -100,5 +192,15 @@ public class DataSupplier {
         updateSheduler.shutdown();
     }
 
+    public void shutdown() {
+        stopLatestQuoteUpdate();
+        for (TickRingConsumer reader : readers) {
+            reader.cancel();
+        }
+        for (Archive archive : archives.values()) {
+            archive.stopUpdate();
+        }
+    }
+
 }
 
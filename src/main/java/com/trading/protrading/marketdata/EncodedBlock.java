@@ -0,0 +1,29 @@
+package com.trading.protrading.marketdata;
+
+import java.nio.ByteBuffer;
+
+class EncodedBlock {
+
+    private final byte codec;
+    private final ByteBuffer payload;
+    private final int[] zoneOffsets;
+
+    EncodedBlock(byte codec, ByteBuffer payload, int[] zoneOffsets) {
+        this.codec = codec;
+        this.payload = payload;
+        this.zoneOffsets = zoneOffsets;
+    }
+
+    byte getCodec() {
+        return codec;
+    }
+
+    ByteBuffer getPayload() {
+        return payload;
+    }
+
+    int[] getZoneOffsets() {
+        return zoneOffsets;
+    }
+
+}
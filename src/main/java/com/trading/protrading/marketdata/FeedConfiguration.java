@@ -0,0 +1,61 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+
+// Rate and parallelism of the synthetic quote feed. The default rate is the original one quote every 5 seconds.
+public class FeedConfiguration {
+
+    public static final double DEFAULT_TICKS_PER_SECOND = 0.2;
+    public static final int DEFAULT_RING_CAPACITY = 1024;
+    private final double ticksPerSecond;
+    private final int threads;
+    private final long seed;
+    private final int ringCapacity;
+    private final WaitStrategy waitStrategy;
+
+    public FeedConfiguration() {
+        this(DEFAULT_TICKS_PER_SECOND, 1, 0);
+    }
+
+    // A seed of 0 picks a random one. Threads above the number of assets are not used,
+    // because every asset is generated by a single thread.
+    public FeedConfiguration(double ticksPerSecond, int threads, long seed) {
+        this(ticksPerSecond, threads, seed, DEFAULT_RING_CAPACITY, WaitStrategy.PARK);
+    }
+
+    public FeedConfiguration(double ticksPerSecond, int threads, long seed, int ringCapacity,
+                             WaitStrategy waitStrategy) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Parameter ticksPerSecond must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Parameter threads must be positive");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        this.threads = Math.min(threads, Asset.values().length);
+        this.seed = seed == 0 ? System.nanoTime() : seed;
+        this.ringCapacity = ringCapacity;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRingCapacity() {
+        return ringCapacity;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.trading.protrading.marketdata;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  Requested against achieved feed rate. The feed threads publish into the tick ring, which waits for its
+    slowest reader: the archive writer, a direct ring reader, or the quote dispatcher, itself held up by
+    full BLOCK subscriptions. Ticks falling due while the feed waits are counted as missed, so missed
+    ticks and an achieved rate below the requested one mean a reader cannot keep up. */
+public class FeedRateMeter {
+
+    private final double requestedRate;
+    private final long startNanos;
+    private final LongAdder producedCount;
+    private final LongAdder missedCount;
+
+    FeedRateMeter(double requestedRate) {
+        this.requestedRate = requestedRate;
+        this.startNanos = System.nanoTime();
+        this.producedCount = new LongAdder();
+        this.missedCount = new LongAdder();
+    }
+
+    void recordProduced(long count) {
+        producedCount.add(count);
+    }
+
+    void recordMissed(long count) {
+        missedCount.add(count);
+    }
+
+    public double getRequestedRate() {
+        return requestedRate;
+    }
+
+    public double getAchievedRate() {
+        double seconds = (double) (System.nanoTime() - startNanos) / TimeUnit.SECONDS.toNanos(1);
+        return seconds > 0 ? producedCount.sum() / seconds : 0;
+    }
+
+    public long getProducedCount() {
+        return producedCount.sum();
+    }
+
+    public long getMissedCount() {
+        return missedCount.sum();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.generators.QuoteGenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// One feed thread. Each run produces the ticks that became due since the previous one in a single batch,
+// so the rate does not depend on how often the scheduler can fire.
+class FeedWorker {
+
+    private static final long MINIMUM_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double MAXIMUM_BATCH_SECONDS = 0.1;
+    private final QuoteGenerator generator;
+    private final Consumer<Quote> consumer;
+    private final FeedRateMeter rateMeter;
+    private final double ticksPerNano;
+    private final long periodNanos;
+    private final int maximumBatch;
+    private long startNanos;
+    private long scheduledCount;
+
+    FeedWorker(QuoteGenerator generator, double ticksPerSecond, Consumer<Quote> consumer, FeedRateMeter rateMeter) {
+        this.generator = generator;
+        this.consumer = consumer;
+        this.rateMeter = rateMeter;
+        long second = TimeUnit.SECONDS.toNanos(1);
+        this.ticksPerNano = ticksPerSecond / second;
+        this.periodNanos = Math.max((long) (second / ticksPerSecond), MINIMUM_PERIOD_NANOS);
+        this.maximumBatch = (int) Math.max(1, Math.ceil(ticksPerSecond * MAXIMUM_BATCH_SECONDS));
+        this.startNanos = -1;
+        this.scheduledCount = 0;
+    }
+
+    long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    void produceDueQuotes() {
+        produceDueQuotes(System.nanoTime());
+    }
+
+    // The time of the run is passed in, so tests can run the worker late
+    void produceDueQuotes(long now) {
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        long due = (long) ((now - startNanos) * ticksPerNano) + 1 - scheduledCount;
+        if (due <= 0) {
+            return;
+        }
+        // A feed that fell behind does not burst to catch up, the shortfall shows up as missed ticks
+        int batch = (int) Math.min(due, maximumBatch);
+        scheduledCount += due;
+        rateMeter.recordMissed(due - batch);
+        generator.generateQuotes(batch, consumer);
+        rateMeter.recordProduced(batch);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.trading.protrading.marketdata;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.trading.protrading.adapters.LocalDateAdapter;
+import com.trading.protrading.adapters.LocalDateTimeAdapter;
+import com.trading.protrading.data.strategy.Quote;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reads month files written as length-prefixed Gson records (a date followed by that day's quotes)
+public class LegacyQuoteReader {
+
+    private static final Type QUOTES_TYPE = new TypeToken<List<Quote>>() {
+    }.getType();
+    private final Gson gson;
+
+    public LegacyQuoteReader() {
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+    }
+
+    public List<Quote> read(Path path, LocalDate start, LocalDate end) throws IOException {
+        List<Quote> quotes = new ArrayList<>();
+        try (DataInputStream dis = new DataInputStream(Files.newInputStream(path))) {
+            while (dis.available() > 0) {
+                LocalDate quotesDate = gson.fromJson(readRecord(dis), LocalDate.class);
+                String jsonQuotes = readRecord(dis);
+                if (!quotesDate.isAfter(end) && !quotesDate.isBefore(start)) {
+                    quotes.addAll(gson.fromJson(jsonQuotes, QUOTES_TYPE));
+                }
+            }
+        }
+        return quotes;
+    }
+
+    public Map<LocalDate, List<Quote>> readDays(Path path) throws IOException {
+        Map<LocalDate, List<Quote>> days = new TreeMap<>();
+        try (DataInputStream dis = new DataInputStream(Files.newInputStream(path))) {
+            while (dis.available() > 0) {
+                LocalDate quotesDate = gson.fromJson(readRecord(dis), LocalDate.class);
+                List<Quote> quotes = gson.fromJson(readRecord(dis), QUOTES_TYPE);
+                days.computeIfAbsent(quotesDate, date -> new ArrayList<>()).addAll(quotes);
+            }
+        }
+        return days;
+    }
+
+    private String readRecord(DataInputStream dis) throws IOException {
+        int size = dis.readInt();
+        return new String(dis.readNBytes(size));
+    }
+
+}
@@ -1,21 +1,36 @@
 package com.trading.protrading.marketdata;
 
-import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.Asset;
+import org.springframework.stereotype.Component;
 
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+@Component
 public class Market {
 
-    private DataSupplier dataSupplier;
+    private final MarketDataBus marketDataBus;
+
+    public Market(MarketDataBus marketDataBus) {
+        this.marketDataBus = marketDataBus;
+    }
+
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy) {
+        return marketDataBus.subscribe(assets, capacity, policy);
+    }
 
-    public Market() {
-        this(new DataSupplier());
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy,
+                                       QuoteHandler handler) {
+        return marketDataBus.subscribe(assets, capacity, policy, handler);
     }
 
-    Market(DataSupplier dataSupplier) {
-        this.dataSupplier = dataSupplier;
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy,
+                                       QuoteHandler handler, Executor executor) {
+        return marketDataBus.subscribe(assets, capacity, policy, handler, executor);
     }
 
-    public Quote getQuote() {
-        return dataSupplier.getLatestQuote();
+    public TickRingConsumer readTicks() {
+        return marketDataBus.readTicks();
     }
 
 }
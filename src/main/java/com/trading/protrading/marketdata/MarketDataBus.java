@@ -0,0 +1,130 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+// The single source of market data in the application. It owns quote generation, archiving and
+// fan-out, so every consumer sees the same prices and the feed and archives run only once.
+@Component
+public class MarketDataBus {
+
+    private static final Logger LOGGER = getLogger(MarketDataBus.class);
+    private final DataSupplier dataSupplier;
+    private final Map<Asset, List<QuoteSubscription>> subscriptions;
+    private final AtomicLong sequence;
+
+    @Autowired
+    public MarketDataBus(@Value("${protrading.feed.ticks-per-second:0.2}") double ticksPerSecond,
+                         @Value("${protrading.feed.threads:1}") int threads,
+                         @Value("${protrading.feed.seed:0}") long seed,
+                         @Value("${protrading.feed.ring-capacity:1024}") int ringCapacity,
+                         @Value("${protrading.feed.wait-strategy:PARK}") WaitStrategy waitStrategy) {
+        this(new DataSupplier(new FeedConfiguration(ticksPerSecond, threads, seed, ringCapacity, waitStrategy)));
+    }
+
+    MarketDataBus(DataSupplier dataSupplier) {
+        this.dataSupplier = dataSupplier;
+        this.subscriptions = new EnumMap<>(Asset.class);
+        for (Asset asset : Asset.values()) {
+            subscriptions.put(asset, new CopyOnWriteArrayList<>());
+        }
+        this.sequence = new AtomicLong();
+        dataSupplier.setQuoteListener(this::publish);
+    }
+
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy) {
+        QuoteSubscription subscription = new QuoteSubscription(this, assets, capacity, policy);
+        for (Asset asset : subscription.getAssets()) {
+            subscriptions.get(asset).add(subscription);
+        }
+        return subscription;
+    }
+
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy,
+                                       QuoteHandler handler) {
+        QuoteSubscription subscription = subscribe(assets, capacity, policy);
+        subscription.deliverTo(handler);
+        return subscription;
+    }
+
+    // Every tick with no copying or locking on the way, for readers that have to keep up with the feed.
+    // A reader that falls a whole ring behind holds the feed back, so the reading loop cancels it when it ends.
+    public TickRingConsumer readTicks() {
+        return dataSupplier.getTicks().newConsumer();
+    }
+
+    public QuoteSubscription subscribe(Set<Asset> assets, int capacity, OverflowPolicy policy,
+                                       QuoteHandler handler, Executor executor) {
+        QuoteSubscription subscription = new QuoteSubscription(this, assets, capacity, policy);
+        subscription.deliverOn(handler, executor);
+        for (Asset asset : subscription.getAssets()) {
+            subscriptions.get(asset).add(subscription);
+        }
+        return subscription;
+    }
+
+    void unsubscribe(QuoteSubscription subscription) {
+        for (Asset asset : subscription.getAssets()) {
+            subscriptions.get(asset).remove(subscription);
+        }
+    }
+
+    // Called by the quote-dispatcher ring reader only, so quotes arrive in ring order. An interrupt while
+    // waiting on a full BLOCK subscription costs that subscription the quote, the others still get it.
+    void publish(Quote quote) {
+        SequencedQuote sequenced = new SequencedQuote(sequence.incrementAndGet(), quote);
+        boolean interrupted = false;
+        for (QuoteSubscription subscription : subscriptions.get(quote.getAsset())) {
+            try {
+                subscription.offer(sequenced);
+            } catch (InterruptedException e) {
+                LOGGER.debug(e.getMessage());
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public List<Quote> getOldQuotes(LocalDateTime start, LocalDateTime end, Asset asset)
+            throws InvalidPeriodException {
+        return dataSupplier.getOldQuotes(start, end, asset);
+    }
+
+    public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
+            throws InvalidPeriodException {
+        return dataSupplier.openCursor(start, end, asset);
+    }
+
+    public String getArchiveFingerprint(LocalDateTime start, LocalDateTime end, Asset asset) {
+        return dataSupplier.getArchiveFingerprint(start, end, asset);
+    }
+
+    public FeedRateMeter getFeedRateMeter() {
+        return dataSupplier.getRateMeter();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dataSupplier.shutdown();
+    }
+
+}
@@ -3,26 +3,41 @@ package com.trading.protrading.marketdata;
 import com.trading.protrading.data.strategy.Asset;
 import com.trading.protrading.data.strategy.Quote;
 import com.trading.protrading.exceptions.InvalidPeriodException;
+import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collection;
 
+@Component
 public class MarketHistory {
 
-    private final DataSupplier dataSupplier;
+    private final MarketDataBus marketDataBus;
 
-    public MarketHistory() {
-        this(new DataSupplier());
+    public MarketHistory(MarketDataBus marketDataBus) {
+        this.marketDataBus = marketDataBus;
     }
 
-    MarketHistory(DataSupplier dataSupplier) {
-        this.dataSupplier = dataSupplier;
+    public Collection<Quote> getQuotes(LocalDateTime start, LocalDateTime end, Asset asset)
+            throws InvalidPeriodException {
+        validatePeriod(start, end);
+        return marketDataBus.getOldQuotes(start, end, asset);
     }
 
-    public Collection<Quote> getQuotes(LocalDateTime start, LocalDateTime end, Asset asset)
+    public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
             throws InvalidPeriodException {
+        validatePeriod(start, end);
+        return marketDataBus.openCursor(start, end, asset);
+    }
+
+    // Changes whenever the archived quotes of the period do
+    public String getFingerprint(LocalDateTime start, LocalDateTime end, Asset asset)
+            throws InvalidPeriodException {
+        validatePeriod(start, end);
+        return marketDataBus.getArchiveFingerprint(start, end, asset);
+    }
 
+    private void validatePeriod(LocalDateTime start, LocalDateTime end) throws InvalidPeriodException {
         if (start == null || end == null) {
             throw new IllegalArgumentException("Parameters start and end cannot be null");
         }
@@ -33,7 +48,6 @@ public class MarketHistory {
         if (start.isAfter(end)) {
             throw new InvalidPeriodException("The start date and time must be before the end");
         }
-        return dataSupplier.getOldQuotes(start, end, asset);
     }
 
 }
@@ -0,0 +1,45 @@
+package com.trading.protrading.marketdata;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+// The slice [start, end] of one month file that a query needs
+public class MonthPartition {
+
+    private final YearMonth month;
+    private final LocalDate start;
+    private final LocalDate end;
+
+    MonthPartition(YearMonth month, LocalDate start, LocalDate end) {
+        this.month = month;
+        this.start = start;
+        this.end = end;
+    }
+
+    // The month files covering [start, end], each with the days of the range that fall in it
+    public static List<MonthPartition> plan(LocalDate start, LocalDate end) {
+        List<MonthPartition> partitions = new ArrayList<>();
+        YearMonth lastMonth = YearMonth.from(end);
+        for (YearMonth month = YearMonth.from(start); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            LocalDate first = month.atDay(1).isBefore(start) ? start : month.atDay(1);
+            LocalDate last = month.atEndOfMonth().isAfter(end) ? end : month.atEndOfMonth();
+            partitions.add(new MonthPartition(month, first, last));
+        }
+        return partitions;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+}
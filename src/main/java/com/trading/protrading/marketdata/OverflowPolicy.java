@@ -0,0 +1,10 @@
+package com.trading.protrading.marketdata;
+
+public enum OverflowPolicy {
+    // the feed waits until the consumer has room, nothing is lost
+    BLOCK,
+    // the oldest pending quote is discarded to make room
+    DROP_OLDEST,
+    // only the latest pending quote of each asset is kept
+    CONFLATE
+}
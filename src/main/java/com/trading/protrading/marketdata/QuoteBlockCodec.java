@@ -0,0 +1,93 @@
+package com.trading.protrading.marketdata;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/*  Block payload codecs.
+      RAW          - long[count] epoch millis, double[count] prices, byte[count] quote types
+      DELTA_VARINT - per quote a varint timestamp delta-of-delta, then a varint of the price delta
+                     in cents shifted left by one with the quote type in the lowest bit.
+                     Deltas are zigzag encoded. Every zone of QuoteZone.ZONE_SIZE quotes starts over
+                     from an absolute timestamp and price, so a reader can start at any zone.
+    DELTA_VARINT is used whenever every price is a whole number of cents, RAW otherwise. */
+final class QuoteBlockCodec {
+
+    static final byte RAW = 0;
+    static final byte DELTA_VARINT = 1;
+    static final int PRICE_SCALE = 100;
+    private static final int MAXIMUM_TYPE_CODE = 1;
+
+    private QuoteBlockCodec() {
+    }
+
+    static EncodedBlock encode(long[] timestamps, double[] prices, byte[] types) {
+        return isScalable(prices, types) ? encodeDeltas(timestamps, prices, types) : encodeRaw(timestamps, prices, types);
+    }
+
+    private static boolean isScalable(double[] prices, byte[] types) {
+        for (int i = 0; i < prices.length; i++) {
+            double decoded = Math.round(prices[i] * PRICE_SCALE) / (double) PRICE_SCALE;
+            if (Double.doubleToLongBits(decoded) != Double.doubleToLongBits(prices[i]) || types[i] > MAXIMUM_TYPE_CODE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static EncodedBlock encodeRaw(long[] timestamps, double[] prices, byte[] types) {
+        int count = timestamps.length;
+        ByteBuffer payload = ByteBuffer.allocate((int) QuoteSegmentFormat.rawPayloadSize(count));
+        for (long timestamp : timestamps) {
+            payload.putLong(timestamp);
+        }
+        for (double price : prices) {
+            payload.putDouble(price);
+        }
+        payload.put(types);
+        payload.flip();
+        return new EncodedBlock(RAW, payload, new int[(count + QuoteZone.ZONE_SIZE - 1) / QuoteZone.ZONE_SIZE]);
+    }
+
+    private static EncodedBlock encodeDeltas(long[] timestamps, double[] prices, byte[] types) {
+        int count = timestamps.length;
+        int[] zoneOffsets = new int[(count + QuoteZone.ZONE_SIZE - 1) / QuoteZone.ZONE_SIZE];
+        ByteArrayOutputStream output = new ByteArrayOutputStream(count * 4);
+        long previousTimestamp = 0;
+        long previousDelta = 0;
+        long previousPrice = 0;
+        for (int i = 0; i < count; i++) {
+            long price = Math.round(prices[i] * PRICE_SCALE);
+            if (i % QuoteZone.ZONE_SIZE == 0) {
+                zoneOffsets[i / QuoteZone.ZONE_SIZE] = output.size();
+                writeVarLong(output, zigzag(timestamps[i]));
+                writeVarLong(output, zigzag(price) << 1 | types[i]);
+                previousDelta = 0;
+            } else {
+                long delta = timestamps[i] - previousTimestamp;
+                writeVarLong(output, zigzag(delta - previousDelta));
+                writeVarLong(output, zigzag(price - previousPrice) << 1 | types[i]);
+                previousDelta = delta;
+            }
+            previousTimestamp = timestamps[i];
+            previousPrice = price;
+        }
+        return new EncodedBlock(DELTA_VARINT, ByteBuffer.wrap(output.toByteArray()), zoneOffsets);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.QuoteType;
+
+import java.nio.ByteBuffer;
+
+// Streams the quotes of one block out of a mapped segment without materializing them.
+public class QuoteBlockDecoder {
+
+    private final ByteBuffer buffer;
+    private final SegmentBlock block;
+    private final int dataOffset;
+    private int nextIndex;
+    private int position;
+    private long timestamp;
+    private long delta;
+    private long scaledPrice;
+    private double price;
+    private byte type;
+
+    QuoteBlockDecoder(ByteBuffer buffer, SegmentBlock block) {
+        this.buffer = buffer;
+        this.block = block;
+        this.dataOffset = (int) block.getDataOffset();
+        this.nextIndex = 0;
+        this.position = dataOffset;
+    }
+
+    public boolean hasNext() {
+        return nextIndex < block.getCount();
+    }
+
+    public boolean isAtZoneStart() {
+        return nextIndex % QuoteZone.ZONE_SIZE == 0;
+    }
+
+    // The zone of the next quote
+    public QuoteZone getZone() {
+        return block.getZones().get(nextIndex / QuoteZone.ZONE_SIZE);
+    }
+
+    // Moves to the first quote after the zone of the next quote
+    public void skipZone() {
+        int zone = nextIndex / QuoteZone.ZONE_SIZE + 1;
+        if (zone < block.getZones().size()) {
+            nextIndex = zone * QuoteZone.ZONE_SIZE;
+            position = dataOffset + block.getZones().get(zone).getByteOffset();
+        } else {
+            nextIndex = block.getCount();
+        }
+    }
+
+    int getPosition() {
+        return position - dataOffset;
+    }
+
+    public void next() {
+        if (block.getCodec() == QuoteBlockCodec.RAW) {
+            int count = block.getCount();
+            timestamp = buffer.getLong(dataOffset + nextIndex * Long.BYTES);
+            price = buffer.getDouble(dataOffset + count * Long.BYTES + nextIndex * Double.BYTES);
+            type = buffer.get(dataOffset + count * (Long.BYTES + Double.BYTES) + nextIndex);
+        } else {
+            long priceAndType;
+            if (isAtZoneStart()) {
+                timestamp = QuoteBlockCodec.unzigzag(readVarLong());
+                delta = 0;
+                priceAndType = readVarLong();
+                scaledPrice = QuoteBlockCodec.unzigzag(priceAndType >>> 1);
+            } else {
+                long previousTimestamp = timestamp;
+                timestamp = previousTimestamp + delta + QuoteBlockCodec.unzigzag(readVarLong());
+                delta = timestamp - previousTimestamp;
+                priceAndType = readVarLong();
+                scaledPrice += QuoteBlockCodec.unzigzag(priceAndType >>> 1);
+            }
+            type = (byte) (priceAndType & 1);
+            price = scaledPrice / (double) QuoteBlockCodec.PRICE_SCALE;
+        }
+        nextIndex++;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get(position++);
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public QuoteType getType() {
+        return QuoteSegmentFormat.toType(type);
+    }
+
+    byte getTypeCode() {
+        return type;
+    }
+
+}
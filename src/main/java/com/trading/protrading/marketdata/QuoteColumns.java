@@ -0,0 +1,53 @@
+package com.trading.protrading.marketdata;
+
+/*  A reusable batch of quotes as parallel primitive columns: epoch millis, prices and quote type codes
+    (the ordinals of QuoteType). A cursor refills it, so streaming a range allocates nothing per quote. */
+public class QuoteColumns {
+
+    private final long[] timestamps;
+    private final double[] prices;
+    private final byte[] types;
+    private int size;
+
+    public QuoteColumns(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Parameter capacity must be positive");
+        }
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        this.types = new byte[capacity];
+        this.size = 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(long timestamp, double price, byte type) {
+        timestamps[size] = timestamp;
+        prices[size] = price;
+        types[size] = type;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getPrices() {
+        return prices;
+    }
+
+    public byte[] getTypes() {
+        return types;
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Pulls archived quotes of one asset in [start, end] a day at a time, decoding each quote only when it is requested.
+public class QuoteCursor implements Iterator<Quote> {
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private final Archive archive;
+    private final Asset asset;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final long startMillis;
+    private final long endMillis;
+    private final LocalDate lastDay;
+    private LocalDate currentDay;
+    private YearMonth currentMonth;
+    private QuoteSegment segment;
+    private Map<LocalDate, List<Quote>> legacyDays;
+    private Iterator<Quote> legacyQuotes;
+    private Quote legacyQuote;
+    private List<SegmentBlock> blocks;
+    private int blockIndex;
+    private QuoteBlockDecoder decoder;
+    private Quote next;
+    private boolean exhausted;
+    private boolean closed;
+    private ZoneFilter zoneFilter;
+    private long skippedCount;
+
+    QuoteCursor(Archive archive, Asset asset, LocalDateTime start, LocalDateTime end) {
+        this.archive = archive;
+        this.asset = asset;
+        this.start = start;
+        this.end = end;
+        this.startMillis = ceilToMillis(start);
+        this.endMillis = QuoteSegmentFormat.toEpochMillis(end);
+        this.currentDay = start.toLocalDate();
+        this.lastDay = end.toLocalDate();
+        this.blocks = Collections.emptyList();
+        this.legacyQuotes = Collections.emptyIterator();
+        this.exhausted = false;
+        this.closed = false;
+    }
+
+    private static long ceilToMillis(LocalDateTime date) {
+        long millis = QuoteSegmentFormat.toEpochMillis(date);
+        return date.getNano() % NANOS_PER_MILLI == 0 ? millis : millis + 1;
+    }
+
+    public void setZoneFilter(ZoneFilter zoneFilter) {
+        this.zoneFilter = zoneFilter;
+    }
+
+    // Ends the range early, also from within the zone filter
+    public void close() {
+        closed = true;
+    }
+
+    // Archived quotes in zones the filter ruled out, they were never decoded
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            next = advance();
+            exhausted = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Quote next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more quotes in the range");
+        }
+        Quote quote = next;
+        next = null;
+        return quote;
+    }
+
+    private Quote advance() {
+        if (!advanceRecord()) {
+            return null;
+        }
+        return legacyQuote != null ? legacyQuote : new Quote(asset, decoder.getPrice(), decoder.getType(),
+                QuoteSegmentFormat.toDate(decoder.getTimestamp()));
+    }
+
+    /*  Replaces the contents of columns with the next quotes of the range, as many as fit, without
+        creating a Quote for the archived ones. Returns how many were added, 0 once the range is done.
+        With a zone filter a batch ends with its zone, so the filter of the next zone sees the state
+        the batch left. Legacy quotes keep only whole milliseconds, as archived quotes do. */
+    public int fill(QuoteColumns columns) {
+        columns.clear();
+        if (next != null) {
+            columns.add(QuoteSegmentFormat.toEpochMillis(next.getDate()), next.getPrice(),
+                    QuoteSegmentFormat.toCode(next.getType()));
+            next = null;
+        }
+        while (!columns.isFull() && !exhausted) {
+            if (!advanceRecord()) {
+                exhausted = true;
+            } else if (legacyQuote != null) {
+                columns.add(QuoteSegmentFormat.toEpochMillis(legacyQuote.getDate()), legacyQuote.getPrice(),
+                        QuoteSegmentFormat.toCode(legacyQuote.getType()));
+            } else {
+                columns.add(decoder.getTimestamp(), decoder.getPrice(), decoder.getTypeCode());
+                if (zoneFilter != null && (decoder.isAtZoneStart() || !decoder.hasNext())) {
+                    break;
+                }
+            }
+        }
+        return columns.size();
+    }
+
+    // Moves to the next quote in the range, either legacyQuote or, when that is null, the decoder's current one
+    private boolean advanceRecord() {
+        legacyQuote = null;
+        while (!closed) {
+            if (legacyQuotes.hasNext()) {
+                Quote quote = legacyQuotes.next();
+                if (quote.getDate().isAfter(end)) {
+                    return false;
+                }
+                if (!quote.getDate().isBefore(start)) {
+                    legacyQuote = quote;
+                    return true;
+                }
+            } else if (decoder != null && decoder.hasNext()) {
+                if (zoneFilter != null && decoder.isAtZoneStart()) {
+                    QuoteZone zone = decoder.getZone();
+                    if (!zoneFilter.mayMatch(zone)) {
+                        skippedCount += zone.getCount();
+                        decoder.skipZone();
+                        continue;
+                    }
+                }
+                decoder.next();
+                long timestamp = decoder.getTimestamp();
+                if (timestamp > endMillis) {
+                    return false;
+                }
+                if (timestamp >= startMillis) {
+                    return true;
+                }
+            } else if (blockIndex < blocks.size()) {
+                decoder = segment.decode(blocks.get(blockIndex++));
+            } else if (!currentDay.isAfter(lastDay)) {
+                loadDay(currentDay);
+                currentDay = currentDay.plusDays(1);
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void loadDay(LocalDate day) {
+        YearMonth month = YearMonth.from(day);
+        if (!month.equals(currentMonth)) {
+            currentMonth = month;
+            segment = archive.openSegment(day);
+            legacyDays = archive.readLegacyDays(day);
+        }
+        legacyQuotes = legacyDays.getOrDefault(day, Collections.emptyList()).iterator();
+        blocks = segment == null ? Collections.emptyList() : segment.getBlocks(day, day);
+        blockIndex = 0;
+        decoder = null;
+    }
+
+}
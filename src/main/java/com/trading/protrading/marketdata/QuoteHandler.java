@@ -0,0 +1,10 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+
+@FunctionalInterface
+public interface QuoteHandler {
+
+    void handle(Quote quote);
+
+}
@@ -0,0 +1,58 @@
+package com.trading.protrading.marketdata;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+// Read-only memory-mapped view of a segment file. Quotes are read straight out of the mapping.
+public class QuoteSegment {
+
+    private final MappedByteBuffer buffer;
+    private final List<SegmentBlock> blocks;
+
+    private QuoteSegment(MappedByteBuffer buffer, List<SegmentBlock> blocks) {
+        this.buffer = buffer;
+        this.blocks = blocks;
+    }
+
+    public static QuoteSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Quote segment " + path + " is too large to be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < QuoteSegmentFormat.HEADER_SIZE || buffer.getInt(0) != QuoteSegmentFormat.MAGIC) {
+                throw new IOException("Unsupported quote segment " + path);
+            }
+            int version = buffer.getInt(Integer.BYTES);
+            if (version < 1 || version > QuoteSegmentFormat.VERSION) {
+                throw new IOException("Unsupported quote segment version " + version + " of " + path);
+            }
+            return new QuoteSegment(buffer, QuoteSegmentIndex.load(path, buffer, version));
+        }
+    }
+
+    public List<SegmentBlock> getBlocks(LocalDate start, LocalDate end) {
+        long startDay = start.toEpochDay();
+        long endDay = end.toEpochDay();
+        List<SegmentBlock> selected = new ArrayList<>();
+        for (SegmentBlock block : blocks) {
+            if (block.getEpochDay() >= startDay && block.getEpochDay() <= endDay) {
+                selected.add(block);
+            }
+        }
+        return selected;
+    }
+
+    public QuoteBlockDecoder decode(SegmentBlock block) {
+        return new QuoteBlockDecoder(buffer, block);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.QuoteType;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/*  Layout of a segment file (one per asset and month):
+      header - int magic, int version
+      block  - int epochDay, int count, byte codec, int payload length, payload
+    Blocks are appended one per archived day. The payload is encoded by QuoteBlockCodec.
+    Version 1 blocks have no codec and length, their payload is always RAW:
+      long[count] epoch millis, double[count] prices, byte[count] quote types */
+final class QuoteSegmentFormat {
+
+    static final int MAGIC = 0x51534547;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+    static final int BLOCK_HEADER_SIZE = Integer.BYTES * 2 + Byte.BYTES + Integer.BYTES;
+    static final int VERSION_1_BLOCK_HEADER_SIZE = Integer.BYTES * 2;
+    static final int RECORD_SIZE = Long.BYTES + Double.BYTES + Byte.BYTES;
+    static final String FILE_EXTENSION = ".seg";
+
+    private static final QuoteType[] TYPES = QuoteType.values();
+
+    private QuoteSegmentFormat() {
+    }
+
+    static long toEpochMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDate(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    static byte toCode(QuoteType type) {
+        return (byte) type.ordinal();
+    }
+
+    static QuoteType toType(byte code) {
+        return TYPES[code];
+    }
+
+    static int blockHeaderSize(int version) {
+        return version == 1 ? VERSION_1_BLOCK_HEADER_SIZE : BLOCK_HEADER_SIZE;
+    }
+
+    static long rawPayloadSize(int count) {
+        return (long) count * RECORD_SIZE;
+    }
+
+    static int readVersion(Path path) throws IOException {
+        try (DataInputStream dis = new DataInputStream(Files.newInputStream(path))) {
+            if (dis.readInt() != MAGIC) {
+                throw new IOException("Unsupported quote segment " + path);
+            }
+            int version = dis.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported quote segment version " + version + " of " + path);
+            }
+            return version;
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.trading.protrading.marketdata;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Sidecar directory of a segment file: int magic, int version, then one
+    entry per block - int epochDay, long offset, int count, byte codec, int length, followed by the block's
+    zone maps - int payload offset, int buyCount, double minimum, double maximum,
+    int sellCount, double minimum, double maximum.
+    A missing, stale or older version index is rebuilt from the segment. */
+final class QuoteSegmentIndex {
+
+    static final String FILE_EXTENSION = ".idx";
+    private static final Logger LOGGER = getLogger(QuoteSegmentIndex.class);
+    private static final int MAGIC = 0x51494458;
+    private static final int VERSION = 3;
+    private static final int ENTRY_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final int ZONE_SIZE = Integer.BYTES + 2 * (Integer.BYTES + 2 * Double.BYTES);
+
+    private QuoteSegmentIndex() {
+    }
+
+    static Path getPath(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + FILE_EXTENSION);
+    }
+
+    static void append(Path segment, SegmentBlock block) throws IOException {
+        Path path = getPath(segment);
+        boolean newFile = !Files.exists(path) || Files.size(path) == 0;
+        try (OutputStream output = Files.newOutputStream(path, CREATE, APPEND)) {
+            if (newFile) {
+                output.write(header().array());
+            }
+            output.write(entry(block).array());
+        }
+    }
+
+    static List<SegmentBlock> load(Path segment, ByteBuffer mapped, int segmentVersion) {
+        Path path = getPath(segment);
+        int blockHeaderSize = QuoteSegmentFormat.blockHeaderSize(segmentVersion);
+        if (Files.exists(path)) {
+            try {
+                List<SegmentBlock> blocks = read(path, blockHeaderSize);
+                if (coversSegment(blocks, mapped.limit())) {
+                    return blocks;
+                }
+            } catch (IOException ioException) {
+                LOGGER.debug(ioException);
+            }
+        }
+        List<SegmentBlock> blocks = scan(mapped, segmentVersion);
+        write(path, blocks);
+        return blocks;
+    }
+
+    private static boolean coversSegment(List<SegmentBlock> blocks, long segmentSize) {
+        long end = blocks.isEmpty() ? QuoteSegmentFormat.HEADER_SIZE : blocks.get(blocks.size() - 1).getEnd();
+        return end == segmentSize;
+    }
+
+    private static List<SegmentBlock> read(Path path, int blockHeaderSize) throws IOException {
+        List<SegmentBlock> blocks = new ArrayList<>();
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+                throw new IOException("Unsupported quote segment index " + path);
+            }
+            while (true) {
+                try {
+                    int epochDay = dis.readInt();
+                    long offset = dis.readLong();
+                    int count = dis.readInt();
+                    byte codec = dis.readByte();
+                    int length = dis.readInt();
+                    blocks.add(new SegmentBlock(epochDay, offset, offset + blockHeaderSize, length, count, codec,
+                            readZones(dis, count)));
+                } catch (EOFException endOfIndex) {
+                    break;
+                }
+            }
+        }
+        return blocks;
+    }
+
+    private static List<QuoteZone> readZones(DataInputStream dis, int count) throws IOException {
+        List<QuoteZone> zones = new ArrayList<>();
+        for (int first = 0; first < count; first += QuoteZone.ZONE_SIZE) {
+            zones.add(new QuoteZone(first, Math.min(QuoteZone.ZONE_SIZE, count - first), dis.readInt(),
+                    dis.readInt(), dis.readDouble(), dis.readDouble(),
+                    dis.readInt(), dis.readDouble(), dis.readDouble()));
+        }
+        return zones;
+    }
+
+    private static List<SegmentBlock> scan(ByteBuffer mapped, int segmentVersion) {
+        int blockHeaderSize = QuoteSegmentFormat.blockHeaderSize(segmentVersion);
+        List<SegmentBlock> blocks = new ArrayList<>();
+        long position = QuoteSegmentFormat.HEADER_SIZE;
+        while (position + blockHeaderSize <= mapped.limit()) {
+            int epochDay = mapped.getInt((int) position);
+            int count = mapped.getInt((int) position + Integer.BYTES);
+            byte codec = QuoteBlockCodec.RAW;
+            long payloadSize = QuoteSegmentFormat.rawPayloadSize(count);
+            if (segmentVersion > 1) {
+                codec = mapped.get((int) position + Integer.BYTES * 2);
+                payloadSize = mapped.getInt((int) position + Integer.BYTES * 2 + Byte.BYTES);
+            }
+            long length = blockHeaderSize + payloadSize;
+            // a trailing block cut short by an interrupted append is left out
+            if (count < 0 || payloadSize < 0 || position + length > mapped.limit()) {
+                break;
+            }
+            SegmentBlock unzoned = new SegmentBlock(epochDay, position, position + blockHeaderSize, length, count,
+                    codec, null);
+            blocks.add(new SegmentBlock(epochDay, position, position + blockHeaderSize, length, count, codec,
+                    scanZones(mapped, unzoned)));
+            position += length;
+        }
+        return blocks;
+    }
+
+    private static List<QuoteZone> scanZones(ByteBuffer mapped, SegmentBlock block) {
+        int count = block.getCount();
+        double[] prices = new double[count];
+        byte[] types = new byte[count];
+        int[] zoneOffsets = new int[(count + QuoteZone.ZONE_SIZE - 1) / QuoteZone.ZONE_SIZE];
+        QuoteBlockDecoder decoder = new QuoteBlockDecoder(mapped, block);
+        for (int i = 0; i < count; i++) {
+            if (i % QuoteZone.ZONE_SIZE == 0 && block.getCodec() != QuoteBlockCodec.RAW) {
+                zoneOffsets[i / QuoteZone.ZONE_SIZE] = decoder.getPosition();
+            }
+            decoder.next();
+            prices[i] = decoder.getPrice();
+            types[i] = decoder.getTypeCode();
+        }
+        return QuoteZone.split(prices, types, zoneOffsets);
+    }
+
+    private static void write(Path path, List<SegmentBlock> blocks) {
+        try (OutputStream output = Files.newOutputStream(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            output.write(header().array());
+            for (SegmentBlock block : blocks) {
+                output.write(entry(block).array());
+            }
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        return header;
+    }
+
+    private static ByteBuffer entry(SegmentBlock block) {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE + block.getZones().size() * ZONE_SIZE);
+        entry.putInt((int) block.getEpochDay());
+        entry.putLong(block.getOffset());
+        entry.putInt(block.getCount());
+        entry.put(block.getCodec());
+        entry.putInt((int) block.getLength());
+        for (QuoteZone zone : block.getZones()) {
+            entry.putInt(zone.getByteOffset());
+            entry.putInt(zone.getBuyCount());
+            entry.putDouble(zone.getMinimumBuyPrice());
+            entry.putDouble(zone.getMaximumBuyPrice());
+            entry.putInt(zone.getSellCount());
+            entry.putDouble(zone.getMinimumSellPrice());
+            entry.putDouble(zone.getMaximumSellPrice());
+        }
+        return entry;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class QuoteSegmentReader {
+
+    private final Asset asset;
+
+    public QuoteSegmentReader(Asset asset) {
+        this.asset = asset;
+    }
+
+    public List<Quote> read(Path path, LocalDate start, LocalDate end) throws IOException {
+        QuoteSegment segment = QuoteSegment.open(path);
+        List<Quote> quotes = new ArrayList<>();
+        for (SegmentBlock block : segment.getBlocks(start, end)) {
+            readBlock(segment, block, quotes);
+        }
+        return quotes;
+    }
+
+    public Map<LocalDate, List<Quote>> readDays(Path path) throws IOException {
+        QuoteSegment segment = QuoteSegment.open(path);
+        Map<LocalDate, List<Quote>> days = new TreeMap<>();
+        for (SegmentBlock block : segment.getBlocks(LocalDate.MIN, LocalDate.MAX)) {
+            LocalDate day = LocalDate.ofEpochDay(block.getEpochDay());
+            readBlock(segment, block, days.computeIfAbsent(day, key -> new ArrayList<>()));
+        }
+        return days;
+    }
+
+    private void readBlock(QuoteSegment segment, SegmentBlock block, List<Quote> quotes) {
+        QuoteBlockDecoder decoder = segment.decode(block);
+        while (decoder.hasNext()) {
+            decoder.next();
+            quotes.add(new Quote(asset, decoder.getPrice(), decoder.getType(),
+                    QuoteSegmentFormat.toDate(decoder.getTimestamp())));
+        }
+    }
+
+}
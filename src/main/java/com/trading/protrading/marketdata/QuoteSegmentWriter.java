@@ -0,0 +1,72 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+// Appends one block per day. A version 1 segment keeps its layout until ArchiveConverter upgrades it.
+public class QuoteSegmentWriter {
+
+    public synchronized void write(Path path, LocalDate date, List<Quote> quotes) throws IOException {
+        if (quotes.isEmpty()) {
+            return;
+        }
+        boolean newFile = !Files.exists(path) || Files.size(path) == 0;
+        int version = newFile ? QuoteSegmentFormat.VERSION : QuoteSegmentFormat.readVersion(path);
+        long offset = newFile ? QuoteSegmentFormat.HEADER_SIZE : Files.size(path);
+        int count = quotes.size();
+        long[] timestamps = new long[count];
+        double[] prices = new double[count];
+        byte[] types = new byte[count];
+        for (int i = 0; i < count; i++) {
+            Quote quote = quotes.get(i);
+            timestamps[i] = QuoteSegmentFormat.toEpochMillis(quote.getDate());
+            prices[i] = quote.getPrice();
+            types[i] = QuoteSegmentFormat.toCode(quote.getType());
+        }
+        EncodedBlock encoded = version == 1
+                ? QuoteBlockCodec.encodeRaw(timestamps, prices, types)
+                : QuoteBlockCodec.encode(timestamps, prices, types);
+        ByteBuffer block = block(date, count, encoded, version);
+        try (OutputStream output = Files.newOutputStream(path, CREATE, APPEND)) {
+            if (newFile) {
+                output.write(header().array());
+            }
+            output.write(block.array());
+        }
+        int blockHeaderSize = QuoteSegmentFormat.blockHeaderSize(version);
+        // a failure past this point leaves a stale index, which readers rebuild
+        QuoteSegmentIndex.append(path, new SegmentBlock(date.toEpochDay(), offset, offset + blockHeaderSize,
+                block.capacity(), count, encoded.getCodec(), QuoteZone.split(prices, types, encoded.getZoneOffsets())));
+    }
+
+    static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(QuoteSegmentFormat.HEADER_SIZE);
+        header.putInt(QuoteSegmentFormat.MAGIC);
+        header.putInt(QuoteSegmentFormat.VERSION);
+        return header;
+    }
+
+    private static ByteBuffer block(LocalDate date, int count, EncodedBlock encoded, int version) {
+        ByteBuffer payload = encoded.getPayload();
+        ByteBuffer block = ByteBuffer.allocate(QuoteSegmentFormat.blockHeaderSize(version) + payload.remaining());
+        block.putInt((int) date.toEpochDay());
+        block.putInt(count);
+        if (version > 1) {
+            block.put(encoded.getCodec());
+            block.putInt(payload.remaining());
+        }
+        block.put(payload);
+        return block;
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+// A consumer's bounded mailbox on the MarketDataBus. Quotes of an asset arrive in feed sequence order;
+// the overflow policy decides what happens when the consumer falls behind.
+public class QuoteSubscription {
+
+    private static final Logger LOGGER = getLogger(QuoteSubscription.class);
+    private static final int DRAIN_BATCH = 16;
+    private final MarketDataBus marketDataBus;
+    private final Set<Asset> assets;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final ArrayDeque<SequencedQuote> pending;
+    private final SequencedQuote[] conflated;
+    private final ArrayDeque<Asset> conflationOrder;
+    private long lastSequence;
+    private long droppedCount;
+    private boolean cancelled;
+    private QuoteHandler handler;
+    private Executor executor;
+    private boolean scheduled;
+
+    QuoteSubscription(MarketDataBus marketDataBus, Set<Asset> assets, int capacity, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Parameter capacity must be positive");
+        }
+        this.marketDataBus = marketDataBus;
+        this.assets = Collections.unmodifiableSet(EnumSet.copyOf(assets));
+        this.capacity = capacity;
+        this.policy = policy;
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.pending = new ArrayDeque<>();
+        this.conflated = new SequencedQuote[Asset.values().length];
+        this.conflationOrder = new ArrayDeque<>();
+        this.lastSequence = 0;
+        this.droppedCount = 0;
+        this.cancelled = false;
+        this.scheduled = false;
+    }
+
+    public Set<Asset> getAssets() {
+        return assets;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    void offer(SequencedQuote quote) throws InterruptedException {
+        boolean schedule = false;
+        lock.lock();
+        try {
+            if (cancelled) {
+                return;
+            }
+            switch (policy) {
+                case BLOCK:
+                    while (pending.size() == capacity && !cancelled) {
+                        notFull.await();
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    pending.addLast(quote);
+                    break;
+                case DROP_OLDEST:
+                    if (pending.size() == capacity) {
+                        pending.removeFirst();
+                        droppedCount++;
+                    }
+                    pending.addLast(quote);
+                    break;
+                case CONFLATE:
+                    int asset = quote.getQuote().getAsset().ordinal();
+                    if (conflated[asset] == null) {
+                        conflationOrder.addLast(quote.getQuote().getAsset());
+                    } else {
+                        droppedCount++;
+                    }
+                    conflated[asset] = quote;
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected value: " + policy);
+            }
+            notEmpty.signal();
+            if (executor != null && !scheduled) {
+                scheduled = true;
+                schedule = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            drainLater();
+        }
+    }
+
+    // Returns null once the subscription is cancelled
+    public Quote take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (isEmpty() && !cancelled) {
+                notEmpty.await();
+            }
+            return cancelled ? null : remove();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Quote poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (isEmpty() && !cancelled) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return cancelled ? null : remove();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        return pending.isEmpty() && conflationOrder.isEmpty();
+    }
+
+    private Quote remove() {
+        SequencedQuote quote;
+        if (policy == OverflowPolicy.CONFLATE) {
+            int asset = conflationOrder.removeFirst().ordinal();
+            quote = conflated[asset];
+            conflated[asset] = null;
+        } else {
+            quote = pending.removeFirst();
+            notFull.signal();
+        }
+        lastSequence = quote.getSequence();
+        return quote.getQuote();
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isScheduled() {
+        lock.lock();
+        try {
+            return scheduled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void deliverTo(QuoteHandler handler) {
+        Thread delivery = new Thread(() -> {
+            try {
+                Quote quote = take();
+                while (quote != null) {
+                    handler.handle(quote);
+                    quote = take();
+                }
+            } catch (InterruptedException e) {
+                LOGGER.debug(e.getMessage());
+            }
+        }, "quote-handler");
+        delivery.setDaemon(true);
+        delivery.start();
+    }
+
+    // No thread of its own: the handler runs on the executor only while quotes are pending, a few at a
+    // time, so many subscriptions can share a small pool
+    void deliverOn(QuoteHandler handler, Executor executor) {
+        lock.lock();
+        try {
+            this.handler = handler;
+            this.executor = executor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainLater() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug(e.getMessage());
+            // the next quote schedules it again
+            lock.lock();
+            try {
+                scheduled = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            Quote quote;
+            lock.lock();
+            try {
+                if (cancelled || isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+                quote = remove();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                handler.handle(quote);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to handle quote", e);
+            }
+        }
+        // still scheduled, the rest waits behind the other subscriptions
+        drainLater();
+    }
+
+    public void cancel() {
+        marketDataBus.unsubscribe(this);
+        lock.lock();
+        try {
+            cancelled = true;
+            // a drain already handed to the executor finds nothing and ends
+            pending.clear();
+            conflationOrder.clear();
+            Arrays.fill(conflated, null);
+            scheduled = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
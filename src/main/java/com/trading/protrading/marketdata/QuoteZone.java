@@ -0,0 +1,104 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.QuoteType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Zone map of up to ZONE_SIZE consecutive quotes of a block: price range and count per quote type.
+// A type without quotes has an empty range, minimum above maximum.
+public class QuoteZone {
+
+    public static final int ZONE_SIZE = 1024;
+    private final int first;
+    private final int count;
+    private final int byteOffset;
+    private final int buyCount;
+    private final double minimumBuyPrice;
+    private final double maximumBuyPrice;
+    private final int sellCount;
+    private final double minimumSellPrice;
+    private final double maximumSellPrice;
+
+    QuoteZone(int first, int count, int byteOffset, int buyCount, double minimumBuyPrice, double maximumBuyPrice,
+              int sellCount, double minimumSellPrice, double maximumSellPrice) {
+        this.first = first;
+        this.count = count;
+        this.byteOffset = byteOffset;
+        this.buyCount = buyCount;
+        this.minimumBuyPrice = minimumBuyPrice;
+        this.maximumBuyPrice = maximumBuyPrice;
+        this.sellCount = sellCount;
+        this.minimumSellPrice = minimumSellPrice;
+        this.maximumSellPrice = maximumSellPrice;
+    }
+
+    // Zone offsets are relative to the start of the block payload
+    static List<QuoteZone> split(double[] prices, byte[] types, int[] zoneOffsets) {
+        List<QuoteZone> zones = new ArrayList<>();
+        for (int first = 0; first < prices.length; first += ZONE_SIZE) {
+            int last = Math.min(first + ZONE_SIZE, prices.length);
+            int buyCount = 0;
+            int sellCount = 0;
+            double minimumBuyPrice = Double.POSITIVE_INFINITY;
+            double maximumBuyPrice = Double.NEGATIVE_INFINITY;
+            double minimumSellPrice = Double.POSITIVE_INFINITY;
+            double maximumSellPrice = Double.NEGATIVE_INFINITY;
+            for (int i = first; i < last; i++) {
+                if (QuoteSegmentFormat.toType(types[i]) == QuoteType.BUY) {
+                    buyCount++;
+                    minimumBuyPrice = Math.min(minimumBuyPrice, prices[i]);
+                    maximumBuyPrice = Math.max(maximumBuyPrice, prices[i]);
+                } else {
+                    sellCount++;
+                    minimumSellPrice = Math.min(minimumSellPrice, prices[i]);
+                    maximumSellPrice = Math.max(maximumSellPrice, prices[i]);
+                }
+            }
+            zones.add(new QuoteZone(first, last - first, zoneOffsets[first / ZONE_SIZE], buyCount, minimumBuyPrice, maximumBuyPrice,
+                    sellCount, minimumSellPrice, maximumSellPrice));
+        }
+        return zones;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getEnd() {
+        return first + count;
+    }
+
+    public int getByteOffset() {
+        return byteOffset;
+    }
+
+    public int getBuyCount() {
+        return buyCount;
+    }
+
+    public double getMinimumBuyPrice() {
+        return minimumBuyPrice;
+    }
+
+    public double getMaximumBuyPrice() {
+        return maximumBuyPrice;
+    }
+
+    public int getSellCount() {
+        return sellCount;
+    }
+
+    public double getMinimumSellPrice() {
+        return minimumSellPrice;
+    }
+
+    public double getMaximumSellPrice() {
+        return maximumSellPrice;
+    }
+
+}
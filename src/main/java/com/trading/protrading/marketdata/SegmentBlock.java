@@ -0,0 +1,58 @@
+package com.trading.protrading.marketdata;
+
+import java.util.List;
+
+public class SegmentBlock {
+
+    private final long epochDay;
+    private final long offset;
+    private final long dataOffset;
+    private final long length;
+    private final int count;
+    private final byte codec;
+    private final List<QuoteZone> zones;
+
+    public SegmentBlock(long epochDay, long offset, long dataOffset, long length, int count, byte codec,
+                        List<QuoteZone> zones) {
+        this.epochDay = epochDay;
+        this.offset = offset;
+        this.dataOffset = dataOffset;
+        this.length = length;
+        this.count = count;
+        this.codec = codec;
+        this.zones = zones;
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public byte getCodec() {
+        return codec;
+    }
+
+    public List<QuoteZone> getZones() {
+        return zones;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getEnd() {
+        return offset + length;
+    }
+
+}
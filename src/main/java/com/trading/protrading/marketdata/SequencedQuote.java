@@ -0,0 +1,23 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+
+class SequencedQuote {
+
+    private final long sequence;
+    private final Quote quote;
+
+    SequencedQuote(long sequence, Quote quote) {
+        this.sequence = sequence;
+        this.quote = quote;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Quote getQuote() {
+        return quote;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.trading.protrading.marketdata;
+
+import java.util.Arrays;
+
+/*  Append-only tick storage with a single writer and any number of readers.
+    Ticks live in fixed-size chunks of primitive columns that are never moved, so growing
+    only copies the small chunk directory. The writer fills a slot before publishing the
+    new size through a volatile write; a reader that reads size() may then read every
+    slot below it without locking. */
+public class TickBuffer {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNKS = 4;
+
+    private volatile Chunk[] chunks;
+    private volatile int size;
+
+    public TickBuffer() {
+        this.chunks = new Chunk[INITIAL_CHUNKS];
+        this.size = 0;
+    }
+
+    // Must only be called by the single writer thread
+    public void append(long timestamp, double price, byte type) {
+        int index = size;
+        int chunkIndex = index >>> CHUNK_SHIFT;
+        Chunk[] directory = chunks;
+        if (chunkIndex == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+        }
+        Chunk chunk = directory[chunkIndex];
+        if (chunk == null) {
+            chunk = new Chunk();
+            directory[chunkIndex] = chunk;
+            chunks = directory;
+        }
+        int offset = index & CHUNK_MASK;
+        chunk.timestamps[offset] = timestamp;
+        chunk.prices[offset] = price;
+        chunk.types[offset] = type;
+        size = index + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        return chunk(index).timestamps[index & CHUNK_MASK];
+    }
+
+    public double getPrice(int index) {
+        return chunk(index).prices[index & CHUNK_MASK];
+    }
+
+    public byte getType(int index) {
+        return chunk(index).types[index & CHUNK_MASK];
+    }
+
+    private Chunk chunk(int index) {
+        return chunks[index >>> CHUNK_SHIFT];
+    }
+
+    private static final class Chunk {
+        private final long[] timestamps = new long[CHUNK_SIZE];
+        private final double[] prices = new double[CHUNK_SIZE];
+        private final byte[] types = new byte[CHUNK_SIZE];
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/*  Preallocated ticks between the feed and its readers. A tick is written into the slot of its sequence
+    and every reader follows the ring with its own cursor, so readers never wait on each other and
+    publishing allocates nothing. The feed does not overwrite a slot before the slowest reader has passed
+    it, so nothing is lost and a slow reader holds the feed back, like a blocking subscription. A reader
+    whose thread ended without cancelling it is dropped once it holds the feed back. */
+public class TickRingBuffer {
+
+    private static final Logger LOGGER = getLogger(TickRingBuffer.class);
+    private final int mask;
+    private final Quote[] quotes;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private final List<TickRingConsumer> consumers;
+    private final WaitStrategy waitStrategy;
+
+    public TickRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Parameter capacity must be a power of two");
+        }
+        this.mask = capacity - 1;
+        this.quotes = new Quote[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.claimed = new AtomicLong();
+        this.consumers = new CopyOnWriteArrayList<>();
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int getCapacity() {
+        return quotes.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    // Sequences start at 1. Each asset is published from a single feed thread, so its ticks keep their order.
+    public long publish(Quote quote) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - quotes.length;
+        while (wrapPoint > slowestConsumer(wrapPoint)) {
+            dropAbandonedConsumers();
+            waitStrategy.idle();
+        }
+        int slot = (int) sequence & mask;
+        quotes[slot] = quote;
+        published.lazySet(slot, sequence);
+        return sequence;
+    }
+
+    private long slowestConsumer(long wrapPoint) {
+        long slowest = Long.MAX_VALUE;
+        for (TickRingConsumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.getLastSequence());
+            if (slowest < wrapPoint) {
+                return slowest;
+            }
+        }
+        return slowest;
+    }
+
+    private void dropAbandonedConsumers() {
+        for (TickRingConsumer consumer : consumers) {
+            if (consumer.isAbandoned()) {
+                LOGGER.warn("Dropped a tick reader whose thread ended without cancelling it");
+                consumer.cancel();
+            }
+        }
+    }
+
+    // The reader starts with the ticks published after it joined
+    public TickRingConsumer newConsumer() {
+        TickRingConsumer consumer = new TickRingConsumer(this, waitStrategy, claimed.get());
+        consumers.add(consumer);
+        // ticks claimed before the reader was visible to the feed may overwrite its first slots, so it skips them
+        consumer.startAfter(claimed.get());
+        return consumer;
+    }
+
+    void remove(TickRingConsumer consumer) {
+        consumers.remove(consumer);
+    }
+
+    boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    // Valid only while the slot is published and not yet passed by the reader
+    Quote get(long sequence) {
+        return quotes[(int) sequence & mask];
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// One reader's cursor on a TickRingBuffer. Used by a single thread, which should cancel it when it stops
+// reading; the feed only reads the cursor and the thread.
+public class TickRingConsumer {
+
+    private final TickRingBuffer ring;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong lastSequence;
+    private volatile boolean cancelled;
+    private volatile Thread reader;
+
+    TickRingConsumer(TickRingBuffer ring, WaitStrategy waitStrategy, long start) {
+        this.ring = ring;
+        this.waitStrategy = waitStrategy;
+        this.lastSequence = new AtomicLong(start);
+        this.cancelled = false;
+    }
+
+    void startAfter(long sequence) {
+        lastSequence.set(sequence);
+    }
+
+    // Returns null once the reader is cancelled
+    public Quote take() throws InterruptedException {
+        if (reader == null) {
+            reader = Thread.currentThread();
+        }
+        long next = lastSequence.get() + 1;
+        while (!cancelled && !ring.isPublished(next)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for tick " + next);
+            }
+            waitStrategy.idle();
+        }
+        if (cancelled) {
+            return null;
+        }
+        Quote quote = ring.get(next);
+        // the slot may be reused as soon as the cursor moves past it
+        lastSequence.lazySet(next);
+        return quote;
+    }
+
+    // The sequence of the last tick taken
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    // The thread that read from it has ended without cancelling it. A reader that never took a tick
+    // cannot be told from one that has not started yet, so it still counts.
+    boolean isAbandoned() {
+        Thread thread = reader;
+        return thread != null && !thread.isAlive();
+    }
+
+    public int getCapacity() {
+        return ring.getCapacity();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ring.remove(this);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.trading.protrading.marketdata;
+
+import java.util.concurrent.locks.LockSupport;
+
+// How a tick ring reader waits for the next tick, and the feed for a slow reader
+public enum WaitStrategy {
+    // lowest latency, keeps a core busy per waiting thread
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    // gives the core to other threads between checks
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    // sleeps briefly between checks, cheapest when ticks are rare
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = 100_000;
+
+    abstract void idle();
+}
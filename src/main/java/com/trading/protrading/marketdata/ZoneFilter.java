@@ -0,0 +1,9 @@
+package com.trading.protrading.marketdata;
+
+// Lets a QuoteCursor skip whole zones. Asked at the start of every zone, so it can depend on
+// state changed by the quotes returned before.
+public interface ZoneFilter {
+
+    boolean mayMatch(QuoteZone zone);
+
+}
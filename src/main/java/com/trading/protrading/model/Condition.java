@@ -25,18 +25,12 @@ public class Condition {
     }
 
     public boolean checkPredicate(double price) {
-        switch (predicate) {
-            case LESS_THAN:
-                return price < assetPrice;
-            case LESS_OR_EQUAL:
-                return price <= assetPrice;
-            case GREATER_THAN:
-                return price > assetPrice;
-            case GREATER_OR_EQUAL:
-                return price >= assetPrice;
-            default:
-                throw new IllegalStateException("Unexpected value: " + predicate);
-        }
+        return predicate.test(price, assetPrice);
+    }
+
+    // Whether the predicate holds for at least one price in [minimum, maximum]
+    public boolean mayHoldWithin(double minimum, double maximum) {
+        return predicate.mayHoldWithin(minimum, maximum, assetPrice);
     }
 
     @Override
@@ -62,4 +56,4 @@ public class Condition {
                 ", predicate=" + predicate +
                 '}';
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.trading.protrading.model.report;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.trading.protrading.strategytesting.RawReport;
+import com.trading.protrading.strategytesting.TradeLog;
 import com.trading.protrading.model.Strategy;
 import lombok.Data;
 
@@ -27,6 +29,11 @@ public class Report {
     private Double maxDrawdown;
     private Double returnToDrawdown;
     private Integer maxConsecutiveLosses;
+    @Lob
+    @JsonIgnore
+    private byte[] trades;
+
+    public Report() {}
 
     public Report(RawReport raw, UUID reportId) {
         publicId = reportId;
@@ -40,8 +47,10 @@ public class Report {
         maxDrawdown = raw.getMaxDrawdown();
         returnToDrawdown = raw.getDrawdownReturn();
         maxConsecutiveLosses = raw.getMaxConsecutiveLossesCount();
+        trades = raw.getTrades() == null ? null : raw.getTrades().toBytes();
     }
 
+    @JsonIgnore
     public Strategy getStrategy() {
         return strategy;
     }
@@ -73,4 +82,9 @@ public class Report {
     public Integer getMaxConsecutiveLosses() {
         return maxConsecutiveLosses;
     }
+
+    @JsonIgnore
+    public TradeLog getTradeLog() {
+        return trades == null ? null : TradeLog.fromBytes(trades);
+    }
 }
\ No newline at end of file
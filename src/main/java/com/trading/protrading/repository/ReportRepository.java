@@ -1,10 +1,18 @@
 package com.trading.protrading.repository;
 
+import com.trading.protrading.model.Strategy;
 import com.trading.protrading.model.report.Report;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
 public interface ReportRepository extends JpaRepository<Report, Long> {
+    Optional<Report> getFirstByPublicId(UUID publicId);
 
+    List<Report> getAllByStrategyOrderByIdDesc(Strategy strategy, Pageable pageable);
 }
@@ -1,9 +1,33 @@
 package com.trading.protrading.service;
 
-import com.trading.protrading.backtesting.BackTester;
+import com.trading.protrading.backtesting.BackTesterPool;
+import com.trading.protrading.backtesting.BacktestCheckpoint;
+import com.trading.protrading.backtesting.BacktestCheckpointStore;
+import com.trading.protrading.backtesting.BacktestJob;
+import com.trading.protrading.backtesting.BacktestJobRegistry;
+import com.trading.protrading.backtesting.BacktestResultCache;
+import com.trading.protrading.backtesting.CachedResult;
+import com.trading.protrading.backtesting.BackTesterStatistics;
+import com.trading.protrading.backtesting.ParameterSweep;
 import com.trading.protrading.backtesting.PastDataStrategyTestingTasksStorage;
+import com.trading.protrading.backtesting.WalkForward;
+import com.trading.protrading.dto.RangeDTO;
+import com.trading.protrading.exceptions.BacktestQueueFullException;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.exceptions.InvalidSweepException;
+import com.trading.protrading.exceptions.JobNotFoundException;
 import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.strategytesting.MonteCarloReport;
+import com.trading.protrading.strategytesting.MonteCarloSimulation;
+import com.trading.protrading.strategytesting.ParameterRange;
+import com.trading.protrading.strategytesting.ResamplingMode;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.SweepResult;
 import com.trading.protrading.strategytesting.TestConfiguration;
+import com.trading.protrading.strategytesting.TradeLog;
+import com.trading.protrading.strategytesting.WalkForwardResult;
+import com.trading.protrading.strategytesting.WalkForwardWindow;
 import com.trading.protrading.data.strategy.ComparisonReport;
 import com.trading.protrading.exceptions.IncompatibleReportTypesException;
 import com.trading.protrading.exceptions.ReportNotFoundException;
@@ -12,40 +36,235 @@ import com.trading.protrading.model.Strategy;
 import com.trading.protrading.model.report.Report;
 import com.trading.protrading.repository.ReportRepository;
 import com.trading.protrading.repository.StrategyRepository;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
 
 @Service
 public class BacktestingService {
+    private static final Logger LOGGER = getLogger(BacktestingService.class);
     private ReportRepository reportRepository;
     private StrategyRepository strategyRepository;
     private PastDataStrategyTestingTasksStorage storage;
+    private BackTesterPool testers;
+    private MarketHistory marketHistory;
+    private BacktestJobRegistry jobs;
+    private BacktestResultCache results;
+    private BacktestCheckpointStore checkpoints;
 
 
+    // A pool size of 0 uses one worker per available core
     public BacktestingService(ReportRepository reportRepository,
-                              StrategyRepository strategyRepository) {
+                              StrategyRepository strategyRepository,
+                              MarketHistory marketHistory,
+                              @Value("${protrading.backtesting.workers:0}") int workers,
+                              @Value("${protrading.cache.directory:backtest-cache}") String cacheDirectory,
+                              @Value("${protrading.cache.memory-bytes:16777216}") long cacheMemoryBytes,
+                              @Value("${protrading.cache.disk-bytes:268435456}") long cacheDiskBytes,
+                              @Value("${protrading.checkpoint.directory:backtest-checkpoints}") String checkpointDirectory,
+                              @Value("${protrading.checkpoint.interval-seconds:30}") long checkpointSeconds) {
         this.reportRepository = reportRepository;
         this.strategyRepository = strategyRepository;
+        this.marketHistory = marketHistory;
         this.storage = new PastDataStrategyTestingTasksStorage();
-        BackTester tester = new BackTester(this.storage, new MarketHistory());
-        tester.start();
+        this.jobs = new BacktestJobRegistry();
+        this.results = new BacktestResultCache(Path.of(cacheDirectory), cacheMemoryBytes, cacheDiskBytes);
+        this.checkpoints = new BacktestCheckpointStore(Path.of(checkpointDirectory), Duration.ofSeconds(checkpointSeconds));
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.testers = new BackTesterPool(poolSize, this.storage, marketHistory, this.checkpoints);
+        resumeBacktests();
+        this.testers.start();
+    }
+
+    // Backtests interrupted by a restart continue from their last checkpoint
+    private void resumeBacktests() {
+        for (BacktestCheckpoint checkpoint : checkpoints.loadAll()) {
+            TestConfiguration configuration = checkpoint.getConfiguration();
+            Strategy strategy;
+            try {
+                strategy = findStrategy(configuration);
+            } catch (StrategyNotFoundException e) {
+                checkpoints.delete(checkpoint.getReportId());
+                continue;
+            }
+            if (!BacktestResultCache.key(strategy, configuration).equals(checkpoint.getStrategyKey())) {
+                // the rules were edited since, the saved state belongs to the old ones
+                checkpoints.delete(checkpoint.getReportId());
+                continue;
+            }
+            StrategyTestTask task = new StrategyTestTask(configuration, strategy, checkpoint.getReportId(), reportRepository);
+            task.resume(checkpoint.getState());
+            BacktestJob job = new BacktestJob(task);
+            try {
+                storage.submit(job);
+            } catch (BacktestQueueFullException e) {
+                LOGGER.error("Backtest " + checkpoint.getReportId() + " was not resumed: " + e.getMessage());
+                continue;
+            }
+            track(job);
+            LOGGER.info("Backtest " + checkpoint.getReportId() + " resumed from " + checkpoint.getState().getPosition());
+        }
     }
 
+    private void track(BacktestJob job) {
+        job.getResult().whenComplete((report, failure) -> checkpoints.delete(job.getReportId()));
+        jobs.register(job);
+    }
+
+    // The period is checked here, a backtest the archive cannot serve is never queued
     public UUID enableStrategy(TestConfiguration testConfiguration)
-            throws StrategyNotFoundException {
-        Strategy strategy;
+            throws StrategyNotFoundException, BacktestQueueFullException, InvalidPeriodException {
+        Strategy strategy = findStrategy(testConfiguration);
+        UUID reportId = UUID.randomUUID();
+        String key = BacktestResultCache.key(strategy, testConfiguration);
+        String fingerprint = getFingerprint(testConfiguration);
+        CachedResult cached = results.get(key, fingerprint);
+        if (cached != null) {
+            Report report = cached.toReport(reportId);
+            report.setStrategy(strategy);
+            reportRepository.save(report);
+            StrategyTestTask task = new StrategyTestTask(testConfiguration, strategy, reportId, reportRepository);
+            jobs.register(BacktestJob.completed(task, report));
+            return reportId;
+        }
+        BacktestJob job = storage.enableStrategy(strategy, testConfiguration, reportId, reportRepository);
+        job.getResult().thenAccept(report -> results.put(key, new CachedResult(report, fingerprint)));
+        track(job);
+        return reportId;
+    }
+
+    private String getFingerprint(TestConfiguration testConfiguration) throws InvalidPeriodException {
+        try {
+            return marketHistory.getFingerprint(testConfiguration.getStart(), testConfiguration.getEnd(),
+                    testConfiguration.getAsset());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPeriodException(e.getMessage());
+        }
+    }
+
+    public BacktestJob getJob(String username, UUID reportId) throws JobNotFoundException {
+        BacktestJob job = jobs.get(reportId);
+        if (job == null || !job.getUsername().equals(username)) {
+            throw new JobNotFoundException("Backtest " + reportId + " was not found.");
+        }
+        return job;
+    }
+
+    public List<BacktestJob> getJobs(String username) {
+        return jobs.getAll(username);
+    }
+
+    // Returns false when the backtest had already ended
+    public boolean cancelJob(String username, UUID reportId) throws JobNotFoundException {
+        return storage.cancel(getJob(username, reportId));
+    }
+
+    // A missing range keeps the rule's own value, a missing rule id needs a strategy with a single rule
+    public List<SweepResult> sweep(TestConfiguration testConfiguration, Long ruleId, RangeDTO stopLoss,
+                                   RangeDTO takeProfit, RangeDTO assetPrice, int limit)
+            throws StrategyNotFoundException, InvalidSweepException, InvalidPeriodException {
+        Strategy strategy = findStrategy(testConfiguration);
+        Rule rule = findRule(strategy, ruleId);
+        ParameterSweep sweep;
+        try {
+            sweep = new ParameterSweep(marketHistory, strategy, rule, testConfiguration,
+                    toRange(stopLoss, rule.getStopLoss()),
+                    toRange(takeProfit, rule.getTakeProfit()),
+                    toRange(assetPrice, rule.getCondition().getAssetPrice()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSweepException(e.getMessage());
+        }
+        return sweep.run(limit);
+    }
+
+    public WalkForwardResult walkForward(TestConfiguration testConfiguration, Long ruleId, RangeDTO stopLoss,
+                                         RangeDTO takeProfit, RangeDTO assetPrice, int trainDays, int testDays)
+            throws StrategyNotFoundException, InvalidSweepException, InvalidPeriodException {
+        Strategy strategy = findStrategy(testConfiguration);
+        Rule rule = findRule(strategy, ruleId);
+        WalkForward walkForward;
         try {
-            strategy = strategyRepository.getAllByNameAndUser_UserName(testConfiguration.getStrategyName(),
-                    testConfiguration.getUsername()).get(0);
+            walkForward = new WalkForward(marketHistory, strategy, rule, testConfiguration,
+                    toRange(stopLoss, rule.getStopLoss()),
+                    toRange(takeProfit, rule.getTakeProfit()),
+                    toRange(assetPrice, rule.getCondition().getAssetPrice()),
+                    trainDays, testDays);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSweepException(e.getMessage());
+        }
+        List<WalkForwardWindow> windows = walkForward.run();
+        Report report = new Report(WalkForward.stitch(windows, testConfiguration.getFunds()), UUID.randomUUID());
+        report.setStrategy(strategy);
+        reportRepository.save(report);
+        return new WalkForwardResult(report, windows);
+    }
+
+    public MonteCarloReport monteCarlo(String username, UUID reportId, ResamplingMode mode, int simulations, long seed)
+            throws ReportNotFoundException {
+        Report report = getReport(username, reportId);
+        TradeLog trades = report.getTradeLog();
+        if (trades == null) {
+            throw new ReportNotFoundException("Report " + reportId + " has no recorded trades.");
+        }
+        // the report keeps the final funds only, the starting funds are what the trades did not add
+        double funds = report.getTotalReturn();
+        for (int i = 0; i < trades.size(); i++) {
+            funds -= trades.getOutcome(i) - trades.getBuyFunds(i);
+        }
+        return new MonteCarloSimulation(trades, funds, mode, simulations, seed).run(ForkJoinPool.commonPool());
+    }
+
+    private Strategy findStrategy(TestConfiguration testConfiguration) throws StrategyNotFoundException {
+        return findStrategy(testConfiguration.getUsername(), testConfiguration.getStrategyName());
+    }
+
+    private Strategy findStrategy(String username, String strategyName) throws StrategyNotFoundException {
+        try {
+            return strategyRepository.getAllByNameAndUser_UserName(strategyName, username).get(0);
         } catch (IndexOutOfBoundsException e) {
-            throw new StrategyNotFoundException("Strategy with name " + testConfiguration.getStrategyName() + " was not found.", e);
+            throw new StrategyNotFoundException("Strategy with name " + strategyName + " was not found.", e);
         }
-        UUID reportId = UUID.randomUUID();
-        storage.enableStrategy(strategy, testConfiguration, reportId, reportRepository);
-        return reportId;
+    }
+
+    private Rule findRule(Strategy strategy, Long ruleId) throws InvalidSweepException {
+        if (ruleId == null) {
+            if (strategy.getRules().size() != 1) {
+                throw new InvalidSweepException("Strategy " + strategy.getName() + " does not have a single rule, a rule id is required.");
+            }
+            return strategy.getRules().iterator().next();
+        }
+        for (Rule rule : strategy.getRules()) {
+            if (ruleId.equals(rule.getId())) {
+                return rule;
+            }
+        }
+        throw new InvalidSweepException("Rule " + ruleId + " is not part of strategy " + strategy.getName() + ".");
+    }
+
+    private static ParameterRange toRange(RangeDTO range, double value) {
+        return range == null ? ParameterRange.of(value) : new ParameterRange(range.getFrom(), range.getTo(), range.getStep());
+    }
+
+    public List<BackTesterStatistics> getWorkerStatistics() {
+        return testers.getStatistics();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        testers.shutdown();
     }
 
    // public ComparisonReport compareStrategies(String username, String firstStrategy, String secondStrategy)
@@ -53,18 +272,36 @@ public class BacktestingService {
    //     return null;
    // }
 
+    // The latest reports of the strategy first
     public Collection<Report> getReports(String username, String strategy, int countOfReports)
             throws StrategyNotFoundException {
-        return null;
+        Strategy found = findStrategy(username, strategy);
+        if (countOfReports <= 0) {
+            return new ArrayList<>();
+        }
+        return reportRepository.getAllByStrategyOrderByIdDesc(found, PageRequest.of(0, countOfReports));
     }
 
-    public Report getReport(UUID reportId) throws ReportNotFoundException {
-        return null;
+    // Someone else's report is not found either, as with jobs
+    public Report getReport(String username, UUID reportId) throws ReportNotFoundException {
+        Report report = reportRepository.getFirstByPublicId(reportId)
+                .orElseThrow(() -> new ReportNotFoundException("Report " + reportId + " was not found."));
+        Strategy strategy = report.getStrategy();
+        if (strategy == null || strategy.getUser() == null || !strategy.getUser().getUserName().equals(username)) {
+            throw new ReportNotFoundException("Report " + reportId + " was not found.");
+        }
+        return report;
     }
 
-    public ComparisonReport compareReports(UUID firstReportId, UUID secondReportId)
+    public ComparisonReport compareReports(String username, UUID firstReportId, UUID secondReportId)
             throws IncompatibleReportTypesException, ReportNotFoundException {
-        return null;
+        Report first = getReport(username, firstReportId);
+        Report second = getReport(username, secondReportId);
+        if (first.getClass() != second.getClass()) {
+            throw new IncompatibleReportTypesException("Reports " + firstReportId + " and " + secondReportId
+                    + " are of different types.");
+        }
+        return new ComparisonReport(first, second);
     }
 
 }
\ No newline at end of file
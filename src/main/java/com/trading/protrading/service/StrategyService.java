@@ -2,13 +2,16 @@ package com.trading.protrading.service;
 
 
 import com.trading.protrading.data.strategy.Predicate;
-import com.trading.protrading.demotesting.DemoTester;
+import com.trading.protrading.demotesting.DemoTesterPool;
+import com.trading.protrading.demotesting.LiveExecutionMode;
 import com.trading.protrading.demotesting.RealTimeStrategyTestingTasksStorage;
+import com.trading.protrading.demotesting.StrategyActorPool;
 import com.trading.protrading.dto.ConditionDTO;
 import com.trading.protrading.dto.RuleDTO;
 import com.trading.protrading.dto.StrategyDTO;
 import com.trading.protrading.exceptions.StrategyAlreadyRunningException;
 import com.trading.protrading.marketdata.Market;
+import com.trading.protrading.marketdata.OverflowPolicy;
 import com.trading.protrading.model.Account;
 import com.trading.protrading.model.Condition;
 import com.trading.protrading.repository.*;
@@ -16,8 +19,11 @@ import com.trading.protrading.strategytesting.TestConfiguration;
 import com.trading.protrading.exceptions.StrategyNotFoundException;
 import com.trading.protrading.model.Rule;
 import com.trading.protrading.model.Strategy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -35,16 +41,31 @@ public class StrategyService {
 
 
     private RealTimeStrategyTestingTasksStorage storage;
-
-    public StrategyService(AccountRepository accountRepository, StrategyRepository strategyRepository, ReportRepository reportRepository, ConditionRepository conditionRepository, RuleRepository ruleRepository) {
+    private DemoTesterPool testers;
+    private StrategyActorPool actors;
+
+    public StrategyService(AccountRepository accountRepository, StrategyRepository strategyRepository, ReportRepository reportRepository, ConditionRepository conditionRepository, RuleRepository ruleRepository, Market market,
+                           @Value("${protrading.live.mode:SHARDED}") LiveExecutionMode mode,
+                           @Value("${protrading.live.shards:0}") int shards,
+                           @Value("${protrading.live.mailbox-capacity:64}") int mailboxCapacity,
+                           @Value("${protrading.live.mailbox-policy:DROP_OLDEST}") OverflowPolicy mailboxPolicy,
+                           @Value("${protrading.live.carriers:0}") int carriers) {
         this.accountRepository = accountRepository;
         this.strategyRepository = strategyRepository;
         this.reportRepository = reportRepository;
         this.conditionRepository = conditionRepository;
         this.ruleRepository = ruleRepository;
-        this.storage = new RealTimeStrategyTestingTasksStorage();
-        DemoTester tester = new DemoTester(new Market(), this.storage);
-        tester.start();
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (mode == LiveExecutionMode.ACTORS) {
+            this.storage = new RealTimeStrategyTestingTasksStorage(1);
+            this.actors = new StrategyActorPool(market, this.storage, mailboxCapacity, mailboxPolicy,
+                    carriers > 0 ? carriers : cores);
+            this.actors.start();
+        } else {
+            this.storage = new RealTimeStrategyTestingTasksStorage(shards > 0 ? shards : cores);
+            this.testers = new DemoTesterPool(market, this.storage);
+            this.testers.start();
+        }
     }
 
     public void create(StrategyDTO strategy, String username) {
@@ -146,7 +167,7 @@ public class StrategyService {
     }
 
     public UUID enableStrategy(TestConfiguration testConfiguration)
-            throws StrategyNotFoundException {
+            throws StrategyNotFoundException, StrategyAlreadyRunningException {
         Strategy strategy;
         try {
             strategy = strategyRepository.getAllByNameAndUser_UserName(testConfiguration.getStrategyName(),
@@ -164,6 +185,16 @@ public class StrategyService {
     }
 
 
+    @PreDestroy
+    public void shutdown() {
+        if (testers != null) {
+            testers.shutdown();
+        }
+        if (actors != null) {
+            actors.shutdown();
+        }
+    }
+
     private Rule mapFromDto(RuleDTO ruleDTO) {
         Rule r = new Rule();
         r.setStopLoss(ruleDTO.getStopLoss());
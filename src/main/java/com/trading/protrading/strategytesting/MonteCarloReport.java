@@ -0,0 +1,44 @@
+package com.trading.protrading.strategytesting;
+
+public class MonteCarloReport {
+    private final ResamplingMode mode;
+    private final int simulations;
+    private final int trades;
+    private final PercentileBand totalReturn;
+    private final PercentileBand maxDrawdown;
+    private final PercentileBand maxConsecutiveLosses;
+
+    public MonteCarloReport(ResamplingMode mode, int simulations, int trades, PercentileBand totalReturn,
+                            PercentileBand maxDrawdown, PercentileBand maxConsecutiveLosses) {
+        this.mode = mode;
+        this.simulations = simulations;
+        this.trades = trades;
+        this.totalReturn = totalReturn;
+        this.maxDrawdown = maxDrawdown;
+        this.maxConsecutiveLosses = maxConsecutiveLosses;
+    }
+
+    public ResamplingMode getMode() {
+        return mode;
+    }
+
+    public int getSimulations() {
+        return simulations;
+    }
+
+    public int getTrades() {
+        return trades;
+    }
+
+    public PercentileBand getTotalReturn() {
+        return totalReturn;
+    }
+
+    public PercentileBand getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public PercentileBand getMaxConsecutiveLosses() {
+        return maxConsecutiveLosses;
+    }
+}
@@ -0,0 +1,116 @@
+package com.trading.protrading.strategytesting;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*  Replays the closed trades of a report in many random orders (or draws of them) and collects the
+    return, max drawdown and longest losing streak of every path, computed as RawReport does. The
+    simulations are split over a fork-join pool; a leaf allocates its order array once and writes
+    its results straight into the shared arrays at its own indexes. */
+public class MonteCarloSimulation {
+
+    public static final int MAXIMUM_SIMULATIONS = 1_000_000;
+    private static final int LEAF_SIMULATIONS = 512;
+    private final double[] grossOutcomes;
+    private final double funds;
+    private final ResamplingMode mode;
+    private final int simulations;
+    private final long seed;
+    private final double[] returns;
+    private final double[] drawdowns;
+    private final double[] losingStreaks;
+
+    public MonteCarloSimulation(TradeLog trades, double funds, ResamplingMode mode, int simulations, long seed) {
+        if (simulations <= 0 || simulations > MAXIMUM_SIMULATIONS) {
+            throw new IllegalArgumentException("Parameter simulations must be between 1 and " + MAXIMUM_SIMULATIONS);
+        }
+        this.grossOutcomes = new double[trades.size()];
+        for (int i = 0; i < trades.size(); i++) {
+            grossOutcomes[i] = trades.getOutcome(i) - trades.getBuyFunds(i);
+        }
+        this.funds = funds;
+        this.mode = mode;
+        this.simulations = simulations;
+        this.seed = seed;
+        this.returns = new double[simulations];
+        this.drawdowns = new double[simulations];
+        this.losingStreaks = new double[simulations];
+    }
+
+    public MonteCarloReport run(ForkJoinPool pool) {
+        pool.invoke(new Simulations(0, simulations));
+        Arrays.parallelSort(returns);
+        Arrays.parallelSort(drawdowns);
+        Arrays.parallelSort(losingStreaks);
+        return new MonteCarloReport(mode, simulations, grossOutcomes.length, new PercentileBand(returns),
+                new PercentileBand(drawdowns), new PercentileBand(losingStreaks));
+    }
+
+    private void simulate(int simulation, int[] order, SplittableRandom random) {
+        int count = order.length;
+        if (mode == ResamplingMode.PERMUTE) {
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swapped = order[i];
+                order[i] = order[j];
+                order[j] = swapped;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                order[i] = random.nextInt(count);
+            }
+        }
+        double currentFunds = funds;
+        double maxFunds = funds;
+        double maxDrawdown = 0;
+        int losses = 0;
+        int maxLosses = 0;
+        for (int i = 0; i < count; i++) {
+            double gross = grossOutcomes[order[i]];
+            currentFunds += gross;
+            maxFunds = Math.max(maxFunds, currentFunds);
+            maxDrawdown = Math.max(1 - (currentFunds / maxFunds), maxDrawdown);
+            if (gross >= 0) {
+                losses = 0;
+            } else {
+                losses++;
+                maxLosses = Math.max(maxLosses, losses);
+            }
+        }
+        returns[simulation] = currentFunds;
+        drawdowns[simulation] = maxDrawdown;
+        losingStreaks[simulation] = maxLosses;
+    }
+
+    private class Simulations extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        Simulations(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIMULATIONS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Simulations(from, middle), new Simulations(middle, to));
+                return;
+            }
+            // seeded by position, so the same seed gives the same bands whichever thread runs a leaf
+            SplittableRandom random = new SplittableRandom(seed + from);
+            int[] order = new int[grossOutcomes.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int simulation = from; simulation < to; simulation++) {
+                simulate(simulation, order, random);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.trading.protrading.strategytesting;
+
+// Values from, from + step, ... up to and including to
+public class ParameterRange {
+
+    private static final double TOLERANCE = 1e-9;
+    private final double from;
+    private final double to;
+    private final double step;
+
+    public ParameterRange(double from, double to, double step) {
+        if (to < from) {
+            throw new IllegalArgumentException("Parameter to cannot be less than from");
+        }
+        if (step <= 0 && to > from) {
+            throw new IllegalArgumentException("Parameter step must be positive");
+        }
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    public static ParameterRange of(double value) {
+        return new ParameterRange(value, value, 0);
+    }
+
+    public int size() {
+        return to == from ? 1 : (int) Math.floor((to - from) / step + TOLERANCE) + 1;
+    }
+
+    public double get(int index) {
+        return from + index * step;
+    }
+
+}
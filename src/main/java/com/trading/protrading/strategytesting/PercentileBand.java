@@ -0,0 +1,43 @@
+package com.trading.protrading.strategytesting;
+
+// Nearest-rank percentiles of a sorted sample
+public class PercentileBand {
+    private final double p5;
+    private final double p25;
+    private final double p50;
+    private final double p75;
+    private final double p95;
+
+    public PercentileBand(double[] sorted) {
+        this.p5 = percentile(sorted, 5);
+        this.p25 = percentile(sorted, 25);
+        this.p50 = percentile(sorted, 50);
+        this.p75 = percentile(sorted, 75);
+        this.p95 = percentile(sorted, 95);
+    }
+
+    static double percentile(double[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public double getP5() {
+        return p5;
+    }
+
+    public double getP25() {
+        return p25;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP75() {
+        return p75;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+}
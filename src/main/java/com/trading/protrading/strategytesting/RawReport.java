@@ -19,8 +19,14 @@ public class RawReport {
     private int lossesCount;
     private int maxConsecutiveLossesCount;
     private int currentConsecutiveLossesCount;
+    private final TradeLog trades;
 
     public RawReport(double funds) {
+        this(funds, null);
+    }
+
+    // With a trade log every closed position is kept, so the report can be replayed or resampled
+    public RawReport(double funds, TradeLog trades) {
         this.maxFunds = funds;
         this.currentFunds = funds;
         this.lockedFunds = 0;
@@ -32,6 +38,24 @@ public class RawReport {
         this.lossesCount = 0;
         this.maxConsecutiveLossesCount = 0;
         this.currentConsecutiveLossesCount = 0;
+        this.trades = trades;
+    }
+
+    void restore(TaskCheckpoint checkpoint) {
+        maxFunds = checkpoint.getMaxFunds();
+        currentFunds = checkpoint.getCurrentFunds();
+        lockedFunds = checkpoint.getReportLockedFunds();
+        grossProfit = checkpoint.getGrossProfit();
+        grossLosses = checkpoint.getGrossLosses();
+        maxDrawdown = checkpoint.getMaxDrawdown();
+        drawdownReturn = checkpoint.getDrawdownReturn();
+        winCount = checkpoint.getWinCount();
+        lossesCount = checkpoint.getLossesCount();
+        maxConsecutiveLossesCount = checkpoint.getMaxConsecutiveLossesCount();
+        currentConsecutiveLossesCount = checkpoint.getCurrentConsecutiveLossesCount();
+        if (trades != null) {
+            trades.addAll(TradeLog.fromBytes(checkpoint.getTrades()));
+        }
     }
 
     public void openPosition(double funds) {
@@ -40,6 +64,9 @@ public class RawReport {
     }
 
     public void closePosition(double outcome) {
+        if (trades != null) {
+            trades.add(lockedFunds, outcome);
+        }
         updateFunds(outcome);
         updateGrossOutcomes(outcome);
         updateDrawdown();
@@ -122,4 +149,8 @@ public class RawReport {
         return maxConsecutiveLossesCount;
     }
 
+    public TradeLog getTrades() {
+        return trades;
+    }
+
 }
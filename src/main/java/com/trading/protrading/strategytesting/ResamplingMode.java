@@ -0,0 +1,8 @@
+package com.trading.protrading.strategytesting;
+
+public enum ResamplingMode {
+    // the same trades in a random order
+    PERMUTE,
+    // as many trades drawn with replacement
+    BOOTSTRAP
+}
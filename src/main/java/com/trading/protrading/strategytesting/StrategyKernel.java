@@ -0,0 +1,175 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+/*  StrategyTestTask over columns of quotes instead of Quote objects: epoch millis, prices and type codes
+    (the ordinals of QuoteType). The rules are flattened into arrays in the order Strategy.execute visits
+    them and the loop does what Rule.execute and StrategyTestTask do with the same arithmetic, so the
+    RawReport is the one the task would produce. Nothing is allocated per quote. */
+public class StrategyKernel {
+    private static final byte BUY = (byte) QuoteType.BUY.ordinal();
+    private static final byte SELL = (byte) QuoteType.SELL.ordinal();
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private final Predicate[] predicates;
+    private final double[] assetPrices;
+    private final double[] stopLosses;
+    private final double lowestTakeProfit;
+    private final double lowestStopLoss;
+    private final long endMillis;
+    private final double transactionBuyFunds;
+    private final RawReport rawReport;
+    private final Trade trade;
+    private double funds;
+    private double lockedFunds;
+    private double lastOpenPrice;
+    private double openingPrice;
+    private boolean open;
+    private boolean finished;
+
+    public StrategyKernel(Strategy strategy, TestConfiguration configuration, TradeLog trades) {
+        this(strategy.getRules(), null, 0, 0, 0, configuration, trades);
+    }
+
+    // With the stop loss, take profit and condition price of one rule replaced, see StrategyVariant
+    StrategyKernel(Set<Rule> rules, Rule sweptRule, double stopLoss, double takeProfit, double assetPrice,
+                   TestConfiguration configuration, TradeLog trades) {
+        this.predicates = new Predicate[rules.size()];
+        this.assetPrices = new double[rules.size()];
+        this.stopLosses = new double[rules.size()];
+        // any rule reaching its take profit or stop loss closes the trade, so the lowest ones decide
+        double lowestTakeProfit = Double.POSITIVE_INFINITY;
+        double lowestStopLoss = Double.POSITIVE_INFINITY;
+        int index = 0;
+        for (Rule rule : rules) {
+            boolean swept = rule == sweptRule;
+            predicates[index] = rule.getCondition().getPredicate();
+            assetPrices[index] = swept ? assetPrice : rule.getCondition().getAssetPrice();
+            stopLosses[index] = swept ? stopLoss : rule.getStopLoss();
+            lowestTakeProfit = Math.min(lowestTakeProfit, swept ? takeProfit : rule.getTakeProfit());
+            lowestStopLoss = Math.min(lowestStopLoss, stopLosses[index]);
+            index++;
+        }
+        this.lowestTakeProfit = lowestTakeProfit;
+        this.lowestStopLoss = lowestStopLoss;
+        // a quote in whole milliseconds is before the end exactly when it is before the end rounded up
+        this.endMillis = ceilToMillis(configuration.getEnd());
+        this.transactionBuyFunds = configuration.getTransactionBuyFunds();
+        this.rawReport = new RawReport(configuration.getFunds(), trades);
+        this.trade = new Trade();
+        this.funds = configuration.getFunds();
+        this.lockedFunds = 0;
+        this.open = false;
+        this.finished = false;
+    }
+
+    private static long ceilToMillis(LocalDateTime date) {
+        long millis = date.toInstant(ZoneOffset.UTC).toEpochMilli();
+        return date.getNano() % NANOS_PER_MILLI == 0 ? millis : millis + 1;
+    }
+
+    // Runs the first count quotes, returns false once a quote at or after the end finished the test
+    public boolean execute(long[] timestamps, double[] prices, byte[] types, int count) {
+        if (finished) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (timestamps[i] >= endMillis) {
+                finish();
+                return false;
+            }
+            execute(types[i], prices[i]);
+        }
+        return true;
+    }
+
+    // A quote the caller knows to be before the end of the period
+    public void execute(byte type, double price) {
+        if (open) {
+            if (type == SELL) {
+                double profit = price - openingPrice;
+                if (profit > lowestTakeProfit || profit < -lowestStopLoss) {
+                    closeTrade(price);
+                }
+            }
+        } else if (type == BUY) {
+            // the first rule that opens a trade wins, the rest see it open
+            for (int rule = 0; rule < predicates.length && !open; rule++) {
+                if (predicates[rule].test(price, assetPrices[rule])) {
+                    openTrade(price, stopLosses[rule]);
+                }
+            }
+        }
+    }
+
+    // The end of the period, closes an open trade at the price it was opened at
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        if (open) {
+            closeTrade(lastOpenPrice);
+        }
+        finished = true;
+    }
+
+    private void openTrade(double price, double stopLossForOneAsset) {
+        double stopLoss = stopLossForOneAsset * (transactionBuyFunds / price);
+        if (funds < stopLoss) {
+            return;
+        }
+        double buyFunds = Math.min(transactionBuyFunds, funds - stopLoss);
+        funds -= buyFunds + stopLoss;
+        lockedFunds = stopLoss;
+        trade.open(price, buyFunds);
+        rawReport.openPosition(buyFunds);
+        lastOpenPrice = price;
+        // no funds left to buy with opens nothing, as in Trade
+        open = trade.isOpen();
+        openingPrice = open ? trade.getOpeningPrice() : 0;
+    }
+
+    private void closeTrade(double price) {
+        double outcome = trade.close(price);
+        funds += outcome + lockedFunds;
+        lockedFunds = 0;
+        rawReport.closePosition(outcome);
+        open = false;
+    }
+
+    // Whether a zone with these price ranges can change anything, see Rule.execute
+    public boolean mayAct(int buyCount, double minimumBuyPrice, double maximumBuyPrice,
+                          int sellCount, double minimumSellPrice, double maximumSellPrice) {
+        if (open) {
+            return sellCount > 0 && (maximumSellPrice - openingPrice > lowestTakeProfit
+                    || minimumSellPrice - openingPrice < -lowestStopLoss);
+        }
+        if (buyCount == 0) {
+            return false;
+        }
+        for (int rule = 0; rule < predicates.length; rule++) {
+            if (predicates[rule].mayHoldWithin(minimumBuyPrice, maximumBuyPrice, assetPrices[rule])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public RawReport getRawReport() {
+        return rawReport;
+    }
+
+    public double getFunds() {
+        return funds;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
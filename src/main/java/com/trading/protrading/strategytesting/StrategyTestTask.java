@@ -22,16 +22,27 @@ public class StrategyTestTask {
     private ReportRepository repository;
     private boolean finished;
     private Quote lastOpenQuote;
+    private Report finalReport;
+    private LocalDateTime resumePoint;
 
     public StrategyTestTask(TestConfiguration configuration,
                             Strategy strategy,
                             UUID reportId,
                             ReportRepository repository) {
+        this(configuration, strategy, reportId, repository, true);
+    }
+
+    // A live task runs without an end, so it keeps no trade log that would grow for as long as it does
+    public StrategyTestTask(TestConfiguration configuration,
+                            Strategy strategy,
+                            UUID reportId,
+                            ReportRepository repository,
+                            boolean keepTrades) {
         this.identifier = new TestIdentifier(configuration.getUsername(), configuration.getStrategyName());
         this.strategy = strategy;
         this.configuration = configuration;
         this.funds = configuration.getFunds();
-        this.rawReport = new RawReport(configuration.getFunds());
+        this.rawReport = new RawReport(configuration.getFunds(), keepTrades ? new TradeLog() : null);
         this.reportId = reportId;
         this.trade = new Trade();
         this.lockedFunds = 0;
@@ -64,6 +75,15 @@ public class StrategyTestTask {
         return configuration.getEnd();
     }
 
+    // Where quotes start for this task, just past its checkpoint when it was resumed
+    public LocalDateTime getResumePoint() {
+        return resumePoint == null ? configuration.getStart() : resumePoint;
+    }
+
+    public TestConfiguration getConfiguration() {
+        return configuration;
+    }
+
     public double getFunds() {
         return funds;
     }
@@ -96,6 +116,27 @@ public class StrategyTestTask {
         return finished;
     }
 
+    // The saved report, null until the task is finished
+    public Report getFinalReport() {
+        return finalReport;
+    }
+
+    // Only valid between quotes, once every quote up to and including position was executed
+    public TaskCheckpoint checkpoint(LocalDateTime position) {
+        return new TaskCheckpoint(this, lastOpenQuote, position);
+    }
+
+    // Restores a task that has not run yet
+    public void resume(TaskCheckpoint checkpoint) {
+        funds = checkpoint.getFunds();
+        lockedFunds = checkpoint.getLockedFunds();
+        trade.restore(checkpoint.getTradeFundsSpend(), checkpoint.getTradeAssetAmount());
+        lastOpenQuote = checkpoint.getLastOpenQuote(this);
+        rawReport.restore(checkpoint);
+        // the archive stores whole milliseconds, so this is past every quote at position
+        resumePoint = checkpoint.getPosition().plusNanos(1);
+    }
+
     public void execute(Quote quote) {
         if (quote.getDate().isBefore(configuration.getEnd())) {
             strategy.execute(quote, this);
@@ -113,7 +154,7 @@ public class StrategyTestTask {
     }
 
     private void saveReport() {
-        Report finalReport = new Report(rawReport, reportId);
+        finalReport = new Report(rawReport, reportId);
         finalReport.setStrategy(this.strategy);
         repository.save(finalReport);
     }
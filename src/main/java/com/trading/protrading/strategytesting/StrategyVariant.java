@@ -0,0 +1,69 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+
+/*  A strategy with one rule's stop loss, take profit and condition price replaced, run by a
+    StrategyKernel. Its RawReport is the one a StrategyTestTask of the same strategy would produce,
+    without the entities. */
+public class StrategyVariant {
+    private final StrategyKernel kernel;
+    private final double stopLoss;
+    private final double takeProfit;
+    private final double assetPrice;
+
+    public StrategyVariant(Strategy strategy, Rule sweptRule, double stopLoss, double takeProfit, double assetPrice,
+                           TestConfiguration configuration) {
+        this(strategy, sweptRule, stopLoss, takeProfit, assetPrice, configuration, null);
+    }
+
+    public StrategyVariant(Strategy strategy, Rule sweptRule, double stopLoss, double takeProfit, double assetPrice,
+                           TestConfiguration configuration, TradeLog trades) {
+        this.kernel = new StrategyKernel(strategy.getRules(), sweptRule, stopLoss, takeProfit, assetPrice,
+                configuration, trades);
+        this.stopLoss = stopLoss;
+        this.takeProfit = takeProfit;
+        this.assetPrice = assetPrice;
+    }
+
+    // A quote before the end of the period
+    public void execute(QuoteType type, double price) {
+        kernel.execute((byte) type.ordinal(), price);
+    }
+
+    // Quotes as columns, returns false once a quote at or after the end finished the variant
+    public boolean execute(long[] timestamps, double[] prices, byte[] types, int count) {
+        return kernel.execute(timestamps, prices, types, count);
+    }
+
+    public void finish() {
+        kernel.finish();
+    }
+
+    // Whether a zone with these price ranges can change anything, see Rule.execute
+    public boolean mayAct(int buyCount, double minimumBuyPrice, double maximumBuyPrice,
+                          int sellCount, double minimumSellPrice, double maximumSellPrice) {
+        return kernel.mayAct(buyCount, minimumBuyPrice, maximumBuyPrice, sellCount, minimumSellPrice, maximumSellPrice);
+    }
+
+    public double getStopLoss() {
+        return stopLoss;
+    }
+
+    public double getTakeProfit() {
+        return takeProfit;
+    }
+
+    public double getAssetPrice() {
+        return assetPrice;
+    }
+
+    public RawReport getRawReport() {
+        return kernel.getRawReport();
+    }
+
+    public boolean isFinished() {
+        return kernel.isFinished();
+    }
+}
@@ -0,0 +1,63 @@
+package com.trading.protrading.strategytesting;
+
+// One row of a parameter sweep, with the metrics computed as in Report
+public class SweepResult {
+    private final double stopLoss;
+    private final double takeProfit;
+    private final double assetPrice;
+    private final double totalReturn;
+    private final double winLossRatio;
+    private final double profitFactor;
+    private final double maxDrawdown;
+    private final double returnToDrawdown;
+    private final int maxConsecutiveLosses;
+
+    public SweepResult(StrategyVariant variant) {
+        RawReport raw = variant.getRawReport();
+        this.stopLoss = variant.getStopLoss();
+        this.takeProfit = variant.getTakeProfit();
+        this.assetPrice = variant.getAssetPrice();
+        this.totalReturn = raw.getCurrentFunds();
+        this.winLossRatio = raw.getLossesCount() == 0 ? (double) raw.getWinCount() : (double) raw.getWinCount() / raw.getLossesCount();
+        this.profitFactor = raw.getGrossLosses() == 0 ? raw.getGrossProfit() : raw.getGrossProfit() / raw.getGrossLosses();
+        this.maxDrawdown = raw.getMaxDrawdown();
+        this.returnToDrawdown = raw.getDrawdownReturn();
+        this.maxConsecutiveLosses = raw.getMaxConsecutiveLossesCount();
+    }
+
+    public double getStopLoss() {
+        return stopLoss;
+    }
+
+    public double getTakeProfit() {
+        return takeProfit;
+    }
+
+    public double getAssetPrice() {
+        return assetPrice;
+    }
+
+    public double getTotalReturn() {
+        return totalReturn;
+    }
+
+    public double getWinLossRatio() {
+        return winLossRatio;
+    }
+
+    public double getProfitFactor() {
+        return profitFactor;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public double getReturnToDrawdown() {
+        return returnToDrawdown;
+    }
+
+    public int getMaxConsecutiveLosses() {
+        return maxConsecutiveLosses;
+    }
+}
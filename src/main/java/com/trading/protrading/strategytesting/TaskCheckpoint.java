@@ -0,0 +1,187 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/*  The state of a running task once every quote up to and including position was handed to it:
+    funds, the open trade and the report so far. A task resumed from it continues with the first
+    quote after position and ends up exactly where the uninterrupted run would. */
+public class TaskCheckpoint {
+
+    private final LocalDateTime position;
+    private final double funds;
+    private final double lockedFunds;
+    private final double tradeFundsSpend;
+    private final double tradeAssetAmount;
+    private final double lastOpenPrice;
+    private final QuoteType lastOpenType;
+    private final LocalDateTime lastOpenDate;
+    private final double maxFunds;
+    private final double currentFunds;
+    private final double reportLockedFunds;
+    private final double grossProfit;
+    private final double grossLosses;
+    private final double maxDrawdown;
+    private final double drawdownReturn;
+    private final int winCount;
+    private final int lossesCount;
+    private final int maxConsecutiveLossesCount;
+    private final int currentConsecutiveLossesCount;
+    private final byte[] trades;
+
+    TaskCheckpoint(StrategyTestTask task, Quote lastOpenQuote, LocalDateTime position) {
+        RawReport report = task.getRawReport();
+        this.position = position;
+        this.funds = task.getFunds();
+        this.lockedFunds = task.getLockedFunds();
+        this.tradeFundsSpend = task.getTrade().getFundsSpend();
+        this.tradeAssetAmount = task.getTrade().getAssetAmount();
+        this.lastOpenPrice = lastOpenQuote == null ? 0 : lastOpenQuote.getPrice();
+        this.lastOpenType = lastOpenQuote == null ? null : lastOpenQuote.getType();
+        this.lastOpenDate = lastOpenQuote == null ? null : lastOpenQuote.getDate();
+        this.maxFunds = report.getMaxFunds();
+        this.currentFunds = report.getCurrentFunds();
+        this.reportLockedFunds = report.getLockedFunds();
+        this.grossProfit = report.getGrossProfit();
+        this.grossLosses = report.getGrossLosses();
+        this.maxDrawdown = report.getMaxDrawdown();
+        this.drawdownReturn = report.getDrawdownReturn();
+        this.winCount = report.getWinCount();
+        this.lossesCount = report.getLossesCount();
+        this.maxConsecutiveLossesCount = report.getMaxConsecutiveLossesCount();
+        this.currentConsecutiveLossesCount = report.getCurrentConsecutiveLossesCount();
+        this.trades = report.getTrades() == null ? new byte[0] : report.getTrades().toBytes();
+    }
+
+    private TaskCheckpoint(DataInputStream input) throws IOException {
+        this.position = LocalDateTime.parse(input.readUTF());
+        this.funds = input.readDouble();
+        this.lockedFunds = input.readDouble();
+        this.tradeFundsSpend = input.readDouble();
+        this.tradeAssetAmount = input.readDouble();
+        this.lastOpenPrice = input.readDouble();
+        String type = input.readUTF();
+        this.lastOpenType = type.isEmpty() ? null : QuoteType.valueOf(type);
+        String date = input.readUTF();
+        this.lastOpenDate = date.isEmpty() ? null : LocalDateTime.parse(date);
+        this.maxFunds = input.readDouble();
+        this.currentFunds = input.readDouble();
+        this.reportLockedFunds = input.readDouble();
+        this.grossProfit = input.readDouble();
+        this.grossLosses = input.readDouble();
+        this.maxDrawdown = input.readDouble();
+        this.drawdownReturn = input.readDouble();
+        this.winCount = input.readInt();
+        this.lossesCount = input.readInt();
+        this.maxConsecutiveLossesCount = input.readInt();
+        this.currentConsecutiveLossesCount = input.readInt();
+        this.trades = new byte[input.readInt()];
+        input.readFully(trades);
+    }
+
+    public static TaskCheckpoint read(DataInputStream input) throws IOException {
+        return new TaskCheckpoint(input);
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        output.writeUTF(position.toString());
+        output.writeDouble(funds);
+        output.writeDouble(lockedFunds);
+        output.writeDouble(tradeFundsSpend);
+        output.writeDouble(tradeAssetAmount);
+        output.writeDouble(lastOpenPrice);
+        output.writeUTF(lastOpenType == null ? "" : lastOpenType.name());
+        output.writeUTF(lastOpenDate == null ? "" : lastOpenDate.toString());
+        output.writeDouble(maxFunds);
+        output.writeDouble(currentFunds);
+        output.writeDouble(reportLockedFunds);
+        output.writeDouble(grossProfit);
+        output.writeDouble(grossLosses);
+        output.writeDouble(maxDrawdown);
+        output.writeDouble(drawdownReturn);
+        output.writeInt(winCount);
+        output.writeInt(lossesCount);
+        output.writeInt(maxConsecutiveLossesCount);
+        output.writeInt(currentConsecutiveLossesCount);
+        output.writeInt(trades.length);
+        output.write(trades);
+    }
+
+    public LocalDateTime getPosition() {
+        return position;
+    }
+
+    double getFunds() {
+        return funds;
+    }
+
+    double getLockedFunds() {
+        return lockedFunds;
+    }
+
+    double getTradeFundsSpend() {
+        return tradeFundsSpend;
+    }
+
+    double getTradeAssetAmount() {
+        return tradeAssetAmount;
+    }
+
+    Quote getLastOpenQuote(StrategyTestTask task) {
+        return lastOpenDate == null ? null : new Quote(task.getAsset(), lastOpenPrice, lastOpenType, lastOpenDate);
+    }
+
+    double getMaxFunds() {
+        return maxFunds;
+    }
+
+    double getCurrentFunds() {
+        return currentFunds;
+    }
+
+    double getReportLockedFunds() {
+        return reportLockedFunds;
+    }
+
+    double getGrossProfit() {
+        return grossProfit;
+    }
+
+    double getGrossLosses() {
+        return grossLosses;
+    }
+
+    double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    double getDrawdownReturn() {
+        return drawdownReturn;
+    }
+
+    int getWinCount() {
+        return winCount;
+    }
+
+    int getLossesCount() {
+        return lossesCount;
+    }
+
+    int getMaxConsecutiveLossesCount() {
+        return maxConsecutiveLossesCount;
+    }
+
+    int getCurrentConsecutiveLossesCount() {
+        return currentConsecutiveLossesCount;
+    }
+
+    byte[] getTrades() {
+        return trades;
+    }
+
+}
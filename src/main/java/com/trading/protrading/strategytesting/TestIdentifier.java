@@ -11,6 +11,14 @@ public class TestIdentifier {
         this.strategyName = strategyName;
     }
 
+    public String getUsername() {
+        return username;
+    }
+
+    public String getStrategyName() {
+        return strategyName;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
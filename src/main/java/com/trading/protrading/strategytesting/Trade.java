@@ -17,6 +17,11 @@ public class Trade {
         assetAmount = buyFunds / currentPrice;
     }
 
+    void restore(double fundsSpend, double assetAmount) {
+        this.fundsSpend = fundsSpend;
+        this.assetAmount = assetAmount;
+    }
+
     public double close(double currentPrice) {
         fundsReceived = assetAmount * currentPrice;
         assetAmount = 0;
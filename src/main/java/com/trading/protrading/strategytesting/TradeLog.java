@@ -0,0 +1,77 @@
+package com.trading.protrading.strategytesting;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// The closed positions of a report in order: the funds each one was opened with and what closing it returned
+public class TradeLog {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private double[] buyFunds;
+    private double[] outcomes;
+    private int size;
+
+    public TradeLog() {
+        this.buyFunds = new double[INITIAL_CAPACITY];
+        this.outcomes = new double[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    public void add(double funds, double outcome) {
+        if (size == buyFunds.length) {
+            buyFunds = Arrays.copyOf(buyFunds, size * 2);
+            outcomes = Arrays.copyOf(outcomes, size * 2);
+        }
+        buyFunds[size] = funds;
+        outcomes[size] = outcome;
+        size++;
+    }
+
+    public void addAll(TradeLog trades) {
+        for (int i = 0; i < trades.size(); i++) {
+            add(trades.getBuyFunds(i), trades.getOutcome(i));
+        }
+    }
+
+    // Replays the positions into a fresh report as if they were one run
+    public RawReport replay(double funds) {
+        RawReport report = new RawReport(funds, new TradeLog());
+        for (int i = 0; i < size; i++) {
+            report.openPosition(buyFunds[i]);
+            report.closePosition(outcomes[i]);
+        }
+        return report;
+    }
+
+    // Pairs of buy funds and outcome, the form a Report stores its trades in
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(size * Double.BYTES * 2);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(buyFunds[i]);
+            buffer.putDouble(outcomes[i]);
+        }
+        return buffer.array();
+    }
+
+    public static TradeLog fromBytes(byte[] bytes) {
+        TradeLog trades = new TradeLog();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.remaining() >= Double.BYTES * 2) {
+            trades.add(buffer.getDouble(), buffer.getDouble());
+        }
+        return trades;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getBuyFunds(int index) {
+        return buyFunds[index];
+    }
+
+    public double getOutcome(int index) {
+        return outcomes[index];
+    }
+
+}
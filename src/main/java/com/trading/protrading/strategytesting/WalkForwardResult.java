@@ -0,0 +1,61 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.model.report.Report;
+
+import java.util.List;
+import java.util.UUID;
+
+// The out-of-sample report stitched from every test period, with the windows it was built from
+public class WalkForwardResult {
+    private final UUID reportId;
+    private final Double totalReturn;
+    private final Double winLossRatio;
+    private final Double profitFactor;
+    private final Double maxDrawdown;
+    private final Double returnToDrawdown;
+    private final Integer maxConsecutiveLosses;
+    private final List<WalkForwardWindow> windows;
+
+    public WalkForwardResult(Report report, List<WalkForwardWindow> windows) {
+        this.reportId = report.getPublicId();
+        this.totalReturn = report.getTotalReturn();
+        this.winLossRatio = report.getWinLossRatio();
+        this.profitFactor = report.getProfitFactor();
+        this.maxDrawdown = report.getMaxDrawdown();
+        this.returnToDrawdown = report.getReturnToDrawdown();
+        this.maxConsecutiveLosses = report.getMaxConsecutiveLosses();
+        this.windows = windows;
+    }
+
+    public UUID getReportId() {
+        return reportId;
+    }
+
+    public Double getTotalReturn() {
+        return totalReturn;
+    }
+
+    public Double getWinLossRatio() {
+        return winLossRatio;
+    }
+
+    public Double getProfitFactor() {
+        return profitFactor;
+    }
+
+    public Double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public Double getReturnToDrawdown() {
+        return returnToDrawdown;
+    }
+
+    public Integer getMaxConsecutiveLosses() {
+        return maxConsecutiveLosses;
+    }
+
+    public List<WalkForwardWindow> getWindows() {
+        return windows;
+    }
+}
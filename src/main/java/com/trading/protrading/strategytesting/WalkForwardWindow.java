@@ -0,0 +1,55 @@
+package com.trading.protrading.strategytesting;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+// One step of a walk-forward run: the best variant of the train period and how it did on the test period after it
+public class WalkForwardWindow {
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime trainStart;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime testStart;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime testEnd;
+    private final SweepResult inSample;
+    private final SweepResult outOfSample;
+    private final TradeLog trades;
+
+    public WalkForwardWindow(LocalDateTime trainStart, LocalDateTime testStart, LocalDateTime testEnd,
+                             SweepResult inSample, StrategyVariant outOfSample) {
+        this.trainStart = trainStart;
+        this.testStart = testStart;
+        this.testEnd = testEnd;
+        this.inSample = inSample;
+        this.outOfSample = new SweepResult(outOfSample);
+        this.trades = outOfSample.getRawReport().getTrades();
+    }
+
+    public LocalDateTime getTrainStart() {
+        return trainStart;
+    }
+
+    public LocalDateTime getTestStart() {
+        return testStart;
+    }
+
+    public LocalDateTime getTestEnd() {
+        return testEnd;
+    }
+
+    public SweepResult getInSample() {
+        return inSample;
+    }
+
+    public SweepResult getOutOfSample() {
+        return outOfSample;
+    }
+
+    @JsonIgnore
+    public TradeLog getTrades() {
+        return trades;
+    }
+}
@@ -0,0 +1,241 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.exceptions.BacktestQueueFullException;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.FailingQuoteCursor;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class BackTesterPoolTest {
+
+    private static final int DAYS = 6;
+    private static final int QUOTES_PER_DAY = 2000;
+
+    @TempDir
+    Path directory;
+    private TestArchive archive;
+    private BacktestCheckpointStore checkpoints;
+    private PastDataStrategyTestingTasksStorage storage;
+    private BackTesterPool pool;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        archive = new TestArchive(directory.resolve("archive"), 3);
+        archive.addDays(TestArchive.FIRST_DAY, DAYS, QUOTES_PER_DAY);
+        checkpoints = new BacktestCheckpointStore(directory.resolve("checkpoints"), Duration.ofDays(1));
+        storage = new PastDataStrategyTestingTasksStorage();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (pool != null) {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        archive.close();
+    }
+
+    // Every job gets a day of its own with a day between them, so no two are scanned together
+    private BacktestJob submit(int job, Rule rule) throws BacktestQueueFullException {
+        LocalDateTime start = TestArchive.FIRST_DAY.plusDays(job * 2L).atStartOfDay();
+        Set<Rule> rules = new HashSet<>();
+        rules.add(rule);
+        TestConfiguration configuration = new TestConfiguration("User" + job, "GoldStrategy", Asset.GOLD, start,
+                start.plusDays(1), 1000, 100);
+        BacktestJob backtest = new BacktestJob(new StrategyTestTask(configuration, new Strategy("GoldStrategy", rules),
+                UUID.randomUUID(), mock(ReportRepository.class)));
+        storage.submit(backtest);
+        return backtest;
+    }
+
+    // Holds the worker on its first quote until released, the way a long scan would, without giving up on
+    // an interrupt
+    private static Rule holdingRule(CountDownLatch started, CountDownLatch release) {
+        return new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5) {
+            private boolean held;
+
+            @Override
+            public void execute(Quote quote, StrategyTestTask test) {
+                if (!held) {
+                    held = true;
+                    started.countDown();
+                    awaitUninterruptibly(release);
+                }
+                super.execute(quote, test);
+            }
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    latch.await();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void assertDone(BacktestJob job) throws Exception {
+        job.getResult().get(10, TimeUnit.SECONDS);
+        assertEquals(JobState.DONE, job.getState());
+        assertTrue(job.getTask().isFinished());
+    }
+
+    @Test
+    public void poolNeedsAWorker() {
+        assertThrows(IllegalArgumentException.class, () -> new BackTesterPool(0, storage, archive.getHistory(),
+                checkpoints));
+    }
+
+    @Test
+    public void longJobsRunOnWorkersOfTheirOwn() throws Exception {
+        int workers = 3;
+        CountDownLatch started = new CountDownLatch(workers);
+        // a job is released only once every worker holds one, which never happens on a single worker
+        AtomicInteger released = new AtomicInteger();
+        BacktestJob[] jobs = new BacktestJob[workers];
+        for (int i = 0; i < workers; i++) {
+            jobs[i] = submit(i, new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5) {
+                private boolean held;
+
+                @Override
+                public void execute(Quote quote, StrategyTestTask test) {
+                    if (!held) {
+                        held = true;
+                        started.countDown();
+                        try {
+                            if (started.await(10, TimeUnit.SECONDS)) {
+                                released.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.execute(quote, test);
+                }
+            });
+        }
+        pool = new BackTesterPool(workers, storage, archive.getHistory(), checkpoints);
+
+        pool.start();
+
+        for (BacktestJob job : jobs) {
+            assertDone(job);
+        }
+        assertEquals(workers, released.get());
+        // statistics are recorded once the scan is over, after the results
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        for (BackTesterStatistics statistics : pool.getStatistics()) {
+            assertEquals(1, statistics.getCompletedTasks());
+            assertEquals(0, statistics.getFailedTasks());
+        }
+    }
+
+    @Test
+    public void shutdownStopsIdleWorkersAtOnce() throws InterruptedException {
+        pool = new BackTesterPool(2, storage, archive.getHistory(), checkpoints);
+        pool.start();
+
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownLetsABusyWorkerFinishItsJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BacktestJob running = submit(0, holdingRule(started, release));
+        pool = new BackTesterPool(1, storage, archive.getHistory(), checkpoints);
+        pool.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        BacktestJob queued = submit(1, new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5));
+
+        pool.shutdown();
+        assertFalse(pool.awaitTermination(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertDone(running);
+        // the worker takes no new job once shut down
+        assertEquals(JobState.QUEUED, queued.getState());
+        assertEquals(1, pool.getStatistics().get(0).getCompletedTasks());
+    }
+
+    @Test
+    public void workerOutlivesAScanThatBreaksOff() throws Exception {
+        MarketHistory history = archive.getHistory();
+        AtomicReference<FailingQuoteCursor> failing = new AtomicReference<>();
+        // the first job's period reads like a corrupt segment
+        MarketHistory corrupt = new MarketHistory(null) {
+            @Override
+            public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
+                    throws InvalidPeriodException {
+                QuoteCursor cursor = history.openCursor(start, end, asset);
+                if (!start.toLocalDate().equals(TestArchive.FIRST_DAY)) {
+                    return cursor;
+                }
+                failing.set(new FailingQuoteCursor(cursor, start, end, 100));
+                return failing.get();
+            }
+        };
+        BacktestJob broken = submit(0, new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5));
+        pool = new BackTesterPool(1, storage, corrupt, checkpoints);
+        pool.start();
+
+        assertThrows(ExecutionException.class, () -> broken.getResult().get(10, TimeUnit.SECONDS));
+        assertEquals(JobState.FAILED, broken.getState());
+        assertTrue(failing.get().isClosed());
+
+        // the only worker is still there for the next job
+        BacktestJob next = submit(1, new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5));
+        assertDone(next);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, pool.getStatistics().get(0).getFailedTasks());
+        assertEquals(1, pool.getStatistics().get(0).getCompletedTasks());
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class BacktestCheckpointStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 3, 2, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private static StrategyTestTask task() {
+        Set<Rule> rules = new HashSet<>();
+        rules.add(new Rule(new Condition(50, Predicate.LESS_OR_EQUAL), 1.5, 2.0));
+        TestConfiguration configuration = new TestConfiguration("User1", "GoldStrategy", Asset.GOLD, START,
+                START.plusDays(2), 1000, 150);
+        return new StrategyTestTask(configuration, new Strategy("GoldStrategy", rules), UUID.randomUUID(),
+                mock(ReportRepository.class));
+    }
+
+    @Test
+    public void savedCheckpointIsLoadedBackUntilDeleted() {
+        BacktestCheckpointStore store = new BacktestCheckpointStore(directory, Duration.ofSeconds(30));
+        StrategyTestTask task = task();
+        // opens a trade that is still open at the checkpoint
+        task.execute(new Quote(Asset.GOLD, 49, QuoteType.BUY, START.plusHours(1)));
+        store.save(new BacktestCheckpoint(task, START.plusHours(1)));
+
+        List<BacktestCheckpoint> loaded = store.loadAll();
+        assertEquals(1, loaded.size());
+        BacktestCheckpoint checkpoint = loaded.get(0);
+        assertEquals(task.getReportId(), checkpoint.getReportId());
+        assertEquals(BacktestResultCache.key(task.getStrategy(), task.getConfiguration()), checkpoint.getStrategyKey());
+        assertEquals(START.plusHours(1), checkpoint.getState().getPosition());
+        assertEquals(START.plusDays(2), checkpoint.getConfiguration().getEnd());
+
+        StrategyTestTask resumed = task();
+        resumed.resume(checkpoint.getState());
+        assertTrue(resumed.tradeIsOpen());
+        assertEquals(task.getFunds(), resumed.getFunds());
+
+        store.delete(task.getReportId());
+        assertTrue(store.loadAll().isEmpty());
+    }
+
+    @Test
+    public void unreadableCheckpointIsDropped() throws IOException {
+        BacktestCheckpointStore store = new BacktestCheckpointStore(directory, Duration.ofSeconds(30));
+        Path broken = directory.resolve(UUID.randomUUID() + ".checkpoint");
+        Files.write(broken, new byte[]{1, 2, 3});
+
+        assertTrue(store.loadAll().isEmpty());
+        assertTrue(Files.notExists(broken));
+    }
+
+}
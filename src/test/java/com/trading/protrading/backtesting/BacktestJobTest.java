@@ -0,0 +1,199 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.exceptions.BacktestQueueFullException;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class BacktestJobTest {
+
+    private static final LocalDateTime START = TestArchive.FIRST_DAY.atStartOfDay();
+    private static final int DAYS = 3;
+    private static final int QUOTES_PER_DAY = 5000;
+    private static final int CANCEL_AFTER = 2000;
+
+    @TempDir
+    Path directory;
+    private TestArchive archive;
+    private BacktestCheckpointStore checkpoints;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        archive = new TestArchive(directory.resolve("archive"), 17);
+        archive.addDays(TestArchive.FIRST_DAY, DAYS, QUOTES_PER_DAY);
+        checkpoints = new BacktestCheckpointStore(directory.resolve("checkpoints"), Duration.ofDays(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archive.close();
+    }
+
+    private static StrategyTestTask task(String strategyName, Rule rule) {
+        Set<Rule> rules = new HashSet<>();
+        rules.add(rule);
+        TestConfiguration configuration = new TestConfiguration("User1", strategyName, Asset.GOLD, START,
+                START.plusDays(DAYS), 1000, 100);
+        return new StrategyTestTask(configuration, new Strategy(strategyName, rules), UUID.randomUUID(),
+                mock(ReportRepository.class));
+    }
+
+    // Acts on every quote, so no zone of the period is skipped
+    private static Rule rule() {
+        return new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5);
+    }
+
+    // Cancels the job of its task once it has seen CANCEL_AFTER quotes
+    private static Rule cancellingRule(AtomicReference<BacktestJob> job) {
+        return new Rule(new Condition(0, Predicate.GREATER_THAN), 0.5, 0.5) {
+            private int executed;
+
+            @Override
+            public void execute(Quote quote, StrategyTestTask test) {
+                if (++executed == CANCEL_AFTER) {
+                    assertTrue(job.get().cancel());
+                }
+                super.execute(quote, test);
+            }
+        };
+    }
+
+    @Test
+    public void jobMovesFromQueuedThroughRunningToDone() {
+        BacktestJob job = new BacktestJob(task("GoldStrategy", rule()));
+        assertEquals(JobState.QUEUED, job.getState());
+        assertNull(job.getStarted());
+
+        new SharedScan(archive.getHistory(), checkpoints, List.of(job)).run();
+
+        assertEquals(JobState.DONE, job.getState());
+        assertEquals(1, job.getProgress());
+        assertNotNull(job.getStarted());
+        assertFalse(job.getFinished().isBefore(job.getStarted()));
+        assertSame(job.getTask().getFinalReport(), job.getResult().join());
+        assertFalse(job.cancel());
+        assertEquals(JobState.DONE, job.getState());
+    }
+
+    @Test
+    public void endedJobKeepsItsFirstOutcome() {
+        BacktestJob job = new BacktestJob(task("GoldStrategy", rule()));
+        job.start();
+        assertEquals(JobState.RUNNING, job.getState());
+
+        job.fail("Disk read failed");
+        job.done();
+        job.cancelled();
+
+        assertEquals(JobState.FAILED, job.getState());
+        assertEquals("Disk read failed", job.getFailure());
+        assertTrue(job.getResult().isCompletedExceptionally());
+        assertFalse(job.cancel());
+    }
+
+    @Test
+    public void cancelledQueuedJobIsNeverDispatched() throws BacktestQueueFullException {
+        PastDataStrategyTestingTasksStorage storage = new PastDataStrategyTestingTasksStorage();
+        BacktestJob cancelled = new BacktestJob(task("GoldStrategy", rule()));
+        BacktestJob other = new BacktestJob(task("SilverStrategy", rule()));
+        storage.submit(cancelled);
+        storage.submit(other);
+
+        assertTrue(storage.cancel(cancelled));
+
+        assertEquals(JobState.CANCELLED, cancelled.getState());
+        assertThrows(CancellationException.class, () -> cancelled.getResult().join());
+        assertFalse(storage.cancel(cancelled));
+        // the overlapping job is not grouped with the cancelled one
+        assertEquals(List.of(other), storage.getNextStrategyTestGroup());
+    }
+
+    @Test
+    public void cancelledRunningJobStopsTheScan() {
+        AtomicReference<BacktestJob> job = new AtomicReference<>();
+        job.set(new BacktestJob(task("GoldStrategy", cancellingRule(job))));
+        SharedScan scan = new SharedScan(archive.getHistory(), checkpoints, List.of(job.get()));
+
+        scan.run();
+
+        assertEquals(JobState.CANCELLED, job.get().getState());
+        assertThrows(CancellationException.class, () -> job.get().getResult().join());
+        assertFalse(job.get().getTask().isFinished());
+        // the cursor was closed rather than read to the end of the period
+        assertFalse(archive.getLastCursor().hasNext());
+        assertEquals(CANCEL_AFTER, scan.getVisitedCount());
+    }
+
+    @Test
+    public void cancellingOneRunningJobLeavesTheOthersOfTheScan() {
+        AtomicReference<BacktestJob> cancelled = new AtomicReference<>();
+        cancelled.set(new BacktestJob(task("GoldStrategy", cancellingRule(cancelled))));
+        BacktestJob other = new BacktestJob(task("SilverStrategy", rule()));
+
+        new SharedScan(archive.getHistory(), checkpoints, List.of(cancelled.get(), other)).run();
+
+        assertEquals(JobState.CANCELLED, cancelled.get().getState());
+        assertFalse(cancelled.get().getTask().isFinished());
+        assertEquals(JobState.DONE, other.getState());
+        assertTrue(other.getTask().isFinished());
+    }
+
+    @Test
+    public void jobsOfAPeriodThatCannotBeReadFail() {
+        MarketHistory unreadable = new MarketHistory(null) {
+            @Override
+            public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
+                    throws InvalidPeriodException {
+                throw new InvalidPeriodException("Parameters start and end cannot be todays date");
+            }
+        };
+        BacktestJob first = new BacktestJob(task("GoldStrategy", rule()));
+        BacktestJob second = new BacktestJob(task("SilverStrategy", rule()));
+        SharedScan scan = new SharedScan(unreadable, checkpoints, List.of(first, second));
+
+        scan.run();
+
+        for (BacktestJob job : List.of(first, second)) {
+            assertEquals(JobState.FAILED, job.getState());
+            assertEquals("Parameters start and end cannot be todays date", job.getFailure());
+            assertTrue(job.getResult().isCompletedExceptionally());
+            // no empty report was saved for it
+            assertFalse(job.getTask().isFinished());
+        }
+        assertEquals(2, scan.getFailedCount());
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.model.report.Report;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BacktestResultCacheTest {
+
+    private static final LocalDateTime START = TestArchive.FIRST_DAY.atStartOfDay();
+    private static final LocalDateTime END = START.plusDays(2);
+    private static final String FINGERPRINT = "fingerprint";
+    // a result of TRADES_BYTES trades takes a little more on the heap and on disk, two of them fit in BUDGET
+    private static final int TRADES_BYTES = 800;
+    private static final long BUDGET = 2000;
+
+    @TempDir
+    Path directory;
+
+    private static Strategy strategy(String name, Predicate predicate, double assetPrice, double stopLoss,
+                                     double takeProfit) {
+        Set<Rule> rules = new HashSet<>();
+        rules.add(new Rule(new Condition(assetPrice, predicate), stopLoss, takeProfit));
+        return new Strategy(name, rules);
+    }
+
+    private static TestConfiguration configuration(String username, Asset asset, LocalDateTime start,
+                                                   LocalDateTime end, double funds, double transactionBuyFunds) {
+        return new TestConfiguration(username, "GoldStrategy", asset, start, end, funds, transactionBuyFunds);
+    }
+
+    private static String key(Strategy strategy) {
+        return BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START, END, 1000, 100));
+    }
+
+    private static CachedResult result(String fingerprint, double totalReturn) {
+        Report report = new Report();
+        report.setTotalReturn(totalReturn);
+        report.setWinLossRatio(1.0);
+        report.setProfitFactor(1.0);
+        report.setMaxDrawdown(0.1);
+        report.setReturnToDrawdown(1.0);
+        report.setMaxConsecutiveLosses(1);
+        report.setTrades(new byte[TRADES_BYTES]);
+        return new CachedResult(report, fingerprint);
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + ".result");
+    }
+
+    @Test
+    public void sameInputsGiveTheSameKeyWhoeverSubmitsThem() {
+        Strategy strategy = strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 1.5, 2.0);
+        Strategy copy = strategy("Other", Predicate.LESS_OR_EQUAL, 50.0, 1.5, 2.0);
+
+        assertEquals(BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START, END, 1000, 100)),
+                BacktestResultCache.key(copy, configuration("User2", Asset.GOLD, START, END, 1000.0, 100.0)));
+    }
+
+    @Test
+    public void anyChangeOfTheInputsGivesAnotherKey() {
+        Strategy strategy = strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 1.5, 2.0);
+        String key = key(strategy);
+        List<String> changed = List.of(
+                key(strategy("GoldStrategy", Predicate.LESS_THAN, 50, 1.5, 2.0)),
+                key(strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50.01, 1.5, 2.0)),
+                key(strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 1.6, 2.0)),
+                key(strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 1.5, 2.1)),
+                // swapped stop loss and take profit
+                key(strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 2.0, 1.5)),
+                BacktestResultCache.key(strategy, configuration("User1", Asset.SILVER, START, END, 1000, 100)),
+                BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START.plusSeconds(1), END, 1000, 100)),
+                BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START, END.minusSeconds(1), 1000, 100)),
+                BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START, END, 1001, 100)),
+                BacktestResultCache.key(strategy, configuration("User1", Asset.GOLD, START, END, 1000, 101)));
+
+        assertEquals(changed.size(), new HashSet<>(changed).size());
+        assertFalse(changed.contains(key));
+
+        Set<Rule> rules = new HashSet<>(strategy.getRules());
+        rules.add(new Rule(new Condition(52, Predicate.GREATER_THAN), 1.0, 1.0));
+        assertNotEquals(key, key(new Strategy("GoldStrategy", rules)));
+    }
+
+    @Test
+    public void resultIsDroppedOnceTheArchiveOfItsPeriodChanges() throws Exception {
+        TestArchive archive = new TestArchive(directory.resolve("archive"), 1);
+        try {
+            archive.addDays(TestArchive.FIRST_DAY, 2, 100);
+            MarketHistory history = archive.getHistory();
+            BacktestResultCache cache = new BacktestResultCache(directory.resolve("cache"), BUDGET, BUDGET);
+            String key = key(strategy("GoldStrategy", Predicate.LESS_OR_EQUAL, 50, 1.5, 2.0));
+            String fingerprint = history.getFingerprint(START, END, Asset.GOLD);
+            cache.put(key, result(fingerprint, 1100));
+
+            // a day outside the period leaves it valid
+            archive.addDays(TestArchive.FIRST_DAY.plusDays(3), 1, 100);
+            assertEquals(fingerprint, history.getFingerprint(START, END, Asset.GOLD));
+            assertEquals(1100, cache.get(key, fingerprint).toReport(UUID.randomUUID()).getTotalReturn(), 0);
+
+            archive.addDays(TestArchive.FIRST_DAY.plusDays(1), 1, 100);
+            String changed = history.getFingerprint(START, END, Asset.GOLD);
+            assertNotEquals(fingerprint, changed);
+            assertNull(cache.get(key, changed));
+            // dropped from both tiers, not just hidden
+            assertNull(cache.get(key, fingerprint));
+            assertFalse(Files.exists(directory.resolve("cache").resolve(key + ".result")));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void memoryKeepsTheMostRecentlyUsedResults() throws Exception {
+        BacktestResultCache cache = new BacktestResultCache(directory, BUDGET, BUDGET * 10);
+        cache.put("a", result(FINGERPRINT, 1));
+        cache.put("b", result(FINGERPRINT, 2));
+        assertNotNull(cache.get("a", FINGERPRINT));
+        cache.put("c", result(FINGERPRINT, 3));
+
+        // without the disk tier only what is left on the heap hits
+        Files.delete(file("a"));
+        Files.delete(file("b"));
+        Files.delete(file("c"));
+        assertNotNull(cache.get("a", FINGERPRINT));
+        assertNotNull(cache.get("c", FINGERPRINT));
+        assertNull(cache.get("b", FINGERPRINT));
+    }
+
+    @Test
+    public void diskKeepsTheMostRecentlyUsedResults() throws Exception {
+        BacktestResultCache cache = new BacktestResultCache(directory, 0, BUDGET);
+        cache.put("a", result(FINGERPRINT, 1));
+        cache.put("b", result(FINGERPRINT, 2));
+        Files.setLastModifiedTime(file("a"), FileTime.fromMillis(System.currentTimeMillis() - 7_200_000));
+        Files.setLastModifiedTime(file("b"), FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        assertNotNull(cache.get("a", FINGERPRINT));
+        cache.put("c", result(FINGERPRINT, 3));
+
+        assertTrue(Files.exists(file("a")));
+        assertFalse(Files.exists(file("b")));
+        assertTrue(Files.exists(file("c")));
+        assertNull(cache.get("b", FINGERPRINT));
+    }
+
+    @Test
+    public void hitInMemoryMarksTheFileAsUsed() throws Exception {
+        BacktestResultCache cache = new BacktestResultCache(directory, BUDGET, BUDGET);
+        cache.put("a", result(FINGERPRINT, 1));
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.setLastModifiedTime(file("a"), old);
+
+        assertNotNull(cache.get("a", FINGERPRINT));
+
+        assertTrue(Files.getLastModifiedTime(file("a")).compareTo(old) > 0);
+    }
+
+}
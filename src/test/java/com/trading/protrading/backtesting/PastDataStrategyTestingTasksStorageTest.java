@@ -0,0 +1,111 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.exceptions.BacktestQueueFullException;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class PastDataStrategyTestingTasksStorageTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2019, 1, 1, 0, 0);
+    private PastDataStrategyTestingTasksStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new PastDataStrategyTestingTasksStorage();
+    }
+
+    private BacktestJob submit(String username, Asset asset, LocalDateTime start, int days)
+            throws BacktestQueueFullException {
+        TestConfiguration configuration = new TestConfiguration(username, "GoldStrategy", asset, start,
+                start.plusDays(days), 1000, 100);
+        return storage.enableStrategy(new Strategy("GoldStrategy", new HashSet<>()), configuration, UUID.randomUUID(),
+                mock(ReportRepository.class));
+    }
+
+    // Periods apart from each other, so every job is dispatched in a group of its own
+    private List<BacktestJob> submitApart(String username, Asset asset, int count, int days)
+            throws BacktestQueueFullException {
+        List<BacktestJob> jobs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            jobs.add(submit(username, asset, START.plusDays(i * (days + 1L)), days));
+        }
+        return jobs;
+    }
+
+    private BacktestJob next() {
+        List<BacktestJob> group = storage.getNextStrategyTestGroup();
+        assertEquals(1, group.size());
+        return group.get(0);
+    }
+
+    @Test
+    public void heavyUserCannotStarveALightOne() throws BacktestQueueFullException {
+        List<BacktestJob> heavy = submitApart("heavy", Asset.GOLD, 50, 30);
+        List<BacktestJob> light = submitApart("light", Asset.SILVER, 5, 1);
+
+        List<BacktestJob> dispatched = new ArrayList<>();
+        for (int i = 0; i < light.size() + 1; i++) {
+            dispatched.add(next());
+        }
+
+        // at most one long job of the heavy user goes before the light user is done
+        assertTrue(dispatched.containsAll(light));
+        assertTrue(dispatched.stream().filter(heavy::contains).count() <= 1);
+    }
+
+    @Test
+    public void longJobIsNotPostponedForeverByShorterOnes() throws BacktestQueueFullException {
+        BacktestJob longJob = submit("User1", Asset.GOLD, START, 60);
+
+        int dispatches = 0;
+        boolean dispatchedLongJob = false;
+        while (!dispatchedLongJob && dispatches < 100) {
+            // a shorter job of the same user is always waiting
+            submit("User1", Asset.SILVER, START.plusDays(dispatches * 2L), 1);
+            dispatchedLongJob = next() == longJob;
+            dispatches++;
+        }
+
+        assertTrue(dispatchedLongJob);
+        assertTrue(dispatches > 1);
+        assertTrue(dispatches <= 60 / PastDataStrategyTestingTasksStorage.AGING_DAYS_PER_DISPATCH + 1);
+    }
+
+    @Test
+    public void userCannotQueueMoreThanTheirCapacity() throws BacktestQueueFullException {
+        submitApart("User1", Asset.GOLD, PastDataStrategyTestingTasksStorage.USER_CAPACITY, 1);
+
+        assertThrows(BacktestQueueFullException.class, () -> submit("User1", Asset.GOLD, START, 1));
+        // the others are not affected
+        submit("User2", Asset.GOLD, START, 1);
+
+        storage.getNextStrategyTestGroup();
+        submit("User1", Asset.GOLD, START, 1);
+    }
+
+    @Test
+    public void queueCannotHoldMoreThanItsCapacity() throws BacktestQueueFullException {
+        int users = PastDataStrategyTestingTasksStorage.CAPACITY / PastDataStrategyTestingTasksStorage.USER_CAPACITY;
+        for (int i = 0; i < users; i++) {
+            submitApart("User" + i, Asset.GOLD, PastDataStrategyTestingTasksStorage.USER_CAPACITY, 1);
+        }
+
+        assertThrows(BacktestQueueFullException.class, () -> submit("Other", Asset.GOLD, START, 1));
+    }
+
+}
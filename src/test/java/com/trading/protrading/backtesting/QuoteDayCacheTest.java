@@ -0,0 +1,98 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.exceptions.InvalidPeriodException;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QuoteDayCacheTest {
+
+    private static final LocalDate DAY = TestArchive.FIRST_DAY;
+    private static final int QUOTES_PER_DAY = 500;
+
+    @TempDir
+    Path directory;
+    private TestArchive archive;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        archive = new TestArchive(directory, 7);
+        archive.addDays(DAY, 2, QUOTES_PER_DAY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    public void dayIsDecodedOnceForEveryWindowThatRetainsIt() {
+        QuoteDayCache cache = new QuoteDayCache(archive.getHistory(), Asset.GOLD);
+        cache.retain(DAY);
+        cache.retain(DAY);
+
+        DayQuotes first = cache.get(DAY);
+        DayQuotes second = cache.get(DAY);
+
+        assertSame(first, second);
+        assertEquals(QUOTES_PER_DAY, first.size());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(1, archive.getOpenedCursors());
+    }
+
+    @Test
+    public void dayIsDroppedWhenTheLastWindowReleasesIt() {
+        QuoteDayCache cache = new QuoteDayCache(archive.getHistory(), Asset.GOLD);
+        cache.retain(DAY);
+        cache.retain(DAY);
+        DayQuotes loaded = cache.get(DAY);
+
+        cache.release(DAY);
+        assertSame(loaded, cache.get(DAY));
+        cache.release(DAY);
+
+        cache.retain(DAY);
+        assertNotSame(loaded, cache.get(DAY));
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    public void failedLoadLeavesNoEntryBehind() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        MarketHistory history = archive.getHistory();
+        MarketHistory flaky = new MarketHistory(null) {
+            @Override
+            public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset)
+                    throws InvalidPeriodException {
+                if (failing.getAndSet(false)) {
+                    throw new UncheckedIOException(new IOException("Disk read failed"));
+                }
+                return history.openCursor(start, end, asset);
+            }
+        };
+        QuoteDayCache cache = new QuoteDayCache(flaky, Asset.GOLD);
+        cache.retain(DAY);
+
+        assertThrows(UncheckedIOException.class, () -> cache.get(DAY));
+
+        assertEquals(QUOTES_PER_DAY, cache.get(DAY).size());
+        assertEquals(1, cache.getLoadCount());
+    }
+
+}
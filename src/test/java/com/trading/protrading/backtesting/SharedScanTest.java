@@ -0,0 +1,110 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.RawReport;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SharedScanTest {
+
+    private static final int TASKS = 40;
+
+    @TempDir
+    Path directory;
+    private TestArchive archive;
+    private BacktestCheckpointStore checkpoints;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        archive = new TestArchive(directory.resolve("archive"), 3);
+        archive.addDays(TestArchive.FIRST_DAY, 6, 5000);
+        checkpoints = new BacktestCheckpointStore(directory.resolve("checkpoints"), Duration.ofDays(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archive.close();
+    }
+
+    // Overlapping periods on the same asset, several starting or ending within a day
+    private static List<StrategyTestTask> tasks() {
+        Random random = new Random(11);
+        LocalDateTime first = TestArchive.FIRST_DAY.atStartOfDay();
+        List<StrategyTestTask> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Set<Rule> rules = new HashSet<>();
+            // thresholds away from the opening price, so that calm zones can be skipped
+            double distance = 1 + random.nextInt(40) / 10.0;
+            Condition condition = random.nextBoolean()
+                    ? new Condition(50 - distance, random.nextBoolean() ? Predicate.LESS_THAN : Predicate.LESS_OR_EQUAL)
+                    : new Condition(50 + distance, random.nextBoolean() ? Predicate.GREATER_THAN : Predicate.GREATER_OR_EQUAL);
+            rules.add(new Rule(condition, 0.2 + random.nextInt(10) / 10.0, 0.2 + random.nextInt(10) / 10.0));
+            LocalDateTime start = first.plusMinutes(random.nextInt(60 * 24 * 4));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(60 * 24 * 2));
+            TestConfiguration configuration = new TestConfiguration("user", "strategy" + i, Asset.GOLD, start, end,
+                    1000, 100);
+            tasks.add(new StrategyTestTask(configuration, new Strategy("strategy" + i, rules), UUID.randomUUID(),
+                    mock(ReportRepository.class)));
+        }
+        return tasks;
+    }
+
+    private static List<BacktestJob> jobs(List<StrategyTestTask> tasks) {
+        List<BacktestJob> jobs = new ArrayList<>();
+        for (StrategyTestTask task : tasks) {
+            jobs.add(new BacktestJob(task));
+        }
+        return jobs;
+    }
+
+    @Test
+    public void groupedTasksEndWithTheReportsOfTheirOwnScans() {
+        List<StrategyTestTask> alone = tasks();
+        for (StrategyTestTask task : alone) {
+            new SharedScan(archive.getHistory(), checkpoints, jobs(List.of(task))).run();
+        }
+        List<StrategyTestTask> grouped = tasks();
+        SharedScan scan = new SharedScan(archive.getHistory(), checkpoints, jobs(grouped));
+        scan.run();
+
+        for (int i = 0; i < TASKS; i++) {
+            RawReport expected = alone.get(i).getRawReport();
+            RawReport actual = grouped.get(i).getRawReport();
+            assertTrue(grouped.get(i).isFinished());
+            assertEquals(expected.getCurrentFunds(), actual.getCurrentFunds(), "strategy" + i);
+            assertEquals(expected.getMaxDrawdown(), actual.getMaxDrawdown(), "strategy" + i);
+            assertEquals(expected.getWinCount(), actual.getWinCount(), "strategy" + i);
+            assertEquals(expected.getLossesCount(), actual.getLossesCount(), "strategy" + i);
+            assertArrayEquals(expected.getTrades().toBytes(), actual.getTrades().toBytes());
+        }
+        // both the zone filter and the dispatch by period were exercised
+        assertTrue(scan.getSkippedCount() > 0);
+        assertTrue(alone.stream().anyMatch(task -> task.getRawReport().getWinCount() > 0));
+    }
+
+}
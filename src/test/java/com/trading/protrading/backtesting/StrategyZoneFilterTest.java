@@ -0,0 +1,140 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.marketdata.QuoteZone;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StrategyZoneFilterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 3, 2, 0, 0);
+    private static final int ROUNDS = 20_000;
+
+    private static StrategyTestTask task(Random random) {
+        Set<Rule> rules = new HashSet<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            Predicate predicate = Predicate.values()[random.nextInt(Predicate.values().length)];
+            rules.add(new Rule(new Condition(price(random), predicate), 0.1 + random.nextInt(10) / 10.0,
+                    0.1 + random.nextInt(10) / 10.0));
+        }
+        TestConfiguration configuration = new TestConfiguration("User1", "GoldStrategy", Asset.GOLD, START,
+                START.plusYears(1), 1000, 100);
+        return new StrategyTestTask(configuration, new Strategy("GoldStrategy", rules), UUID.randomUUID(),
+                mock(ReportRepository.class));
+    }
+
+    // Prices on a coarse grid, so zones often border on a condition or a take profit exactly
+    private static double price(Random random) {
+        return 49 + random.nextInt(21) / 10.0;
+    }
+
+    private static List<Quote> quotes(Random random) {
+        List<Quote> quotes = new ArrayList<>();
+        double center = price(random);
+        double spread = random.nextInt(8) / 10.0;
+        for (int i = 1 + random.nextInt(30); i > 0; i--) {
+            double price = center + (random.nextInt(21) - 10) / 10.0 * spread;
+            QuoteType type = random.nextInt(4) == 0 ? QuoteType.SELL : QuoteType.BUY;
+            quotes.add(new Quote(Asset.GOLD, price, type, START.plusMinutes(quotes.size())));
+        }
+        return quotes;
+    }
+
+    private static QuoteZone zone(List<Quote> quotes) {
+        int buyCount = 0;
+        int sellCount = 0;
+        double minimumBuyPrice = Double.POSITIVE_INFINITY;
+        double maximumBuyPrice = Double.NEGATIVE_INFINITY;
+        double minimumSellPrice = Double.POSITIVE_INFINITY;
+        double maximumSellPrice = Double.NEGATIVE_INFINITY;
+        for (Quote quote : quotes) {
+            if (quote.getType() == QuoteType.BUY) {
+                buyCount++;
+                minimumBuyPrice = Math.min(minimumBuyPrice, quote.getPrice());
+                maximumBuyPrice = Math.max(maximumBuyPrice, quote.getPrice());
+            } else {
+                sellCount++;
+                minimumSellPrice = Math.min(minimumSellPrice, quote.getPrice());
+                maximumSellPrice = Math.max(maximumSellPrice, quote.getPrice());
+            }
+        }
+        QuoteZone zone = mock(QuoteZone.class);
+        when(zone.getCount()).thenReturn(quotes.size());
+        when(zone.getBuyCount()).thenReturn(buyCount);
+        when(zone.getMinimumBuyPrice()).thenReturn(minimumBuyPrice);
+        when(zone.getMaximumBuyPrice()).thenReturn(maximumBuyPrice);
+        when(zone.getSellCount()).thenReturn(sellCount);
+        when(zone.getMinimumSellPrice()).thenReturn(minimumSellPrice);
+        when(zone.getMaximumSellPrice()).thenReturn(maximumSellPrice);
+        return zone;
+    }
+
+    @Test
+    public void skippedZoneNeverChangesTheTask() {
+        Random random = new Random(5);
+        int skipped = 0;
+        int changed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            StrategyTestTask task = task(random);
+            if (random.nextBoolean()) {
+                task.openTrade(new Quote(Asset.GOLD, price(random), QuoteType.BUY, START), 1);
+            }
+            List<Quote> quotes = quotes(random);
+            boolean mayMatch = new StrategyZoneFilter(task).mayMatch(zone(quotes));
+
+            boolean wasOpen = task.tradeIsOpen();
+            double funds = task.getFunds();
+            int closed = task.getRawReport().getWinCount() + task.getRawReport().getLossesCount();
+            for (Quote quote : quotes) {
+                task.execute(quote);
+            }
+            boolean unchanged = wasOpen == task.tradeIsOpen() && funds == task.getFunds()
+                    && closed == task.getRawReport().getWinCount() + task.getRawReport().getLossesCount();
+
+            assertTrue(mayMatch || unchanged, "round " + round + " skipped a zone that changed the task");
+            skipped += mayMatch ? 0 : 1;
+            changed += unchanged ? 0 : 1;
+        }
+        // both outcomes are common enough for the check to mean something
+        assertTrue(skipped > ROUNDS / 10);
+        assertTrue(changed > ROUNDS / 10);
+    }
+
+    @Test
+    public void zoneTouchingAConditionExactlyIsNotSkipped() {
+        Set<Rule> rules = new HashSet<>();
+        rules.add(new Rule(new Condition(50, Predicate.GREATER_OR_EQUAL), 1.0, 1.0));
+        TestConfiguration configuration = new TestConfiguration("User1", "GoldStrategy", Asset.GOLD, START,
+                START.plusYears(1), 1000, 100);
+        StrategyTestTask task = new StrategyTestTask(configuration, new Strategy("GoldStrategy", rules),
+                UUID.randomUUID(), mock(ReportRepository.class));
+        List<Quote> quotes = new ArrayList<>();
+        quotes.add(new Quote(Asset.GOLD, 49.5, QuoteType.BUY, START));
+        quotes.add(new Quote(Asset.GOLD, 50, QuoteType.BUY, START.plusMinutes(1)));
+
+        assertTrue(new StrategyZoneFilter(task).mayMatch(zone(quotes)));
+        assertFalse(new StrategyZoneFilter(task).mayMatch(zone(quotes.subList(0, 1))));
+    }
+
+}
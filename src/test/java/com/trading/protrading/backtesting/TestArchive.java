@@ -0,0 +1,87 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.marketdata.Archive;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.marketdata.QuoteSegmentWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Random gold quotes written as archive segments and read back through a MarketHistory
+class TestArchive {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2020, 3, 2);
+    private final Path directory;
+    private final Archive archive;
+    private final Random random;
+    private final AtomicInteger openedCursors;
+    private volatile QuoteCursor lastCursor;
+    private double price;
+
+    TestArchive(Path directory, long seed) {
+        this.directory = directory;
+        this.archive = new Archive(Asset.GOLD, directory);
+        this.random = new Random(seed);
+        this.openedCursors = new AtomicInteger();
+        this.price = 50;
+    }
+
+    // A random walk, with calm stretches that the zone filters can rule out
+    void addDays(LocalDate first, int days, int quotesPerDay) throws IOException {
+        for (LocalDate day = first; day.isBefore(first.plusDays(days)); day = day.plusDays(1)) {
+            List<Quote> quotes = new ArrayList<>();
+            long step = 86_400_000L / quotesPerDay;
+            for (int i = 0; i < quotesPerDay; i++) {
+                price = Math.max(1, price + random.nextGaussian() * (i % 3000 < 1500 ? 0.002 : 0.04));
+                QuoteType type = random.nextBoolean() ? QuoteType.BUY : QuoteType.SELL;
+                quotes.add(new Quote(Asset.GOLD, price, type, day.atStartOfDay().plusNanos(i * step * 1_000_000L)));
+            }
+            addDay(day, quotes);
+        }
+    }
+
+    void addDay(LocalDate day, List<Quote> quotes) throws IOException {
+        String month = day.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+        new QuoteSegmentWriter().write(directory.resolve("gold" + month + ".seg"), day, quotes);
+    }
+
+    MarketHistory getHistory() {
+        return new MarketHistory(null) {
+            @Override
+            public QuoteCursor openCursor(LocalDateTime start, LocalDateTime end, Asset asset) {
+                openedCursors.incrementAndGet();
+                lastCursor = archive.openCursor(start, end);
+                return lastCursor;
+            }
+
+            @Override
+            public String getFingerprint(LocalDateTime start, LocalDateTime end, Asset asset) {
+                return archive.fingerprint(start.toLocalDate(), end.toLocalDate());
+            }
+        };
+    }
+
+    int getOpenedCursors() {
+        return openedCursors.get();
+    }
+
+    QuoteCursor getLastCursor() {
+        return lastCursor;
+    }
+
+    void close() {
+        archive.stopUpdate();
+    }
+
+}
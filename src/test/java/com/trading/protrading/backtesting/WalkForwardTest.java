@@ -0,0 +1,144 @@
+package com.trading.protrading.backtesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.marketdata.MarketHistory;
+import com.trading.protrading.marketdata.QuoteCursor;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.strategytesting.ParameterRange;
+import com.trading.protrading.strategytesting.RawReport;
+import com.trading.protrading.strategytesting.StrategyVariant;
+import com.trading.protrading.strategytesting.SweepResult;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import com.trading.protrading.strategytesting.TradeLog;
+import com.trading.protrading.strategytesting.WalkForwardWindow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WalkForwardTest {
+
+    private static final int DAYS = 8;
+    private static final int TRAIN_DAYS = 3;
+    private static final int TEST_DAYS = 1;
+    private static final double FUNDS = 1000;
+    private static final double DELTA = 1e-9;
+    private static final LocalDateTime START = TestArchive.FIRST_DAY.atStartOfDay();
+
+    @TempDir
+    Path directory;
+    private TestArchive archive;
+    private MarketHistory history;
+    private Strategy strategy;
+    private Rule rule;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        archive = new TestArchive(directory, 13);
+        archive.addDays(TestArchive.FIRST_DAY, DAYS, 3000);
+        history = archive.getHistory();
+        rule = new Rule(new Condition(50, Predicate.GREATER_OR_EQUAL), 0.5, 0.5);
+        Set<Rule> rules = new HashSet<>();
+        rules.add(rule);
+        strategy = new Strategy("GoldStrategy", rules);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archive.close();
+    }
+
+    private static TestConfiguration period(LocalDateTime start, LocalDateTime end) {
+        return new TestConfiguration("User1", "GoldStrategy", Asset.GOLD, start, end, FUNDS, 100);
+    }
+
+    private List<WalkForwardWindow> walk() throws Exception {
+        return new WalkForward(history, strategy, rule, period(START, START.plusDays(DAYS)),
+                new ParameterRange(0.2, 1.0, 0.4), new ParameterRange(0.2, 1.0, 0.4), new ParameterRange(48, 50, 0.5),
+                TRAIN_DAYS, TEST_DAYS).run();
+    }
+
+    private static void assertSameResult(SweepResult expected, SweepResult actual) {
+        assertEquals(expected.getStopLoss(), actual.getStopLoss(), DELTA);
+        assertEquals(expected.getTakeProfit(), actual.getTakeProfit(), DELTA);
+        assertEquals(expected.getAssetPrice(), actual.getAssetPrice(), DELTA);
+        assertEquals(expected.getTotalReturn(), actual.getTotalReturn(), DELTA);
+        assertEquals(expected.getMaxDrawdown(), actual.getMaxDrawdown(), DELTA);
+        assertEquals(expected.getMaxConsecutiveLosses(), actual.getMaxConsecutiveLosses());
+    }
+
+    @Test
+    public void windowsRollByTheTestLengthAndReadEveryDayOnce() throws Exception {
+        List<WalkForwardWindow> windows = walk();
+
+        assertEquals(DAYS - TRAIN_DAYS - TEST_DAYS + 1, windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            WalkForwardWindow window = windows.get(i);
+            assertEquals(START.plusDays(i * TEST_DAYS), window.getTrainStart());
+            assertEquals(window.getTrainStart().plusDays(TRAIN_DAYS), window.getTestStart());
+            assertEquals(window.getTestStart().plusDays(TEST_DAYS), window.getTestEnd());
+        }
+        assertEquals(DAYS, archive.getOpenedCursors());
+    }
+
+    // Each window matches separate runs over exactly its train and test periods, quotes at midnight included
+    @Test
+    public void windowsSeeExactlyTheQuotesOfTheirPeriods() throws Exception {
+        List<WalkForwardWindow> windows = walk();
+
+        for (WalkForwardWindow window : windows) {
+            SweepResult inSample = new ParameterSweep(history, strategy, rule,
+                    period(window.getTrainStart(), window.getTestStart()),
+                    new ParameterRange(0.2, 1.0, 0.4), new ParameterRange(0.2, 1.0, 0.4),
+                    new ParameterRange(48, 50, 0.5)).run(1).get(0);
+            assertSameResult(inSample, window.getInSample());
+
+            StrategyVariant outOfSample = new StrategyVariant(strategy, rule, inSample.getStopLoss(),
+                    inSample.getTakeProfit(), inSample.getAssetPrice(),
+                    period(window.getTestStart(), window.getTestEnd()), new TradeLog());
+            QuoteCursor quotes = history.openCursor(window.getTestStart(), window.getTestEnd().minusNanos(1),
+                    Asset.GOLD);
+            while (quotes.hasNext()) {
+                Quote quote = quotes.next();
+                outOfSample.execute(quote.getType(), quote.getPrice());
+            }
+            outOfSample.finish();
+            assertSameResult(new SweepResult(outOfSample), window.getOutOfSample());
+            assertArrayEquals(outOfSample.getRawReport().getTrades().toBytes(), window.getTrades().toBytes());
+        }
+    }
+
+    @Test
+    public void stitchedReportAddsUpTheTestPeriods() throws Exception {
+        List<WalkForwardWindow> windows = walk();
+
+        RawReport stitched = WalkForward.stitch(windows, FUNDS);
+
+        int trades = 0;
+        double gain = 0;
+        for (WalkForwardWindow window : windows) {
+            RawReport alone = window.getTrades().replay(FUNDS);
+            trades += window.getTrades().size();
+            gain += alone.getCurrentFunds() - FUNDS;
+        }
+        assertTrue(trades > 0);
+        assertEquals(trades, stitched.getWinCount() + stitched.getLossesCount());
+        assertEquals(trades, stitched.getTrades().size());
+        assertEquals(FUNDS + gain, stitched.getCurrentFunds(), 1e-6);
+    }
+
+}
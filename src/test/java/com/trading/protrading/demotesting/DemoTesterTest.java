@@ -0,0 +1,217 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.marketdata.Market;
+import com.trading.protrading.marketdata.TickRingBuffer;
+import com.trading.protrading.marketdata.WaitStrategy;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.model.report.Report;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DemoTesterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 6, 1, 0, 0);
+    private static final int QUOTES = 3000;
+    private static final int TASKS = 20;
+    private TickRingBuffer ring;
+    private Market market;
+    private RealTimeStrategyTestingTasksStorage storage;
+    private List<DemoTester> testers;
+
+    @BeforeEach
+    public void setUp() {
+        ring = new TickRingBuffer(4, WaitStrategy.YIELD);
+        market = mock(Market.class);
+        when(market.readTicks()).thenAnswer(invocation -> ring.newConsumer());
+        storage = new RealTimeStrategyTestingTasksStorage(1);
+        testers = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        for (DemoTester tester : testers) {
+            tester.shutdown();
+            tester.join();
+        }
+    }
+
+    private DemoTester startTester(int shard) {
+        DemoTester tester = new DemoTester(shard, market, storage);
+        testers.add(tester);
+        tester.start();
+        return tester;
+    }
+
+    private static Quote quote(int minute) {
+        return new Quote(Asset.GOLD, 50, QuoteType.BUY, START.plusMinutes(minute));
+    }
+
+    private static TestConfiguration configuration(String name, int minutes) {
+        return new TestConfiguration("user", name, Asset.GOLD, START, START.plusMinutes(minutes), 1000, 100);
+    }
+
+    private RecordingStrategy enableRecording(String name) throws Exception {
+        RecordingStrategy strategy = new RecordingStrategy(name);
+        storage.enableStrategy(strategy, configuration(name, QUOTES * 2), UUID.randomUUID(),
+                mock(ReportRepository.class));
+        return strategy;
+    }
+
+    /*  Moves random numbers of tasks between the two shards for as long as the feed runs. A task moves
+        after a quote and catches up at the next one, so two more quotes follow: the first lets the
+        shards take up the last requests, the second lets the tasks moved by them catch up. */
+    private void rebalanceWhile(Thread feed, List<DemoTester> shards) throws InterruptedException {
+        Random random = new Random(7);
+        while (feed.isAlive()) {
+            int from = random.nextInt(2);
+            shards.get(from).requestMove(1 - from, 1 + random.nextInt(TASKS));
+            Thread.sleep(1);
+        }
+        feed.join();
+        ring.publish(quote(QUOTES));
+        ring.publish(quote(QUOTES + 1));
+    }
+
+    private static void awaitLastQuote(RecordingStrategy strategy) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline && !strategy.minutes.contains(QUOTES + 1)) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Records the minutes of the quotes its task ran on and the testers that ran it
+    private static class RecordingStrategy extends Strategy {
+        private final List<Integer> minutes;
+        private final Set<String> testers;
+
+        RecordingStrategy(String name) {
+            super(name, new HashSet<>());
+            this.minutes = new CopyOnWriteArrayList<>();
+            this.testers = ConcurrentHashMap.newKeySet();
+        }
+
+        @Override
+        public void execute(Quote quote, StrategyTestTask test) {
+            minutes.add((int) Duration.between(START, quote.getDate()).toMinutes());
+            testers.add(Thread.currentThread().getName());
+        }
+    }
+
+    @Test
+    public void throwingTaskIsStoppedWithoutStoppingTheOtherTasksOrTheFeed() throws Exception {
+        ReportRepository failing = mock(ReportRepository.class);
+        when(failing.save(any(Report.class))).thenThrow(new IllegalStateException("Database is down"));
+        ReportRepository working = mock(ReportRepository.class);
+        storage.enableStrategy(new Strategy("failing", new HashSet<>()), configuration("failing", 1),
+                UUID.randomUUID(), failing);
+        storage.enableStrategy(new Strategy("working", new HashSet<>()), configuration("working", 100),
+                UUID.randomUUID(), working);
+        startTester(0);
+
+        // many times the ring, the feed would stall for good behind a tester that stopped reading
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int minute = 0; minute <= 100; minute++) {
+                ring.publish(quote(minute));
+            }
+        });
+
+        verify(working, timeout(5000)).save(any(Report.class));
+        assertFalse(storage.isRunning("user", "failing"));
+    }
+
+    @Test
+    public void movedTaskSeesEveryQuoteExactlyOnce() throws Exception {
+        storage = new RealTimeStrategyTestingTasksStorage(2);
+        List<RecordingStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            strategies.add(enableRecording("strategy" + i));
+        }
+        List<DemoTester> shards = List.of(startTester(0), startTester(1));
+        Thread feed = new Thread(() -> {
+            for (int minute = 0; minute < QUOTES; minute++) {
+                ring.publish(quote(minute));
+            }
+        });
+        feed.start();
+
+        rebalanceWhile(feed, shards);
+
+        List<Integer> every = new ArrayList<>();
+        for (int minute = 0; minute < QUOTES + 2; minute++) {
+            every.add(minute);
+        }
+        for (RecordingStrategy strategy : strategies) {
+            awaitLastQuote(strategy);
+            assertEquals(every, strategy.minutes);
+        }
+        assertTrue(strategies.stream().anyMatch(strategy -> strategy.testers.size() == 2));
+    }
+
+    @Test
+    public void taskArrivingMidStreamRunsOnEveryLaterQuoteOnce() throws Exception {
+        storage = new RealTimeStrategyTestingTasksStorage(2);
+        List<RecordingStrategy> strategies = new CopyOnWriteArrayList<>();
+        List<Integer> enabledAfter = new CopyOnWriteArrayList<>();
+        List<DemoTester> shards = List.of(startTester(0), startTester(1));
+        Thread feed = new Thread(() -> {
+            try {
+                for (int minute = 0; minute < QUOTES; minute++) {
+                    ring.publish(quote(minute));
+                    if (minute % (QUOTES / 2 / TASKS) == 0 && strategies.size() < TASKS) {
+                        strategies.add(enableRecording("strategy" + minute));
+                        enabledAfter.add(minute);
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        feed.start();
+
+        rebalanceWhile(feed, shards);
+
+        assertEquals(TASKS, strategies.size());
+        for (int i = 0; i < TASKS; i++) {
+            RecordingStrategy strategy = strategies.get(i);
+            awaitLastQuote(strategy);
+            List<Integer> minutes = strategy.minutes;
+            // a shard behind the feed starts the task earlier, never later than the next quote
+            int first = minutes.get(0);
+            assertTrue(first <= enabledAfter.get(i) + 1);
+            for (int j = 0; j < minutes.size(); j++) {
+                assertEquals(first + j, (int) minutes.get(j));
+            }
+            assertEquals(QUOTES + 1, (int) minutes.get(minutes.size() - 1));
+        }
+        assertTrue(strategies.get(TASKS - 1).minutes.get(0) > 0);
+    }
+
+}
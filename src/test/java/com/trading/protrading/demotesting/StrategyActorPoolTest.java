@@ -0,0 +1,119 @@
+package com.trading.protrading.demotesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.marketdata.Market;
+import com.trading.protrading.marketdata.OverflowPolicy;
+import com.trading.protrading.marketdata.QuoteHandler;
+import com.trading.protrading.marketdata.QuoteSubscription;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import com.trading.protrading.strategytesting.StrategyTestTask;
+import com.trading.protrading.strategytesting.TestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StrategyActorPoolTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 6, 1, 0, 0);
+    private RealTimeStrategyTestingTasksStorage storage;
+    private Map<String, QuoteHandler> actors;
+    private Map<String, QuoteSubscription> mailboxes;
+    private StrategyActorPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new RealTimeStrategyTestingTasksStorage(1);
+        actors = new ConcurrentHashMap<>();
+        mailboxes = new ConcurrentHashMap<>();
+        Market market = mock(Market.class);
+        // every actor gets a mailbox of its own, the test hands the quotes to the actors itself
+        when(market.subscribe(any(), anyInt(), any(OverflowPolicy.class), any(QuoteHandler.class), any(Executor.class)))
+                .thenAnswer(invocation -> {
+                    QuoteSubscription mailbox = mock(QuoteSubscription.class);
+                    StrategyActor actor = invocation.getArgument(3);
+                    String name = actor.getTask().getTask().getIdentifier().getStrategyName();
+                    actors.put(name, actor);
+                    mailboxes.put(name, mailbox);
+                    return mailbox;
+                });
+        pool = new StrategyActorPool(market, storage, 64, OverflowPolicy.DROP_OLDEST, 1);
+        pool.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static Quote quote(int minute) {
+        return new Quote(Asset.GOLD, 50, QuoteType.BUY, START.plusMinutes(minute));
+    }
+
+    private CountingStrategy enable(String name, boolean failing) throws Exception {
+        CountingStrategy strategy = new CountingStrategy(name, failing);
+        storage.enableStrategy(strategy, new TestConfiguration("user", name, Asset.GOLD, START,
+                START.plusMinutes(100), 1000, 100), UUID.randomUUID(), mock(ReportRepository.class));
+        return strategy;
+    }
+
+    // Counts the quotes its task ran on, and throws on every one of them if failing
+    private static class CountingStrategy extends Strategy {
+        private final boolean failing;
+        private final AtomicInteger executed;
+
+        CountingStrategy(String name, boolean failing) {
+            super(name, new HashSet<>());
+            this.failing = failing;
+            this.executed = new AtomicInteger();
+        }
+
+        @Override
+        public void execute(Quote quote, StrategyTestTask test) {
+            executed.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("Strategy failed");
+            }
+        }
+    }
+
+    @Test
+    public void throwingActorIsStoppedWithoutStoppingTheOthers() throws Exception {
+        CountingStrategy failing = enable("failing", true);
+        CountingStrategy working = enable("working", false);
+
+        for (int minute = 0; minute < 10; minute++) {
+            actors.get("failing").handle(quote(minute));
+            actors.get("working").handle(quote(minute));
+        }
+
+        // it failed once, then was dropped along with its mailbox
+        assertEquals(1, failing.executed.get());
+        assertFalse(storage.isRunning("user", "failing"));
+        verify(mailboxes.get("failing")).cancel();
+        assertEquals(10, working.executed.get());
+        assertTrue(storage.isRunning("user", "working"));
+        verify(mailboxes.get("working"), never()).cancel();
+    }
+
+}
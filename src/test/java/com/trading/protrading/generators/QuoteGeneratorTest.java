@@ -9,7 +9,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -90,4 +93,20 @@ public class QuoteGeneratorTest {
 
     }
 
+    @Test
+    public void generateQuotesIsReproducibleForASeedAndStaysWithinItsAssets() {
+        List<Quote> first = new ArrayList<>();
+        List<Quote> second = new ArrayList<>();
+        new QuoteGenerator(EnumSet.of(Asset.GOLD, Asset.PETROL), 42).generateQuotes(100, first::add);
+        new QuoteGenerator(EnumSet.of(Asset.GOLD, Asset.PETROL), 42).generateQuotes(100, second::add);
+
+        assertEquals(100, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertTrue(first.get(i).getAsset() != Asset.SILVER, "Quote of an asset outside the generator");
+            assertEquals(first.get(i).getAsset(), second.get(i).getAsset());
+            assertEquals(first.get(i).getType(), second.get(i).getType());
+            assertEquals(first.get(i).getPrice(), second.get(i).getPrice());
+        }
+    }
+
 }
@@ -0,0 +1,110 @@
+package com.trading.protrading.marketdata;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.trading.protrading.adapters.LocalDateAdapter;
+import com.trading.protrading.adapters.LocalDateTimeAdapter;
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ArchiveConverterTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 6, 3);
+    private static final LocalDate SECOND_DAY = FIRST_DAY.plusDays(1);
+    private static final LocalDate THIRD_DAY = FIRST_DAY.plusDays(2);
+
+    @TempDir
+    Path directory;
+
+    // The format LegacyQuoteReader reads: a length-prefixed Gson date, then that day's quotes
+    private static void writeLegacy(Path path, Map<LocalDate, List<Quote>> days) throws IOException {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(path))) {
+            for (Map.Entry<LocalDate, List<Quote>> day : days.entrySet()) {
+                writeRecord(dos, gson.toJson(day.getKey()));
+                writeRecord(dos, gson.toJson(day.getValue()));
+            }
+        }
+    }
+
+    private static void writeRecord(DataOutputStream dos, String record) throws IOException {
+        byte[] bytes = record.getBytes();
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    // Legacy files keep whole seconds only
+    private static Map<LocalDate, List<Quote>> legacyDays() {
+        Map<LocalDate, List<Quote>> days = new LinkedHashMap<>();
+        days.put(FIRST_DAY, List.of(
+                new Quote(Asset.GOLD, 20.5, QuoteType.BUY, FIRST_DAY.atTime(3, 30, 30)),
+                new Quote(Asset.GOLD, 20.75, QuoteType.SELL, FIRST_DAY.atTime(3, 31))));
+        days.put(SECOND_DAY, List.of(
+                new Quote(Asset.GOLD, 21.25, QuoteType.SELL, SECOND_DAY.atTime(4, 0, 15))));
+        return days;
+    }
+
+    private static void assertSameQuotes(List<Quote> expected, List<Quote> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAsset(), actual.get(i).getAsset());
+            assertEquals(expected.get(i).getPrice(), actual.get(i).getPrice());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+        }
+    }
+
+    @Test
+    public void legacyMonthFileIsReplacedByASegment() throws IOException {
+        Path legacy = directory.resolve("gold2020-06");
+        Map<LocalDate, List<Quote>> days = legacyDays();
+        writeLegacy(legacy, days);
+
+        int converted = new ArchiveConverter().convertDirectory(directory);
+
+        assertEquals(1, converted);
+        assertFalse(Files.exists(legacy));
+        Path segment = directory.resolve("gold2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        Map<LocalDate, List<Quote>> segmentDays = new QuoteSegmentReader(Asset.GOLD).readDays(segment);
+        assertEquals(days.keySet(), segmentDays.keySet());
+        for (LocalDate day : days.keySet()) {
+            assertSameQuotes(days.get(day), segmentDays.get(day));
+        }
+        // nothing is left to convert
+        assertEquals(0, new ArchiveConverter().convertDirectory(directory));
+    }
+
+    @Test
+    public void daysArchivedSinceTheUpgradeAreKept() throws IOException {
+        Path segment = directory.resolve("gold2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        List<Quote> newer = List.of(new Quote(Asset.GOLD, 22, QuoteType.BUY, THIRD_DAY.atTime(9, 0)));
+        new QuoteSegmentWriter().write(segment, THIRD_DAY, newer);
+        writeLegacy(directory.resolve("gold2020-06"), legacyDays());
+
+        new ArchiveConverter().convertDirectory(directory);
+
+        Map<LocalDate, List<Quote>> segmentDays = new QuoteSegmentReader(Asset.GOLD).readDays(segment);
+        assertEquals(List.of(FIRST_DAY, SECOND_DAY, THIRD_DAY), List.copyOf(segmentDays.keySet()));
+        assertSameQuotes(newer, segmentDays.get(THIRD_DAY));
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Quote;
+
+import java.time.LocalDateTime;
+
+// Follows another cursor and breaks off after a number of quotes, as reading a corrupt segment would
+public class FailingQuoteCursor extends QuoteCursor {
+
+    private final QuoteCursor cursor;
+    private final int failAfter;
+    private int read;
+    private boolean closed;
+
+    public FailingQuoteCursor(QuoteCursor cursor, LocalDateTime start, LocalDateTime end, int failAfter) {
+        super(null, null, start, end);
+        this.cursor = cursor;
+        this.failAfter = failAfter;
+    }
+
+    @Override
+    public void setZoneFilter(ZoneFilter zoneFilter) {
+        cursor.setZoneFilter(zoneFilter);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        cursor.close();
+    }
+
+    @Override
+    public long getSkippedCount() {
+        return cursor.getSkippedCount();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (read == failAfter) {
+            throw new IllegalStateException("Corrupt quote block");
+        }
+        return cursor.hasNext();
+    }
+
+    @Override
+    public Quote next() {
+        hasNext();
+        read++;
+        return cursor.next();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.generators.QuoteGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FeedWorkerTest {
+
+    // a tick every 10ms, at most 10 in a batch
+    private static final double TICKS_PER_SECOND = 100;
+    private static final int MAXIMUM_BATCH = 10;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long START = TimeUnit.SECONDS.toNanos(1000);
+    private AtomicLong received;
+    private FeedRateMeter rateMeter;
+    private FeedWorker worker;
+
+    @BeforeEach
+    public void setUp() {
+        received = new AtomicLong();
+        rateMeter = new FeedRateMeter(TICKS_PER_SECOND);
+        worker = new FeedWorker(new QuoteGenerator(Set.of(Asset.GOLD), 1), TICKS_PER_SECOND,
+                quote -> received.incrementAndGet(), rateMeter);
+    }
+
+    // Halfway between two ticks, so rounding never decides what is due
+    private static long at(long ticks) {
+        return START + ticks * TICK_NANOS + TICK_NANOS / 2;
+    }
+
+    @Test
+    public void runOnTimeProducesEveryTickAndMissesNone() {
+        for (int tick = 0; tick < 100; tick++) {
+            worker.produceDueQuotes(at(tick));
+        }
+
+        assertEquals(100, received.get());
+        assertEquals(100, rateMeter.getProducedCount());
+        assertEquals(0, rateMeter.getMissedCount());
+    }
+
+    @Test
+    public void lateRunCapsTheBatchAndCountsTheRestAsMissed() {
+        worker.produceDueQuotes(at(0));
+        assertEquals(1, received.get());
+
+        // 100 more ticks fell due while the worker did not run
+        worker.produceDueQuotes(at(100));
+
+        assertEquals(1 + MAXIMUM_BATCH, received.get());
+        assertEquals(1 + MAXIMUM_BATCH, rateMeter.getProducedCount());
+        assertEquals(100 - MAXIMUM_BATCH, rateMeter.getMissedCount());
+
+        // the shortfall is not made up by a burst later on
+        worker.produceDueQuotes(at(100));
+        assertEquals(1 + MAXIMUM_BATCH, received.get());
+        worker.produceDueQuotes(at(101));
+        assertEquals(2 + MAXIMUM_BATCH, received.get());
+        assertEquals(100 - MAXIMUM_BATCH, rateMeter.getMissedCount());
+    }
+
+    @Test
+    public void neverProducesMoreThanWasDue() {
+        Random random = new Random(3);
+        long tick = 0;
+        // the feed's clock starts with its first run
+        worker.produceDueQuotes(at(0));
+        for (int run = 0; run < 1000; run++) {
+            tick += random.nextInt(4) == 0 ? random.nextInt(40) : random.nextInt(2);
+            worker.produceDueQuotes(at(tick));
+
+            long due = tick + 1;
+            assertTrue(received.get() <= due);
+            // every due tick is either produced or missed, exactly once
+            assertEquals(due, rateMeter.getProducedCount() + rateMeter.getMissedCount());
+            assertEquals(received.get(), rateMeter.getProducedCount());
+        }
+        assertTrue(rateMeter.getMissedCount() > 0);
+    }
+
+}
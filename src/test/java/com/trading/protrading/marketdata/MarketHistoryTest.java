@@ -7,12 +7,13 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
 
 public class MarketHistoryTest {
 
     @Test
     public void getQuotesWithEndDateToday() {
-        MarketHistory marketHistory = new MarketHistory();
+        MarketHistory marketHistory = new MarketHistory(mock(MarketDataBus.class));
         LocalDateTime end = LocalDateTime.now();
         LocalDateTime start = end.minusDays(1);
         assertThrows(InvalidPeriodException.class,
@@ -21,7 +22,7 @@ public class MarketHistoryTest {
 
     @Test
     public void getQuotesWithStartDateToday() {
-        MarketHistory marketHistory = new MarketHistory();
+        MarketHistory marketHistory = new MarketHistory(mock(MarketDataBus.class));
         LocalDateTime start = LocalDateTime.now();
         LocalDateTime end = start.plusDays(1);
         assertThrows(InvalidPeriodException.class,
@@ -30,7 +31,7 @@ public class MarketHistoryTest {
 
     @Test
     public void getQuotesWithEndDateBeforeStart() {
-        MarketHistory marketHistory = new MarketHistory();
+        MarketHistory marketHistory = new MarketHistory(mock(MarketDataBus.class));
         LocalDateTime start = LocalDateTime.of(2020, 6, 3, 3, 30, 30);
         LocalDateTime end = start.minusDays(1);
         assertThrows(InvalidPeriodException.class,
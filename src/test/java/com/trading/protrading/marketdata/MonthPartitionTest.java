@@ -0,0 +1,38 @@
+package com.trading.protrading.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MonthPartitionTest {
+
+    @Test
+    public void planCoversEveryMonthOnceWithItsDaysOfTheRange() {
+        List<MonthPartition> partitions = MonthPartition.plan(LocalDate.of(2020, 2, 10), LocalDate.of(2020, 5, 9));
+
+        assertEquals(4, partitions.size());
+        assertEquals(YearMonth.of(2020, 2), partitions.get(0).getMonth());
+        assertEquals(LocalDate.of(2020, 2, 10), partitions.get(0).getStart());
+        assertEquals(LocalDate.of(2020, 2, 29), partitions.get(0).getEnd());
+        assertEquals(LocalDate.of(2020, 3, 1), partitions.get(1).getStart());
+        assertEquals(LocalDate.of(2020, 3, 31), partitions.get(1).getEnd());
+        assertEquals(LocalDate.of(2020, 5, 1), partitions.get(3).getStart());
+        assertEquals(LocalDate.of(2020, 5, 9), partitions.get(3).getEnd());
+    }
+
+    @Test
+    public void planOfASingleDayIsOnePartition() {
+        LocalDate day = LocalDate.of(2020, 3, 3);
+
+        List<MonthPartition> partitions = MonthPartition.plan(day, day);
+
+        assertEquals(1, partitions.size());
+        assertEquals(day, partitions.get(0).getStart());
+        assertEquals(day, partitions.get(0).getEnd());
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class QuoteCursorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void cursorStreamsQuotesAcrossMonthsWithinRange() throws IOException {
+        QuoteSegmentWriter writer = new QuoteSegmentWriter();
+        LocalDate lastDayOfMay = LocalDate.of(2020, 5, 31);
+        LocalDate firstDayOfJune = LocalDate.of(2020, 6, 1);
+        writer.write(directory.resolve("gold2020-05" + QuoteSegmentFormat.FILE_EXTENSION), lastDayOfMay, List.of(
+                new Quote(Asset.GOLD, 50.1, QuoteType.BUY, lastDayOfMay.atTime(10, 0)),
+                new Quote(Asset.GOLD, 50.2, QuoteType.SELL, lastDayOfMay.atTime(11, 0))));
+        writer.write(directory.resolve("gold2020-06" + QuoteSegmentFormat.FILE_EXTENSION), firstDayOfJune, List.of(
+                new Quote(Asset.GOLD, 50.3, QuoteType.BUY, firstDayOfJune.atTime(10, 0)),
+                new Quote(Asset.GOLD, 50.4, QuoteType.SELL, firstDayOfJune.atTime(11, 0))));
+
+        Archive archive = new Archive(Asset.GOLD, directory);
+        QuoteCursor cursor = archive.openCursor(LocalDateTime.of(2020, 5, 31, 10, 30),
+                LocalDateTime.of(2020, 6, 1, 10, 0));
+
+        List<Double> prices = new ArrayList<>();
+        while (cursor.hasNext()) {
+            prices.add(cursor.next().getPrice());
+        }
+        assertEquals(List.of(50.2, 50.3), prices);
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void cursorSkipsZonesRuledOutByTheFilter() throws IOException {
+        LocalDate day = LocalDate.of(2020, 5, 20);
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QuoteZone.ZONE_SIZE * 3; i++) {
+            double price = i / QuoteZone.ZONE_SIZE == 1 ? 60 : 40;
+            quotes.add(new Quote(Asset.GOLD, price, QuoteType.BUY, day.atStartOfDay().plusSeconds(i)));
+        }
+        new QuoteSegmentWriter().write(directory.resolve("gold2020-05" + QuoteSegmentFormat.FILE_EXTENSION),
+                day, quotes);
+
+        Archive archive = new Archive(Asset.GOLD, directory);
+        QuoteCursor cursor = archive.openCursor(day.atStartOfDay(), day.atTime(23, 0));
+        cursor.setZoneFilter(zone -> zone.getMaximumBuyPrice() > 50);
+
+        int count = 0;
+        while (cursor.hasNext()) {
+            assertEquals(60, cursor.next().getPrice());
+            count++;
+        }
+        assertEquals(QuoteZone.ZONE_SIZE, count);
+        assertEquals(QuoteZone.ZONE_SIZE * 2, cursor.getSkippedCount());
+    }
+
+    @Test
+    public void fillReturnsTheQuotesOfTheRangeAsColumns() throws IOException {
+        LocalDate day = LocalDate.of(2020, 5, 20);
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QuoteZone.ZONE_SIZE * 3; i++) {
+            QuoteType type = i % 3 == 0 ? QuoteType.SELL : QuoteType.BUY;
+            quotes.add(new Quote(Asset.GOLD, 40 + i / 100.0, type, day.atStartOfDay().plusSeconds(i)));
+        }
+        new QuoteSegmentWriter().write(directory.resolve("gold2020-05" + QuoteSegmentFormat.FILE_EXTENSION),
+                day, quotes);
+
+        Archive archive = new Archive(Asset.GOLD, directory);
+        LocalDateTime start = day.atStartOfDay().plusSeconds(10);
+        LocalDateTime end = day.atStartOfDay().plusSeconds(QuoteZone.ZONE_SIZE * 2);
+        QuoteCursor expected = archive.openCursor(start, end);
+        QuoteCursor cursor = archive.openCursor(start, end);
+        QuoteColumns columns = new QuoteColumns(500);
+
+        int total = 0;
+        int count = cursor.fill(columns);
+        while (count > 0) {
+            for (int i = 0; i < count; i++) {
+                Quote quote = expected.next();
+                assertEquals(QuoteSegmentFormat.toEpochMillis(quote.getDate()), columns.getTimestamps()[i]);
+                assertEquals(quote.getPrice(), columns.getPrices()[i]);
+                assertEquals(quote.getType(), QuoteSegmentFormat.toType(columns.getTypes()[i]));
+            }
+            total += count;
+            count = cursor.fill(columns);
+        }
+        assertFalse(expected.hasNext());
+        assertEquals(QuoteZone.ZONE_SIZE * 2 - 9, total);
+    }
+
+    @Test
+    public void fillEndsEachBatchWithItsZoneWhenFiltered() throws IOException {
+        LocalDate day = LocalDate.of(2020, 5, 20);
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QuoteZone.ZONE_SIZE * 3; i++) {
+            quotes.add(new Quote(Asset.GOLD, 40, QuoteType.BUY, day.atStartOfDay().plusSeconds(i)));
+        }
+        new QuoteSegmentWriter().write(directory.resolve("gold2020-05" + QuoteSegmentFormat.FILE_EXTENSION),
+                day, quotes);
+
+        Archive archive = new Archive(Asset.GOLD, directory);
+        QuoteCursor cursor = archive.openCursor(day.atStartOfDay(), day.atTime(23, 0));
+        List<Integer> zonesSeen = new ArrayList<>();
+        cursor.setZoneFilter(zone -> zonesSeen.add(zone.getCount()));
+        QuoteColumns columns = new QuoteColumns(QuoteZone.ZONE_SIZE * 3);
+
+        assertEquals(QuoteZone.ZONE_SIZE, cursor.fill(columns));
+        assertEquals(1, zonesSeen.size());
+        assertEquals(QuoteZone.ZONE_SIZE, cursor.fill(columns));
+        assertEquals(QuoteZone.ZONE_SIZE, cursor.fill(columns));
+        assertEquals(0, cursor.fill(columns));
+        assertEquals(3, zonesSeen.size());
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QuoteSegmentReaderTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 6, 3);
+    private static final LocalDate SECOND_DAY = FIRST_DAY.plusDays(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readReturnsOnlyDaysInRange() throws IOException {
+        Path segment = directory.resolve("gold2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        QuoteSegmentWriter writer = new QuoteSegmentWriter();
+        writer.write(segment, FIRST_DAY, List.of(
+                new Quote(Asset.GOLD, 20.5, QuoteType.BUY, FIRST_DAY.atTime(3, 30, 30))));
+        writer.write(segment, SECOND_DAY, List.of(
+                new Quote(Asset.GOLD, 21.25, QuoteType.SELL, SECOND_DAY.atTime(4, 0, 0, 125_000_000)),
+                new Quote(Asset.GOLD, 19.75, QuoteType.BUY, SECOND_DAY.atTime(5, 0))));
+
+        List<Quote> quotes = new QuoteSegmentReader(Asset.GOLD).read(segment, SECOND_DAY, SECOND_DAY);
+
+        assertEquals(2, quotes.size());
+        Quote first = quotes.get(0);
+        assertEquals(Asset.GOLD, first.getAsset());
+        assertEquals(21.25, first.getPrice());
+        assertEquals(QuoteType.SELL, first.getType());
+        assertEquals(LocalDateTime.of(2020, 6, 4, 4, 0, 0, 125_000_000), first.getDate());
+        assertEquals(QuoteType.BUY, quotes.get(1).getType());
+    }
+
+    @Test
+    public void readWithRangeOutsideSegmentIsEmpty() throws IOException {
+        Path segment = directory.resolve("silver2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        new QuoteSegmentWriter().write(segment, FIRST_DAY, List.of(
+                new Quote(Asset.SILVER, 0.53, QuoteType.BUY, FIRST_DAY.atTime(12, 0))));
+
+        List<Quote> quotes = new QuoteSegmentReader(Asset.SILVER)
+                .read(segment, SECOND_DAY, SECOND_DAY.plusDays(3));
+
+        assertTrue(quotes.isEmpty(), "No block in the segment falls within the range");
+    }
+
+    @Test
+    public void readRebuildsMissingIndex() throws IOException {
+        Path segment = directory.resolve("petrol2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        QuoteSegmentWriter writer = new QuoteSegmentWriter();
+        writer.write(segment, FIRST_DAY, List.of(
+                new Quote(Asset.PETROL, 42.66, QuoteType.BUY, FIRST_DAY.atTime(9, 0))));
+        writer.write(segment, SECOND_DAY, List.of(
+                new Quote(Asset.PETROL, 43.1, QuoteType.SELL, SECOND_DAY.atTime(9, 0))));
+        Files.delete(QuoteSegmentIndex.getPath(segment));
+
+        List<Quote> quotes = new QuoteSegmentReader(Asset.PETROL).read(segment, SECOND_DAY, SECOND_DAY);
+
+        assertEquals(1, quotes.size());
+        assertEquals(43.1, quotes.get(0).getPrice());
+        assertTrue(Files.exists(QuoteSegmentIndex.getPath(segment)), "The index should be written back");
+    }
+
+    @Test
+    public void readDecodesCompressedBlocksAcrossZones() throws IOException {
+        Path segment = directory.resolve("gold2020-06" + QuoteSegmentFormat.FILE_EXTENSION);
+        List<Quote> written = new ArrayList<>();
+        for (int i = 0; i < QuoteZone.ZONE_SIZE * 2 + 5; i++) {
+            QuoteType type = i % 3 == 0 ? QuoteType.SELL : QuoteType.BUY;
+            double price = (5000 + (i * 37) % 200 - 100) / 100.0;
+            written.add(new Quote(Asset.GOLD, price, type, FIRST_DAY.atStartOfDay().plusNanos(i * 7_000_000L)));
+        }
+        new QuoteSegmentWriter().write(segment, FIRST_DAY, written);
+
+        SegmentBlock block = QuoteSegment.open(segment).getBlocks(FIRST_DAY, FIRST_DAY).get(0);
+        List<Quote> quotes = new QuoteSegmentReader(Asset.GOLD).read(segment, FIRST_DAY, FIRST_DAY);
+
+        assertEquals(QuoteBlockCodec.DELTA_VARINT, block.getCodec());
+        assertEquals(written.size(), quotes.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(written.get(i).getPrice(), quotes.get(i).getPrice());
+            assertEquals(written.get(i).getType(), quotes.get(i).getType());
+            assertEquals(written.get(i).getDate(), quotes.get(i).getDate());
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class QuoteSubscriptionTest {
+
+    private static final int QUOTES = 200;
+    private static final int OTHERS = 8;
+    private MarketDataBus bus;
+
+    @BeforeEach
+    public void setUp() {
+        bus = new MarketDataBus(mock(DataSupplier.class));
+    }
+
+    private static Quote quote(Asset asset, double price) {
+        return new Quote(asset, price, QuoteType.BUY, LocalDateTime.now());
+    }
+
+    @Test
+    public void subscriptionReceivesOnlyItsAssetsInSequence() throws InterruptedException {
+        QuoteSubscription subscription = bus.subscribe(EnumSet.of(Asset.GOLD), 4, OverflowPolicy.BLOCK);
+        bus.publish(quote(Asset.GOLD, 1));
+        bus.publish(quote(Asset.SILVER, 2));
+        bus.publish(quote(Asset.GOLD, 3));
+
+        assertEquals(1, subscription.take().getPrice());
+        assertEquals(1, subscription.getLastSequence());
+        assertEquals(3, subscription.take().getPrice());
+        assertEquals(3, subscription.getLastSequence());
+        assertNull(subscription.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void dropOldestKeepsTheNewestQuotes() throws InterruptedException {
+        QuoteSubscription subscription = bus.subscribe(EnumSet.of(Asset.GOLD), 2, OverflowPolicy.DROP_OLDEST);
+        bus.publish(quote(Asset.GOLD, 1));
+        bus.publish(quote(Asset.GOLD, 2));
+        bus.publish(quote(Asset.GOLD, 3));
+
+        assertEquals(1, subscription.getDroppedCount());
+        assertEquals(2, subscription.take().getPrice());
+        assertEquals(3, subscription.take().getPrice());
+    }
+
+    @Test
+    public void conflateKeepsTheLatestQuotePerAsset() throws InterruptedException {
+        QuoteSubscription subscription = bus.subscribe(EnumSet.allOf(Asset.class), 1, OverflowPolicy.CONFLATE);
+        bus.publish(quote(Asset.GOLD, 1));
+        bus.publish(quote(Asset.SILVER, 2));
+        bus.publish(quote(Asset.GOLD, 3));
+
+        assertEquals(3, subscription.take().getPrice());
+        assertEquals(2, subscription.take().getPrice());
+        assertEquals(1, subscription.getDroppedCount());
+    }
+
+    @Test
+    public void interruptOnAFullSubscriptionStillDeliversToTheOthers() throws InterruptedException {
+        QuoteSubscription full = bus.subscribe(EnumSet.of(Asset.GOLD), 1, OverflowPolicy.BLOCK);
+        QuoteSubscription other = bus.subscribe(EnumSet.of(Asset.GOLD), 4, OverflowPolicy.BLOCK);
+        bus.publish(quote(Asset.GOLD, 1));
+
+        Thread.currentThread().interrupt();
+        bus.publish(quote(Asset.GOLD, 2));
+
+        // the interrupt is passed on to the feed thread once every subscription had its turn
+        assertTrue(Thread.interrupted());
+        assertEquals(1, other.take().getPrice());
+        assertEquals(2, other.take().getPrice());
+        assertEquals(1, full.take().getPrice());
+        assertNull(full.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void executorDeliveryHandsTheQuotesOverInSequence() {
+        List<Double> prices = new ArrayList<>();
+        bus.subscribe(EnumSet.of(Asset.GOLD), 4, OverflowPolicy.BLOCK, quote -> prices.add(quote.getPrice()),
+                Runnable::run);
+        bus.publish(quote(Asset.GOLD, 1));
+        bus.publish(quote(Asset.SILVER, 2));
+        bus.publish(quote(Asset.GOLD, 3));
+
+        assertEquals(List.of(1.0, 3.0), prices);
+    }
+
+    @Test
+    public void cancelledSubscriptionStopsReceiving() throws InterruptedException {
+        QuoteSubscription subscription = bus.subscribe(EnumSet.of(Asset.GOLD), 2, OverflowPolicy.BLOCK);
+        subscription.cancel();
+        bus.publish(quote(Asset.GOLD, 1));
+
+        assertNull(subscription.take());
+    }
+
+    // OTHERS subscriptions sharing two threads with a misbehaving one, each counts down once per quote
+    private CountDownLatch subscribeOthers(ExecutorService executor) {
+        CountDownLatch received = new CountDownLatch(QUOTES * OTHERS);
+        for (int i = 0; i < OTHERS; i++) {
+            bus.subscribe(EnumSet.of(Asset.GOLD), QUOTES, OverflowPolicy.DROP_OLDEST, quote -> received.countDown(),
+                    executor);
+        }
+        return received;
+    }
+
+    private void publishGold() {
+        for (int i = 0; i < QUOTES; i++) {
+            bus.publish(quote(Asset.GOLD, i));
+        }
+    }
+
+    @Test
+    public void slowSubscriptionDoesNotHoldBackTheOthers() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            bus.subscribe(EnumSet.of(Asset.GOLD), QUOTES, OverflowPolicy.DROP_OLDEST, quote -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor);
+            CountDownLatch received = subscribeOthers(executor);
+
+            publishGold();
+
+            // everybody else is served while the slow one still holds its thread
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            assertEquals(1, release.getCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void throwingSubscriptionDoesNotHoldBackTheOthers() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch thrown = new CountDownLatch(QUOTES);
+        try {
+            bus.subscribe(EnumSet.of(Asset.GOLD), QUOTES, OverflowPolicy.DROP_OLDEST, quote -> {
+                thrown.countDown();
+                throw new IllegalStateException("Strategy failed");
+            }, executor);
+            CountDownLatch received = subscribeOthers(executor);
+
+            publishGold();
+
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            // a failure costs the throwing subscription one quote, not the rest of the feed
+            assertTrue(thrown.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancelWhileADrainIsQueuedResetsTheSchedule() {
+        List<Runnable> queued = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        QuoteSubscription subscription = bus.subscribe(EnumSet.of(Asset.GOLD), 4, OverflowPolicy.BLOCK,
+                quote -> prices.add(quote.getPrice()), queued::add);
+        bus.publish(quote(Asset.GOLD, 1));
+        bus.publish(quote(Asset.GOLD, 2));
+        assertTrue(subscription.isScheduled());
+        assertEquals(1, queued.size());
+
+        subscription.cancel();
+        assertFalse(subscription.isScheduled());
+        queued.remove(0).run();
+        bus.publish(quote(Asset.GOLD, 3));
+
+        assertEquals(List.of(), prices);
+        assertFalse(subscription.isScheduled());
+        assertEquals(List.of(), queued);
+    }
+
+    @Test
+    public void rejectedDrainIsScheduledAgainByTheNextQuote() {
+        AtomicInteger rejections = new AtomicInteger(1);
+        List<Double> prices = new ArrayList<>();
+        QuoteSubscription subscription = bus.subscribe(EnumSet.of(Asset.GOLD), 4, OverflowPolicy.BLOCK,
+                quote -> prices.add(quote.getPrice()), drain -> {
+                    if (rejections.getAndDecrement() > 0) {
+                        throw new RejectedExecutionException("Executor is busy");
+                    }
+                    drain.run();
+                });
+        bus.publish(quote(Asset.GOLD, 1));
+        assertFalse(subscription.isScheduled());
+
+        bus.publish(quote(Asset.GOLD, 2));
+
+        assertEquals(List.of(1.0, 2.0), prices);
+        assertFalse(subscription.isScheduled());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.trading.protrading.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class TickBufferTest {
+
+    private static final int TICKS = 200_000;
+
+    @Test
+    public void appendGrowsAcrossChunks() {
+        TickBuffer buffer = new TickBuffer();
+        int count = TickBuffer.CHUNK_SIZE * 5 + 3;
+        for (int i = 0; i < count; i++) {
+            buffer.append(i, i / 100.0, (byte) (i % 2));
+        }
+
+        assertEquals(count, buffer.size());
+        assertEquals(count - 1, buffer.getTimestamp(count - 1));
+        assertEquals((count - 1) / 100.0, buffer.getPrice(count - 1));
+        assertEquals(0, buffer.getType(TickBuffer.CHUNK_SIZE * 2));
+    }
+
+    @Test
+    public void readersSeeEveryPublishedTickWhileWriterAppends() throws InterruptedException {
+        TickBuffer buffer = new TickBuffer();
+        AtomicBoolean inconsistent = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            int seen = 0;
+            while (seen < TICKS) {
+                int size = buffer.size();
+                for (int i = seen; i < size; i++) {
+                    if (buffer.getTimestamp(i) != i || buffer.getPrice(i) != i * 2.0) {
+                        inconsistent.set(true);
+                    }
+                }
+                seen = size;
+            }
+        });
+        reader.start();
+        for (int i = 0; i < TICKS; i++) {
+            buffer.append(i, i * 2.0, (byte) 0);
+        }
+        reader.join();
+
+        assertFalse(inconsistent.get(), "A reader observed a slot before it was written");
+    }
+
+}
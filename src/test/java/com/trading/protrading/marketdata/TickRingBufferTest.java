@@ -0,0 +1,118 @@
+package com.trading.protrading.marketdata;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class TickRingBufferTest {
+
+    private static final int TICKS = 200_000;
+
+    private static Quote quote(double price) {
+        return new Quote(Asset.GOLD, price, QuoteType.BUY, LocalDateTime.now());
+    }
+
+    @Test
+    public void readerGetsTheTicksPublishedAfterItJoined() throws InterruptedException {
+        TickRingBuffer ring = new TickRingBuffer(4, WaitStrategy.YIELD);
+        ring.publish(quote(1));
+        TickRingConsumer reader = ring.newConsumer();
+        Quote second = quote(2);
+        ring.publish(second);
+
+        assertSame(second, reader.take());
+        assertEquals(2, reader.getLastSequence());
+    }
+
+    @Test
+    public void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TickRingBuffer(1000, WaitStrategy.PARK));
+    }
+
+    @Test
+    public void readersFollowTheFeedIndependentlyWithoutLosingTicks() throws InterruptedException {
+        TickRingBuffer ring = new TickRingBuffer(64, WaitStrategy.YIELD);
+        Quote[] quotes = new Quote[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            quotes[i] = quote(i);
+        }
+        AtomicBoolean inconsistent = new AtomicBoolean(false);
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            TickRingConsumer reader = ring.newConsumer();
+            // the last reader is slow, so the feed has to wait for it
+            boolean slow = r == readers.length - 1;
+            readers[r] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < TICKS; i++) {
+                        if (reader.take() != quotes[i] || reader.getLastSequence() != i + 1) {
+                            inconsistent.set(true);
+                        }
+                        if (slow && i % 1000 == 0) {
+                            Thread.sleep(1);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    inconsistent.set(true);
+                }
+            });
+            readers[r].start();
+        }
+        for (Quote quote : quotes) {
+            ring.publish(quote);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertFalse(inconsistent.get(), "A reader missed a tick or saw it out of order");
+    }
+
+    @Test
+    public void cancelledReaderStopsHoldingTheFeedBack() throws InterruptedException {
+        TickRingBuffer ring = new TickRingBuffer(2, WaitStrategy.PARK);
+        TickRingConsumer reader = ring.newConsumer();
+        reader.cancel();
+        for (int i = 0; i < 10; i++) {
+            ring.publish(quote(i));
+        }
+
+        assertNull(reader.take());
+    }
+
+    @Test
+    public void readerAbandonedByItsThreadStopsHoldingTheFeedBack() throws InterruptedException {
+        TickRingBuffer ring = new TickRingBuffer(2, WaitStrategy.YIELD);
+        TickRingConsumer reader = ring.newConsumer();
+        ring.publish(quote(0));
+        Thread abandoning = new Thread(() -> {
+            try {
+                reader.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        abandoning.start();
+        abandoning.join();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 1; i < 100; i++) {
+                ring.publish(quote(i));
+            }
+        });
+        assertNull(reader.take());
+    }
+
+}
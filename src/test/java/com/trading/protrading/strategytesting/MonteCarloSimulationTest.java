@@ -0,0 +1,72 @@
+package com.trading.protrading.strategytesting;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MonteCarloSimulationTest {
+    public static final double DELTA = 0.000001;
+    public static final double STARTING_FUNDS = 1000;
+    public static final int SIMULATIONS = 5000;
+
+    private RawReport report(TradeLog trades) {
+        RawReport report = new RawReport(STARTING_FUNDS, trades);
+        for (int i = 0; i < 200; i++) {
+            report.openPosition(100);
+            report.closePosition(i % 3 == 0 ? 92 : 105);
+        }
+        return report;
+    }
+
+    @Test
+    public void testPermutationKeepsTheTotalReturn() {
+        TradeLog trades = new TradeLog();
+        RawReport report = report(trades);
+
+        MonteCarloReport result = new MonteCarloSimulation(trades, STARTING_FUNDS, ResamplingMode.PERMUTE,
+                SIMULATIONS, 1).run(ForkJoinPool.commonPool());
+
+        assertEquals(report.getCurrentFunds(), result.getTotalReturn().getP5(), DELTA);
+        assertEquals(report.getCurrentFunds(), result.getTotalReturn().getP95(), DELTA);
+        assertTrue(result.getMaxDrawdown().getP5() <= result.getMaxDrawdown().getP95());
+        assertTrue(result.getMaxConsecutiveLosses().getP95() >= 1);
+    }
+
+    @Test
+    public void testSameSeedGivesTheSameBands() {
+        TradeLog trades = new TradeLog();
+        report(trades);
+
+        MonteCarloReport first = new MonteCarloSimulation(trades, STARTING_FUNDS, ResamplingMode.BOOTSTRAP,
+                SIMULATIONS, 42).run(ForkJoinPool.commonPool());
+        ForkJoinPool pool = new ForkJoinPool(3);
+        MonteCarloReport second;
+        try {
+            second = new MonteCarloSimulation(trades, STARTING_FUNDS, ResamplingMode.BOOTSTRAP,
+                    SIMULATIONS, 42).run(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(first.getTotalReturn().getP50(), second.getTotalReturn().getP50(), DELTA);
+        assertEquals(first.getMaxDrawdown().getP95(), second.getMaxDrawdown().getP95(), DELTA);
+        assertTrue(first.getTotalReturn().getP5() < first.getTotalReturn().getP95());
+    }
+
+    @Test
+    public void testWithoutTradesEveryPathKeepsTheFunds() {
+        MonteCarloReport result = new MonteCarloSimulation(new TradeLog(), STARTING_FUNDS, ResamplingMode.BOOTSTRAP,
+                10, 1).run(ForkJoinPool.commonPool());
+
+        assertEquals(0, result.getTrades());
+        assertEquals(STARTING_FUNDS, result.getTotalReturn().getP50(), DELTA);
+        assertEquals(0, result.getMaxDrawdown().getP95(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSimulationsMustBePositive() {
+        new MonteCarloSimulation(new TradeLog(), STARTING_FUNDS, ResamplingMode.PERMUTE, 0, 1);
+    }
+}
@@ -0,0 +1,164 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class StrategyKernelTest {
+    public static final int QUOTES = 4000;
+    public static final int CASES = 200;
+    private final long startMillis = LocalDateTime.of(2020, 3, 2, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    private long[] timestamps;
+    private double[] prices;
+    private byte[] types;
+
+    private void quotes(Random random) {
+        timestamps = new long[QUOTES];
+        prices = new double[QUOTES];
+        types = new byte[QUOTES];
+        long timestamp = startMillis;
+        double price = 50;
+        for (int i = 0; i < QUOTES; i++) {
+            // several quotes may share a millisecond
+            timestamp += random.nextInt(4) == 0 ? 0 : random.nextInt(2000);
+            price = Math.max(1, price + random.nextGaussian());
+            timestamps[i] = timestamp;
+            prices[i] = price;
+            types[i] = (byte) (random.nextBoolean() ? QuoteType.BUY : QuoteType.SELL).ordinal();
+        }
+    }
+
+    private static LocalDateTime toDate(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private Strategy strategy(Random random) {
+        Set<Rule> rules = new LinkedHashSet<>();
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            Predicate predicate = Predicate.values()[random.nextInt(Predicate.values().length)];
+            rules.add(new Rule(new Condition(40 + random.nextInt(200) / 10.0, predicate),
+                    random.nextInt(50) / 10.0, random.nextInt(50) / 10.0));
+        }
+        return new Strategy("GoldStrategy", rules);
+    }
+
+    private TestConfiguration configuration(LocalDateTime end, double funds, double transactionBuyFunds) {
+        return new TestConfiguration("User1", "GoldStrategy", Asset.GOLD, toDate(startMillis), end, funds,
+                transactionBuyFunds);
+    }
+
+    private StrategyTestTask runTask(Strategy strategy, TestConfiguration configuration) {
+        StrategyTestTask task = new StrategyTestTask(configuration, strategy, null, mock(ReportRepository.class));
+        for (int i = 0; i < QUOTES && !task.isFinished(); i++) {
+            task.execute(new Quote(Asset.GOLD, prices[i], QuoteType.values()[types[i]], toDate(timestamps[i])));
+        }
+        if (!task.isFinished()) {
+            task.execute(new Quote(Asset.GOLD, 0, null, configuration.getEnd()));
+        }
+        return task;
+    }
+
+    // Feeds the columns in batches of random sizes, as a cursor refilling them would
+    private StrategyKernel runKernel(Strategy strategy, TestConfiguration configuration, Random random) {
+        StrategyKernel kernel = new StrategyKernel(strategy, configuration, new TradeLog());
+        long[] batchTimestamps = new long[QUOTES];
+        double[] batchPrices = new double[QUOTES];
+        byte[] batchTypes = new byte[QUOTES];
+        int from = 0;
+        boolean running = true;
+        while (running && from < QUOTES) {
+            int count = Math.min(QUOTES - from, 1 + random.nextInt(1024));
+            System.arraycopy(timestamps, from, batchTimestamps, 0, count);
+            System.arraycopy(prices, from, batchPrices, 0, count);
+            System.arraycopy(types, from, batchTypes, 0, count);
+            running = kernel.execute(batchTimestamps, batchPrices, batchTypes, count);
+            from += count;
+        }
+        kernel.finish();
+        return kernel;
+    }
+
+    private void assertSameReport(RawReport expected, RawReport actual) {
+        assertEquals(expected.getCurrentFunds(), actual.getCurrentFunds(), 0);
+        assertEquals(expected.getMaxFunds(), actual.getMaxFunds(), 0);
+        assertEquals(expected.getGrossProfit(), actual.getGrossProfit(), 0);
+        assertEquals(expected.getGrossLosses(), actual.getGrossLosses(), 0);
+        assertEquals(expected.getMaxDrawdown(), actual.getMaxDrawdown(), 0);
+        assertEquals(expected.getDrawdownReturn(), actual.getDrawdownReturn(), 0);
+        assertEquals(expected.getWinCount(), actual.getWinCount());
+        assertEquals(expected.getLossesCount(), actual.getLossesCount());
+        assertEquals(expected.getMaxConsecutiveLossesCount(), actual.getMaxConsecutiveLossesCount());
+        assertArrayEquals(expected.getTrades().toBytes(), actual.getTrades().toBytes());
+    }
+
+    @Test
+    public void testKernelMatchesTheTaskOnRandomStrategies() {
+        Random random = new Random(11);
+        int traded = 0;
+        for (int i = 0; i < CASES; i++) {
+            quotes(random);
+            Strategy strategy = strategy(random);
+            LocalDateTime end = toDate(timestamps[random.nextInt(QUOTES)]).plusNanos(random.nextInt(2_000_000));
+            TestConfiguration configuration = configuration(end, 100 + random.nextInt(2000), 10 + random.nextInt(300));
+
+            StrategyTestTask task = runTask(strategy, configuration);
+            StrategyKernel kernel = runKernel(strategy, configuration, random);
+
+            assertSameReport(task.getRawReport(), kernel.getRawReport());
+            assertEquals(task.getFunds(), kernel.getFunds(), 0);
+            traded += task.getRawReport().getTrades().size() > 0 ? 1 : 0;
+        }
+        assertTrue(traded > CASES / 2);
+    }
+
+    @Test
+    public void testQuoteWithinTheLastMillisecondBeforeTheEndIsExecuted() {
+        quotes(new Random(3));
+        Rule rule = new Rule(new Condition(1000, Predicate.LESS_THAN), 1.0, 1000.0);
+        Set<Rule> rules = new LinkedHashSet<>();
+        rules.add(rule);
+        Strategy strategy = new Strategy("GoldStrategy", rules);
+        long[] last = {timestamps[0]};
+        double[] price = {50};
+        byte[] buy = {(byte) QuoteType.BUY.ordinal()};
+
+        StrategyKernel before = new StrategyKernel(strategy, configuration(toDate(last[0]).plusNanos(1), 1000, 100), null);
+        assertTrue(before.execute(last, price, buy, 1));
+        assertEquals(898, before.getFunds(), 0.000001);
+
+        StrategyKernel atEnd = new StrategyKernel(strategy, configuration(toDate(last[0]), 1000, 100), null);
+        assertFalse(atEnd.execute(last, price, buy, 1));
+        assertTrue(atEnd.isFinished());
+        assertEquals(1000, atEnd.getFunds(), 0);
+    }
+
+    @Test
+    public void testFinishedKernelIgnoresFurtherQuotes() {
+        quotes(new Random(5));
+        Random random = new Random(5);
+        Strategy strategy = strategy(random);
+        StrategyKernel kernel = new StrategyKernel(strategy, configuration(toDate(timestamps[QUOTES / 2]), 1000, 100), null);
+
+        assertFalse(kernel.execute(timestamps, prices, types, QUOTES));
+        double funds = kernel.getFunds();
+        assertFalse(kernel.execute(timestamps, prices, types, QUOTES));
+        assertEquals(funds, kernel.getFunds(), 0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class StrategyVariantTest {
+    public static final double DELTA = 0.000001;
+    public static final int QUOTES = 5000;
+    private final LocalDateTime start = LocalDateTime.of(2020, 3, 2, 0, 0);
+    private final TestConfiguration configuration = new TestConfiguration("User1",
+            "GoldStrategy",
+            Asset.GOLD,
+            start,
+            start.plusSeconds(QUOTES - 100),
+            1000,
+            150);
+
+    private List<Quote> quotes() {
+        Random random = new Random(7);
+        List<Quote> quotes = new ArrayList<>();
+        double price = 50;
+        for (int i = 0; i < QUOTES; i++) {
+            price = Math.max(1, price + random.nextGaussian());
+            QuoteType type = random.nextBoolean() ? QuoteType.BUY : QuoteType.SELL;
+            quotes.add(new Quote(Asset.GOLD, price, type, start.plusSeconds(i)));
+        }
+        return quotes;
+    }
+
+    private Strategy strategy(Rule first, Rule second) {
+        Set<Rule> rules = new LinkedHashSet<>();
+        rules.add(first);
+        rules.add(second);
+        return new Strategy("GoldStrategy", rules);
+    }
+
+    private RawReport runTask(Strategy strategy) {
+        StrategyTestTask task = new StrategyTestTask(configuration, strategy, null, mock(ReportRepository.class));
+        for (Quote quote : quotes()) {
+            task.execute(quote);
+            if (task.isFinished()) {
+                break;
+            }
+        }
+        return task.getRawReport();
+    }
+
+    private RawReport runVariant(StrategyVariant variant) {
+        for (Quote quote : quotes()) {
+            if (!quote.getDate().isBefore(configuration.getEnd())) {
+                break;
+            }
+            variant.execute(quote.getType(), quote.getPrice());
+        }
+        variant.finish();
+        return variant.getRawReport();
+    }
+
+    private void assertSameReport(RawReport expected, RawReport actual) {
+        assertEquals(expected.getCurrentFunds(), actual.getCurrentFunds(), DELTA);
+        assertEquals(expected.getGrossProfit(), actual.getGrossProfit(), DELTA);
+        assertEquals(expected.getGrossLosses(), actual.getGrossLosses(), DELTA);
+        assertEquals(expected.getMaxDrawdown(), actual.getMaxDrawdown(), DELTA);
+        assertEquals(expected.getWinCount(), actual.getWinCount());
+        assertEquals(expected.getLossesCount(), actual.getLossesCount());
+        assertEquals(expected.getMaxConsecutiveLossesCount(), actual.getMaxConsecutiveLossesCount());
+    }
+
+    @Test
+    public void testVariantWithTheRuleValuesMatchesTheTask() {
+        Rule swept = new Rule(new Condition(48, Predicate.LESS_THAN), 3.0, 2.0);
+        Strategy strategy = strategy(swept, new Rule(new Condition(55, Predicate.GREATER_THAN), 1.0, 4.0));
+
+        StrategyVariant variant = new StrategyVariant(strategy, swept, 3.0, 2.0, 48, configuration);
+
+        RawReport expected = runTask(strategy);
+        assertTrue(expected.getWinCount() + expected.getLossesCount() > 0);
+        assertSameReport(expected, runVariant(variant));
+    }
+
+    @Test
+    public void testVariantMatchesTheTaskOfTheChangedStrategy() {
+        Rule swept = new Rule(new Condition(48, Predicate.LESS_THAN), 3.0, 2.0);
+        Rule other = new Rule(new Condition(55, Predicate.GREATER_THAN), 1.0, 4.0);
+        StrategyVariant variant = new StrategyVariant(strategy(swept, other), swept, 1.5, 6.0, 52, configuration);
+
+        Rule changed = new Rule(new Condition(52, Predicate.LESS_THAN), 1.5, 6.0);
+        assertSameReport(runTask(strategy(changed, other)), runVariant(variant));
+    }
+
+    @Test
+    public void testFinishClosesTheOpenTrade() {
+        Rule rule = new Rule(new Condition(1000, Predicate.LESS_THAN), 10.0, 1000.0);
+        Set<Rule> rules = new LinkedHashSet<>();
+        rules.add(rule);
+        StrategyVariant variant = new StrategyVariant(new Strategy("GoldStrategy", rules), rule, 10, 1000, 1000,
+                configuration);
+
+        variant.execute(QuoteType.BUY, 50);
+        assertEquals(850, variant.getRawReport().getCurrentFunds(), DELTA);
+        variant.finish();
+        assertTrue(variant.isFinished());
+        assertEquals(1000, variant.getRawReport().getCurrentFunds(), DELTA);
+        assertEquals(1, variant.getRawReport().getWinCount());
+    }
+
+    @Test
+    public void testParameterRangeIncludesBothEnds() {
+        ParameterRange range = new ParameterRange(0.5, 2.0, 0.1);
+        assertEquals(16, range.size());
+        assertEquals(2.0, range.get(15), DELTA);
+        assertEquals(1, ParameterRange.of(3).size());
+    }
+}
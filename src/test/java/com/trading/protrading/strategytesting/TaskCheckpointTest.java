@@ -0,0 +1,134 @@
+package com.trading.protrading.strategytesting;
+
+import com.trading.protrading.data.strategy.Asset;
+import com.trading.protrading.data.strategy.Predicate;
+import com.trading.protrading.data.strategy.Quote;
+import com.trading.protrading.data.strategy.QuoteType;
+import com.trading.protrading.model.Condition;
+import com.trading.protrading.model.Rule;
+import com.trading.protrading.model.Strategy;
+import com.trading.protrading.repository.ReportRepository;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class TaskCheckpointTest {
+    public static final int QUOTES = 300;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 3, 2, 0, 0);
+    private final TestConfiguration configuration = new TestConfiguration("User1", "GoldStrategy", Asset.GOLD,
+            START, START.plusMinutes(QUOTES), 1000, 150);
+
+    private static List<Quote> quotes() {
+        Random random = new Random(7);
+        List<Quote> quotes = new ArrayList<>();
+        double price = 50;
+        // the last one is past the end and finishes the task
+        for (int i = 0; i <= QUOTES; i++) {
+            price = Math.max(1, price + random.nextGaussian());
+            QuoteType type = random.nextBoolean() ? QuoteType.BUY : QuoteType.SELL;
+            quotes.add(new Quote(Asset.GOLD, price, type, START.plusMinutes(i).plusNanos(random.nextInt(1000) * 1_000_000L)));
+        }
+        return quotes;
+    }
+
+    private StrategyTestTask task() {
+        Set<Rule> rules = new LinkedHashSet<>();
+        rules.add(new Rule(new Condition(50, Predicate.LESS_OR_EQUAL), 1.5, 2.0));
+        rules.add(new Rule(new Condition(52, Predicate.GREATER_THAN), 3.0, 1.0));
+        return new StrategyTestTask(configuration, new Strategy("GoldStrategy", rules), null, mock(ReportRepository.class));
+    }
+
+    private static TaskCheckpoint roundTrip(TaskCheckpoint checkpoint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        checkpoint.write(new DataOutputStream(bytes));
+        return TaskCheckpoint.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static byte[] bytes(TaskCheckpoint checkpoint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        checkpoint.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameReport(RawReport expected, RawReport actual) {
+        assertEquals(expected.getMaxFunds(), actual.getMaxFunds(), 0);
+        assertEquals(expected.getCurrentFunds(), actual.getCurrentFunds(), 0);
+        assertEquals(expected.getLockedFunds(), actual.getLockedFunds(), 0);
+        assertEquals(expected.getGrossProfit(), actual.getGrossProfit(), 0);
+        assertEquals(expected.getGrossLosses(), actual.getGrossLosses(), 0);
+        assertEquals(expected.getMaxDrawdown(), actual.getMaxDrawdown(), 0);
+        assertEquals(expected.getDrawdownReturn(), actual.getDrawdownReturn(), 0);
+        assertEquals(expected.getWinCount(), actual.getWinCount());
+        assertEquals(expected.getLossesCount(), actual.getLossesCount());
+        assertEquals(expected.getMaxConsecutiveLossesCount(), actual.getMaxConsecutiveLossesCount());
+        assertEquals(expected.getCurrentConsecutiveLossesCount(), actual.getCurrentConsecutiveLossesCount());
+        assertArrayEquals(expected.getTrades().toBytes(), actual.getTrades().toBytes());
+    }
+
+    @Test
+    public void testWriteAndReadKeepTheWholeState() throws IOException {
+        List<Quote> quotes = quotes();
+        StrategyTestTask task = task();
+        for (int i = 0; i < QUOTES / 2; i++) {
+            task.execute(quotes.get(i));
+        }
+        TaskCheckpoint checkpoint = task.checkpoint(quotes.get(QUOTES / 2 - 1).getDate());
+        TaskCheckpoint read = roundTrip(checkpoint);
+
+        assertArrayEquals(bytes(checkpoint), bytes(read));
+        assertEquals(checkpoint.getPosition(), read.getPosition());
+        assertEquals(task.getFunds(), read.getFunds(), 0);
+        assertEquals(task.getLockedFunds(), read.getLockedFunds(), 0);
+        assertArrayEquals(task.getRawReport().getTrades().toBytes(), read.getTrades());
+    }
+
+    @Test
+    public void testResumedTaskEndsLikeTheUninterruptedOne() throws IOException {
+        List<Quote> quotes = quotes();
+        StrategyTestTask uninterrupted = task();
+        for (Quote quote : quotes) {
+            uninterrupted.execute(quote);
+        }
+        assertTrue(uninterrupted.isFinished());
+        assertTrue(uninterrupted.getRawReport().getWinCount() + uninterrupted.getRawReport().getLossesCount() > 0);
+
+        int withOpenTrade = 0;
+        for (int stop = 1; stop < QUOTES; stop++) {
+            StrategyTestTask interrupted = task();
+            for (int i = 0; i < stop; i++) {
+                interrupted.execute(quotes.get(i));
+            }
+            if (interrupted.tradeIsOpen()) {
+                withOpenTrade++;
+            }
+            TaskCheckpoint checkpoint = roundTrip(interrupted.checkpoint(quotes.get(stop - 1).getDate()));
+
+            StrategyTestTask resumed = task();
+            resumed.resume(checkpoint);
+            for (Quote quote : quotes) {
+                if (!quote.getDate().isBefore(resumed.getResumePoint())) {
+                    resumed.execute(quote);
+                }
+            }
+
+            assertTrue(resumed.isFinished());
+            assertEquals(uninterrupted.getFunds(), resumed.getFunds(), 0);
+            assertSameReport(uninterrupted.getRawReport(), resumed.getRawReport());
+        }
+        assertTrue("No checkpoint was taken with an open trade", withOpenTrade > 0);
+    }
+
+}
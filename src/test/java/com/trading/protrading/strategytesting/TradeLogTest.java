@@ -0,0 +1,41 @@
+package com.trading.protrading.strategytesting;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TradeLogTest {
+    public static final double DELTA = 0.01;
+    public static final double STARTING_FUNDS = 500.7;
+
+    @Test
+    public void testReportRecordsClosedPositions() {
+        TradeLog trades = new TradeLog();
+        RawReport report = new RawReport(STARTING_FUNDS, trades);
+
+        report.openPosition(75.2);
+        report.closePosition(124.37);
+        report.openPosition(75.2);
+        report.closePosition(70.2);
+
+        assertEquals(2, trades.size());
+        assertEquals(75.2, trades.getBuyFunds(1), DELTA);
+        assertEquals(70.2, trades.getOutcome(1), DELTA);
+    }
+
+    @Test
+    public void testReplayMatchesTheRecordedReport() {
+        TradeLog trades = new TradeLog();
+        RawReport report = new RawReport(STARTING_FUNDS, trades);
+        for (int i = 0; i < 40; i++) {
+            report.openPosition(50);
+            report.closePosition(i % 3 == 0 ? 30 : 60);
+        }
+
+        RawReport replayed = trades.replay(STARTING_FUNDS);
+        assertEquals(report.getCurrentFunds(), replayed.getCurrentFunds(), DELTA);
+        assertEquals(report.getMaxDrawdown(), replayed.getMaxDrawdown(), DELTA);
+        assertEquals(report.getLossesCount(), replayed.getLossesCount());
+        assertEquals(report.getMaxConsecutiveLossesCount(), replayed.getMaxConsecutiveLossesCount());
+    }
+}